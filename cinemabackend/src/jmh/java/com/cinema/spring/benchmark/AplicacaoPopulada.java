@@ -0,0 +1,176 @@
+package com.cinema.spring.benchmark;
+
+import com.cinema.spring.CinemabackendApplication;
+import com.cinema.spring.model.Filme;
+import com.cinema.spring.model.Ingresso;
+import com.cinema.spring.model.LancheCombo;
+import com.cinema.spring.model.Pedido;
+import com.cinema.spring.model.Sala;
+import com.cinema.spring.model.SeatLayout;
+import com.cinema.spring.model.Sessao;
+import com.cinema.spring.repository.FilmeRepository;
+import com.cinema.spring.repository.IngressoRepository;
+import com.cinema.spring.repository.LancheComboRepository;
+import com.cinema.spring.repository.PedidoRepository;
+import com.cinema.spring.repository.SalaRepository;
+import com.cinema.spring.repository.SessaoRepository;
+import com.cinema.spring.service.GradeSalasService;
+import com.cinema.spring.service.OcupacaoService;
+import com.cinema.spring.service.ProgramacaoService;
+import com.cinema.spring.service.VendasService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Sobe a aplicação sem servidor web, sobre um H2 em memória exclusivo, e o
+ * popula com {@code linhas} filmes, sessões, ingressos e pedidos (distribuídos
+ * em {@link #SALAS} salas). O tamanho vem de {@code -p linhas=...}; o diário
+ * do checkout fica num diretório temporário e pode ser desligado com
+ * {@code -p diario=false}.
+ * <p>
+ * Com {@code -p ids=IDENTITY}, sessões e pedidos voltam a ter ids gerados pelo
+ * banco (IDENTITY) em vez da sequência com blocos de 50, por um orm.xml e uma
+ * migração que só existem no módulo de benchmark. É a linha de base para
+ * comparar a geração de ids nos benchmarks de gravação.
+ * <p>
+ * {@link ServidorPopulado} sobe a mesma aplicação com o servidor web.
+ */
+@State(Scope.Benchmark)
+public class AplicacaoPopulada {
+	public static final int SALAS = 10;
+	public static final LocalDateTime INICIO = LocalDateTime.of(2026, 1, 1, 10, 0);
+
+	@Param({"1000"})
+	public int linhas;
+
+	@Param({"true"})
+	public boolean diario;
+
+	@Param({"SEQUENCE"})
+	public String ids;
+
+	public List<Long> filmes;
+	public List<Long> salas;
+	public List<Long> sessoes;
+	public List<Long> ingressos;
+	public List<Long> lancheCombos;
+	public List<Long> pedidos;
+
+	private ConfigurableApplicationContext contexto;
+	private Path diretorioDiario;
+
+	@Setup(Level.Trial)
+	public void iniciar() throws IOException {
+		diretorioDiario = Files.createTempDirectory("cinema-diario");
+		List<String> argumentos = new ArrayList<>(List.of(
+				"--spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID(),
+				"--spring.jpa.show-sql=false",
+				"--cinema.checkout.diario.habilitado=" + diario,
+				"--cinema.checkout.diario.diretorio=" + diretorioDiario,
+				"--logging.level.root=WARN",
+				"--logging.level.com.cinema.spring=WARN",
+				"--logging.level.org.hibernate=WARN"));
+		switch (ids) {
+			case "SEQUENCE" -> { }
+			case "IDENTITY" -> {
+				argumentos.add("--spring.jpa.mapping-resources=META-INF/ids-identity.xml");
+				argumentos.add("--spring.flyway.locations=classpath:db/migration,classpath:db/ids-identity");
+			}
+			default -> throw new IllegalArgumentException("ids deve ser SEQUENCE ou IDENTITY: " + ids);
+		}
+		configurar(argumentos);
+		contexto = new SpringApplicationBuilder(CinemabackendApplication.class)
+				.web(web())
+				.logStartupInfo(false)
+				.run(argumentos.toArray(String[]::new));
+		popular();
+	}
+
+	@TearDown(Level.Trial)
+	public void encerrar() throws IOException {
+		contexto.close();
+		try (Stream<Path> arquivos = Files.walk(diretorioDiario)) {
+			for (Path arquivo : arquivos.sorted(Comparator.reverseOrder()).toList()) {
+				Files.delete(arquivo);
+			}
+		}
+	}
+
+	public <T> T bean(Class<T> tipo) {
+		return contexto.getBean(tipo);
+	}
+
+	/**
+	 * Argumentos extras para a subida, acrescentados depois dos daqui.
+	 */
+	protected void configurar(List<String> argumentos) {
+	}
+
+	protected WebApplicationType web() {
+		return WebApplicationType.NONE;
+	}
+
+	private void popular() {
+		// Capacidade folgada para que os benchmarks de gravação não lotem as sessões.
+		List<Sala> salasCriadas = new ArrayList<>();
+		for (int i = 0; i < SALAS; i++) {
+			salasCriadas.add(new Sala(null, i + 1, 1_000_000_000, SeatLayout.of(new int[10][20]), Sala.PADRAO, null));
+		}
+		salasCriadas = bean(SalaRepository.class).saveAll(salasCriadas);
+
+		List<LancheCombo> combos = bean(LancheComboRepository.class).saveAll(List.of(
+				new LancheCombo(null, "Pipoca", "Pipoca média", 15.0, 1, 15.0, null),
+				new LancheCombo(null, "Refrigerante", "Lata", 7.0, 1, 7.0, null),
+				new LancheCombo(null, "Combo casal", "Pipoca grande e dois refrigerantes", 32.0, 1, 32.0, null)));
+
+		List<Filme> filmes = new ArrayList<>(linhas);
+		List<Sessao> sessoes = new ArrayList<>(linhas);
+		List<Ingresso> ingressosCriados = new ArrayList<>(linhas);
+		List<Pedido> pedidosCriados = new ArrayList<>(linhas);
+		for (int i = 0; i < linhas; i++) {
+			Filme filme = new Filme(null, "Filme " + i, "Sinopse do filme " + i, "14", 120, "Elenco " + i, "Drama",
+					LocalDate.of(2026, 1, 1), LocalDate.of(2026, 12, 31), null);
+			Sessao sessao = new Sessao(null, INICIO.plusHours(4L * (i / SALAS)), filme, salasCriadas.get(i % SALAS));
+			Ingresso ingresso = new Ingresso(null, 2000L, 1000L, sessao, null);
+			filmes.add(filme);
+			sessoes.add(sessao);
+			ingressosCriados.add(ingresso);
+			pedidosCriados.add(new Pedido(null, INICIO, 1, 1, ingresso, new ArrayList<>(combos.subList(0, 1 + i % combos.size())),
+					0.0, "PIX", null, null));
+		}
+		bean(FilmeRepository.class).saveAll(filmes);
+		bean(SessaoRepository.class).saveAll(sessoes);
+		bean(IngressoRepository.class).saveAll(ingressosCriados);
+		bean(PedidoRepository.class).saveAll(pedidosCriados);
+
+		bean(GradeSalasService.class).reconstruir();
+		bean(OcupacaoService.class).reconciliar();
+		bean(ProgramacaoService.class).reconstruir();
+		bean(VendasService.class).reconstruir();
+
+		this.filmes = filmes.stream().map(Filme::getId).toList();
+		salas = salasCriadas.stream().map(Sala::getId).toList();
+		this.sessoes = sessoes.stream().map(Sessao::getId).toList();
+		lancheCombos = combos.stream().map(LancheCombo::getId).toList();
+		ingressos = ingressosCriados.stream().map(Ingresso::getId).toList();
+		pedidos = pedidosCriados.stream().map(Pedido::getId).toList();
+	}
+}
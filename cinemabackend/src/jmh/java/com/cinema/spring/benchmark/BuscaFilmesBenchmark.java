@@ -0,0 +1,106 @@
+package com.cinema.spring.benchmark;
+
+import com.cinema.spring.dto.BuscaFilmesDTO;
+import com.cinema.spring.model.Filme;
+import com.cinema.spring.service.BuscaFilmesService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas ao índice de busca de filmes sobre um catálogo sintético, sem
+ * subir a aplicação: títulos, sinopses e elencos sorteados de um vocabulário
+ * com acentos (as palavras comuns aparecem em boa parte do catálogo), gêneros
+ * e classificações com distribuição desigual.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BuscaFilmesBenchmark {
+	private static final String[] PALAVRAS = {
+			"amor", "ação", "aventura", "coração", "noite", "cidade", "guerra", "família", "segredo", "viagem",
+			"último", "herói", "sombra", "mar", "sertão", "estrela", "destino", "memória", "fogo", "música",
+			"escola", "irmão", "caminho", "ilha", "tempo", "vingança", "missão", "sonho", "perigo", "paixão"};
+	private static final String[] NOMES = {
+			"Ana", "João", "Inês", "Sérgio", "Lúcia", "Márcio", "Conceição", "Raul", "Fátima", "Caio"};
+	private static final String[] GENEROS = {"Drama", "Ação", "Comédia", "Suspense", "Animação", "Ficção Científica"};
+	private static final String[] CLASSIFICACOES = {"L", "10", "12", "14", "16", "18"};
+
+	@Param({"100000"})
+	public int filmes;
+
+	private BuscaFilmesService busca;
+
+	@Setup
+	public void preparar() {
+		busca = new BuscaFilmesService(null);
+		Random aleatorio = new Random(42);
+		List<Filme> catalogo = new ArrayList<>(filmes);
+		for (int i = 1; i <= filmes; i++) {
+			LocalDate inicio = LocalDate.of(2026, 1, 1).plusDays(aleatorio.nextInt(365));
+			catalogo.add(new Filme((long) i, texto(aleatorio, 3) + " " + i, texto(aleatorio, 10) + " " + vocabulario(aleatorio, 30),
+					CLASSIFICACOES[Math.min(aleatorio.nextInt(8), 5)], 90 + aleatorio.nextInt(90),
+					NOMES[aleatorio.nextInt(NOMES.length)] + ", " + NOMES[aleatorio.nextInt(NOMES.length)],
+					GENEROS[Math.min(aleatorio.nextInt(9), 5)], inicio, inicio.plusDays(30 + aleatorio.nextInt(60)), null));
+		}
+		busca.indexarTodos(catalogo);
+	}
+
+	@Benchmark
+	public void indexarUm() {
+		busca.indexar(new Filme(1L, "Último coração " + System.nanoTime(), "Sinopse", "L", 100, "Ana", "Drama",
+				LocalDate.of(2026, 6, 1), LocalDate.of(2026, 7, 1), null));
+	}
+
+	@Benchmark
+	public BuscaFilmesDTO termoRaro() {
+		return busca.buscar("zq417", null, null, null, null, 50);
+	}
+
+	@Benchmark
+	public BuscaFilmesDTO doisTermos() {
+		return busca.buscar("coracao sertao", null, null, null, null, 50);
+	}
+
+	@Benchmark
+	public BuscaFilmesDTO prefixo() {
+		return busca.buscar("vingan", null, null, null, null, 50);
+	}
+
+	@Benchmark
+	public BuscaFilmesDTO tituloComFacetas() {
+		return busca.buscar("missão estr", List.of("drama", "acao"), List.of("14"), LocalDate.of(2026, 6, 1), LocalDate.of(2026, 6, 30), 50);
+	}
+
+	@Benchmark
+	public BuscaFilmesDTO semTexto() {
+		return busca.buscar(null, List.of("Comédia"), null, LocalDate.of(2026, 6, 1), LocalDate.of(2026, 6, 30), 50);
+	}
+
+	private static String texto(Random aleatorio, int palavras) {
+		StringBuilder texto = new StringBuilder();
+		for (int i = 0; i < palavras; i++) {
+			texto.append(i == 0 ? "" : " ").append(PALAVRAS[aleatorio.nextInt(PALAVRAS.length)]);
+		}
+		return texto.toString();
+	}
+
+	private static String vocabulario(Random aleatorio, int palavras) {
+		StringBuilder texto = new StringBuilder();
+		for (int i = 0; i < palavras; i++) {
+			texto.append(" z").append((char) ('a' + aleatorio.nextInt(26))).append(aleatorio.nextInt(1000));
+		}
+		return texto.toString();
+	}
+}
@@ -0,0 +1,97 @@
+package com.cinema.spring.benchmark;
+
+import com.cinema.spring.dto.PedidoDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latência de {@code POST /pedidos} e {@code GET /sessoes} com
+ * {@link #CLIENTES} clientes HTTP simultâneos, cada um esperando a resposta
+ * antes de mandar a próxima, com o servidor em threads de plataforma ou
+ * virtuais ({@link ServidorPopulado}). Em modo amostral o JMH reporta os
+ * percentis; o que se compara entre {@code threads=PLATAFORMA} e
+ * {@code VIRTUAL} é o p0.99.
+ * <p>
+ * O lado virtual exige Java 21:
+ * {@code ./mvnw -Pbenchmark,java21 verify -Djmh.benchmarks=CargaHttpBenchmark -Djmh.ids=SEQUENCE}.
+ * Respostas de erro (conexão recusada pelo semáforo, por exemplo) não
+ * interrompem a medição; a quantidade é impressa ao fim de cada iteração.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(CargaHttpBenchmark.CLIENTES)
+public class CargaHttpBenchmark {
+	static final int CLIENTES = 2000;
+
+	private final LongAdder erros = new LongAdder();
+	private HttpClient cliente;
+	private URI pedidos;
+	private URI sessoes;
+	private List<String> corpos;
+
+	@Setup(Level.Trial)
+	public void preparar(ServidorPopulado servidor) {
+		cliente = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.build();
+		pedidos = servidor.uri("/pedidos");
+		sessoes = servidor.uri("/sessoes");
+		JsonMapper jsonMapper = servidor.bean(JsonMapper.class);
+		corpos = new ArrayList<>(servidor.ingressos.size());
+		for (Long ingresso : servidor.ingressos) {
+			corpos.add(jsonMapper.writeValueAsString(new PedidoDTO(null, AplicacaoPopulada.INICIO, 1, 1, ingresso,
+					List.of(servidor.lancheCombos.get(0)), null, "PIX", null, null)));
+		}
+	}
+
+	@TearDown(Level.Iteration)
+	public void relatarErros() {
+		long quantidade = erros.sumThenReset();
+		if (quantidade > 0) {
+			System.out.println(quantidade + " resposta(s) com erro nesta iteração");
+		}
+	}
+
+	@Benchmark
+	public int criarPedido() throws IOException, InterruptedException {
+		String corpo = corpos.get(ThreadLocalRandom.current().nextInt(corpos.size()));
+		return enviar(HttpRequest.newBuilder(pedidos)
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(corpo))
+				.build());
+	}
+
+	@Benchmark
+	public int listarSessoes() throws IOException, InterruptedException {
+		return enviar(HttpRequest.newBuilder(sessoes).GET().build());
+	}
+
+	private int enviar(HttpRequest requisicao) throws IOException, InterruptedException {
+		int status = cliente.send(requisicao, HttpResponse.BodyHandlers.discarding()).statusCode();
+		if (status >= 300) {
+			erros.increment();
+		}
+		return status;
+	}
+}
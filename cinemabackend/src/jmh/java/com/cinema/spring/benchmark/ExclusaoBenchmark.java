@@ -0,0 +1,116 @@
+package com.cinema.spring.benchmark;
+
+import com.cinema.spring.service.LancheComboService;
+import com.cinema.spring.service.SessaoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Guardas de exclusão em função do tamanho de {@code pedidos}: cada operação
+ * tenta excluir uma sessão ou um lanche combo que ainda tem pedidos, e a
+ * exclusão é recusada pela contagem de dependentes (nada é apagado).
+ * <p>
+ * A tabela é completada até {@code -p pedidos=...} com inserts diretos, todos
+ * na sessão do primeiro ingresso e com o primeiro combo: é o pior caso, em que
+ * a contagem percorre todos os pedidos do item. Os casos "com um pedido" e
+ * "menos pedido" mostram que, pelo índice, o custo não depende do resto da
+ * tabela.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExclusaoBenchmark {
+	private static final int LOTE_INSERT = 1_000_000;
+	private static final long PRIMEIRO_ID = 1_000_000_000L;
+
+	@Param({"1000", "100000", "1000000", "10000000"})
+	public int pedidos;
+
+	private SessaoService sessaoService;
+	private LancheComboService lancheComboService;
+	private Long sessaoMaisPedida;
+	private Long sessaoComUmPedido;
+	private Long comboMaisPedido;
+	private Long comboMenosPedido;
+
+	@Setup(Level.Trial)
+	public void preparar(AplicacaoPopulada aplicacao) throws SQLException {
+		sessaoService = aplicacao.bean(SessaoService.class);
+		lancheComboService = aplicacao.bean(LancheComboService.class);
+		sessaoMaisPedida = aplicacao.sessoes.get(0);
+		sessaoComUmPedido = aplicacao.sessoes.get(aplicacao.sessoes.size() - 1);
+		comboMaisPedido = aplicacao.lancheCombos.get(0);
+		comboMenosPedido = aplicacao.lancheCombos.get(aplicacao.lancheCombos.size() - 1);
+		completarPedidos(aplicacao, pedidos - aplicacao.pedidos.size());
+	}
+
+	@Benchmark
+	public String sessaoMaisPedida() {
+		return recusada(() -> sessaoService.deleteById(sessaoMaisPedida));
+	}
+
+	@Benchmark
+	public String sessaoComUmPedido() {
+		return recusada(() -> sessaoService.deleteById(sessaoComUmPedido));
+	}
+
+	@Benchmark
+	public String lancheComboMaisPedido() {
+		return recusada(() -> lancheComboService.deleteById(comboMaisPedido));
+	}
+
+	@Benchmark
+	public String lancheComboMenosPedido() {
+		return recusada(() -> lancheComboService.deleteById(comboMenosPedido));
+	}
+
+	private static String recusada(Runnable exclusao) {
+		try {
+			exclusao.run();
+		} catch (RuntimeException e) {
+			return e.getMessage();
+		}
+		throw new IllegalStateException("A exclusão deveria ter sido recusada");
+	}
+
+	private static void completarPedidos(AplicacaoPopulada aplicacao, int faltam) throws SQLException {
+		if (faltam <= 0) {
+			return;
+		}
+		DataSource dataSource = aplicacao.bean(DataSource.class);
+		try (Connection conexao = dataSource.getConnection();
+				PreparedStatement pedidos = conexao.prepareStatement(
+						"INSERT INTO pedidos (id, data_hora, ingressos_meia_qtd, ingressos_inteira_qtd, ingresso_id, valor_total, metodo_pagamento, versao) "
+								+ "SELECT ? + X, ?, 1, 1, ?, 0, 'PIX', 0 FROM SYSTEM_RANGE(1, ?)");
+				PreparedStatement combos = conexao.prepareStatement(
+						"INSERT INTO pedido_lanche_combo (pedido_id, lanche_combo_id) SELECT ? + X, ? FROM SYSTEM_RANGE(1, ?)")) {
+			conexao.setAutoCommit(true);
+			for (int inicio = 0; inicio < faltam; inicio += LOTE_INSERT) {
+				int quantidade = Math.min(LOTE_INSERT, faltam - inicio);
+				pedidos.setLong(1, PRIMEIRO_ID + inicio);
+				pedidos.setTimestamp(2, Timestamp.valueOf(AplicacaoPopulada.INICIO));
+				pedidos.setLong(3, aplicacao.ingressos.get(0));
+				pedidos.setInt(4, quantidade);
+				pedidos.executeUpdate();
+				combos.setLong(1, PRIMEIRO_ID + inicio);
+				combos.setLong(2, aplicacao.lancheCombos.get(0));
+				combos.setInt(3, quantidade);
+				combos.executeUpdate();
+			}
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package com.cinema.spring.benchmark;
+
+import com.cinema.spring.dto.CheckoutConfirmacaoDTO;
+import com.cinema.spring.dto.CheckoutDTO;
+import com.cinema.spring.dto.PedidoDTO;
+import com.cinema.spring.service.CheckoutService;
+import com.cinema.spring.service.PedidoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazão de pedidos com vários clientes concorrentes nos dois modos de
+ * gravação: síncrono ({@code POST /pedidos}, um commit por pedido na
+ * requisição) e checkout ({@code POST /pedidos/checkout}, aceito depois do
+ * diário em disco e gravado em lotes). Quando a fila do checkout enche, o
+ * cliente espera e tenta de novo, então a vazão medida é a sustentada pelo
+ * escritor e não só a de aceitação. Compare com e sem diário usando
+ * {@code -p diario=false,true}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class GravacaoPedidosBenchmark {
+	private AplicacaoPopulada aplicacao;
+	private PedidoService pedidoService;
+	private CheckoutService checkoutService;
+
+	@Setup
+	public void preparar(AplicacaoPopulada aplicacao) {
+		this.aplicacao = aplicacao;
+		pedidoService = aplicacao.bean(PedidoService.class);
+		checkoutService = aplicacao.bean(CheckoutService.class);
+	}
+
+	@Benchmark
+	public PedidoDTO sincrono() {
+		return pedidoService.save(new PedidoDTO(null, AplicacaoPopulada.INICIO, 1, 1, ingresso(),
+				new ArrayList<>(aplicacao.lancheCombos), null, "PIX", null, null));
+	}
+
+	@Benchmark
+	public CheckoutConfirmacaoDTO checkout() throws InterruptedException {
+		CheckoutDTO dto = new CheckoutDTO(ingresso(), 1, 1, new ArrayList<>(aplicacao.lancheCombos), "PIX");
+		while (true) {
+			try {
+				return checkoutService.checkout(dto);
+			} catch (IllegalStateException e) {
+				TimeUnit.MILLISECONDS.sleep(1);
+			}
+		}
+	}
+
+	private Long ingresso() {
+		List<Long> ingressos = aplicacao.ingressos;
+		return ingressos.get(ThreadLocalRandom.current().nextInt(ingressos.size()));
+	}
+}
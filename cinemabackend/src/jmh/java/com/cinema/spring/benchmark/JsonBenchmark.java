@@ -0,0 +1,47 @@
+package com.cinema.spring.benchmark;
+
+import com.cinema.spring.dto.SessaoDTO;
+import com.cinema.spring.model.Filme;
+import com.cinema.spring.service.FilmeService;
+import com.cinema.spring.service.SessaoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização das listagens de filmes e sessões com o JsonMapper da
+ * aplicação. As listas são lidas da base uma vez, no setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonBenchmark {
+	private JsonMapper jsonMapper;
+	private List<Filme> filmes;
+	private List<SessaoDTO> sessoes;
+
+	@Setup
+	public void preparar(AplicacaoPopulada aplicacao) {
+		jsonMapper = aplicacao.bean(JsonMapper.class);
+		filmes = aplicacao.bean(FilmeService.class).findAll();
+		sessoes = aplicacao.bean(SessaoService.class).findAll();
+	}
+
+	@Benchmark
+	public byte[] filmes() {
+		return jsonMapper.writeValueAsBytes(filmes);
+	}
+
+	@Benchmark
+	public byte[] sessoes() {
+		return jsonMapper.writeValueAsBytes(sessoes);
+	}
+}
@@ -0,0 +1,50 @@
+package com.cinema.spring.benchmark;
+
+import com.cinema.spring.dto.LoteSessoesDTO;
+import com.cinema.spring.dto.ResultadoLoteSessoesDTO;
+import com.cinema.spring.service.SessaoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserção em massa: cada operação gera uma semana de grade (7 dias x 6
+ * horários x 10 salas = 420 sessões com ingresso) em uma semana ainda livre.
+ * Mede o custo por lote da geração de ids e do batching de inserts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LoteSessoesBenchmark {
+	private static final List<LocalTime> HORARIOS = List.of(
+			LocalTime.of(10, 0), LocalTime.of(12, 30), LocalTime.of(15, 0),
+			LocalTime.of(17, 30), LocalTime.of(20, 0), LocalTime.of(22, 30));
+
+	private AplicacaoPopulada aplicacao;
+	private SessaoService sessaoService;
+	private LocalDate proximaSemana;
+
+	@Setup
+	public void preparar(AplicacaoPopulada aplicacao) {
+		this.aplicacao = aplicacao;
+		sessaoService = aplicacao.bean(SessaoService.class);
+		proximaSemana = LocalDate.of(2030, 1, 1);
+	}
+
+	@Benchmark
+	public ResultadoLoteSessoesDTO saveLote() {
+		LocalDate inicio = proximaSemana;
+		proximaSemana = proximaSemana.plusWeeks(1);
+		return sessaoService.saveLote(new LoteSessoesDTO(List.of(aplicacao.filmes.get(0)), aplicacao.salas, HORARIOS,
+				inicio, inicio.plusDays(6), null, null));
+	}
+}
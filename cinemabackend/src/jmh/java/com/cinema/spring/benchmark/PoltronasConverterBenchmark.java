@@ -0,0 +1,63 @@
+package com.cinema.spring.benchmark;
+
+import com.cinema.spring.converter.PoltronasConverter;
+import com.cinema.spring.model.SeatLayout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversão do layout de poltronas entre a entidade e a coluna, no formato
+ * binário atual e a partir do JSON legado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PoltronasConverterBenchmark {
+	@Param({"10", "30"})
+	public int fileiras;
+
+	@Param({"20"})
+	public int assentosPorFileira;
+
+	private final PoltronasConverter conversor = new PoltronasConverter();
+	private SeatLayout layout;
+	private String coluna;
+	private String legado;
+
+	@Setup
+	public void preparar() {
+		int[][] poltronas = new int[fileiras][assentosPorFileira];
+		for (int fileira = 0; fileira < fileiras; fileira++) {
+			for (int numero = 0; numero < assentosPorFileira; numero++) {
+				poltronas[fileira][numero] = (fileira * 7 + numero) % 5 == 0 ? 1 : 0;
+			}
+		}
+		layout = SeatLayout.of(poltronas);
+		coluna = conversor.convertToDatabaseColumn(layout);
+		legado = Arrays.deepToString(poltronas).replace(" ", "");
+	}
+
+	@Benchmark
+	public String escrever() {
+		return conversor.convertToDatabaseColumn(layout);
+	}
+
+	@Benchmark
+	public SeatLayout ler() {
+		return conversor.convertToEntityAttribute(coluna);
+	}
+
+	@Benchmark
+	public SeatLayout lerLegado() {
+		return conversor.convertToEntityAttribute(legado);
+	}
+}
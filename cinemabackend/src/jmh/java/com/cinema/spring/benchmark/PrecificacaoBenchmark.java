@@ -0,0 +1,84 @@
+package com.cinema.spring.benchmark;
+
+import com.cinema.spring.dto.BasePrecoDTO;
+import com.cinema.spring.dto.RegrasPrecoDTO;
+import com.cinema.spring.service.PrecificacaoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Motor de preços sem subir a aplicação: cotação de uma sessão (o caminho de
+ * cada pedido e de cada venda refletida na programação) e recompilação de
+ * todas as tabelas quando as regras mudam.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PrecificacaoBenchmark {
+	private static final String[] TIPOS = {"PADRAO", "PADRAO", "PADRAO", "VIP", "IMAX", "3D"};
+
+	@Param({"20000"})
+	public int sessoes;
+
+	private PrecificacaoService precificacao;
+	private RegrasPrecoDTO regras;
+	private long[] ids;
+	private int[] vendidos;
+	private int proxima;
+
+	@Setup
+	public void preparar() {
+		precificacao = new PrecificacaoService(null, null);
+		regras = new RegrasPrecoDTO(2000L, 1000L,
+				Map.of(DayOfWeek.TUESDAY, -30, DayOfWeek.SATURDAY, 10, DayOfWeek.SUNDAY, 10),
+				List.of(new RegrasPrecoDTO.FaixaHorario(LocalTime.of(18, 0), LocalTime.of(23, 0), 15),
+						new RegrasPrecoDTO.FaixaHorario(LocalTime.of(23, 0), LocalTime.of(2, 0), -10)),
+				Map.of("VIP", 50, "IMAX", 40, "3D", 20), 7, 20,
+				List.of(new RegrasPrecoDTO.FaixaOcupacao(50, 10), new RegrasPrecoDTO.FaixaOcupacao(80, 25),
+						new RegrasPrecoDTO.FaixaOcupacao(95, 40)));
+		precificacao.definirRegras(regras);
+
+		Random aleatorio = new Random(42);
+		List<BasePrecoDTO> bases = new ArrayList<>(sessoes);
+		ids = new long[1024];
+		vendidos = new int[ids.length];
+		for (int i = 1; i <= sessoes; i++) {
+			LocalDate dia = LocalDate.of(2026, 10, 1).plusDays(aleatorio.nextInt(90));
+			int capacidade = 80 + aleatorio.nextInt(220);
+			bases.add(new BasePrecoDTO((long) i, dia.atTime(12 + aleatorio.nextInt(12), 0), TIPOS[aleatorio.nextInt(TIPOS.length)],
+					capacidade, dia.minusDays(aleatorio.nextInt(30)), 2000L, 1000L));
+		}
+		precificacao.carregar(bases);
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = 1 + aleatorio.nextInt(sessoes);
+			vendidos[i] = aleatorio.nextInt(300);
+		}
+	}
+
+	@Benchmark
+	public long cotar() {
+		int i = proxima++ & (ids.length - 1);
+		return precificacao.inteira(ids[i], vendidos[i]) + precificacao.meia(ids[i], vendidos[i]);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public void recompilar() {
+		precificacao.definirRegras(regras);
+	}
+}
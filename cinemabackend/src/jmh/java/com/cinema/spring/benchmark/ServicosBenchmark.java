@@ -0,0 +1,69 @@
+package com.cinema.spring.benchmark;
+
+import com.cinema.spring.dto.PedidoDTO;
+import com.cinema.spring.dto.SessaoDTO;
+import com.cinema.spring.service.PedidoService;
+import com.cinema.spring.service.SessaoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminhos quentes dos serviços sobre a base populada: gravação de pedido
+ * (toEntity, insert e toDTO), leitura de pedidos (projeção para DTO) e
+ * gravação de sessão (insert, ingresso padrão e ocupação da sala).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ServicosBenchmark {
+	private AplicacaoPopulada aplicacao;
+	private PedidoService pedidoService;
+	private SessaoService sessaoService;
+	private LocalDateTime proximoHorario;
+	private int contador;
+
+	@Setup
+	public void preparar(AplicacaoPopulada aplicacao) {
+		this.aplicacao = aplicacao;
+		pedidoService = aplicacao.bean(PedidoService.class);
+		sessaoService = aplicacao.bean(SessaoService.class);
+		proximoHorario = LocalDateTime.of(2030, 1, 1, 10, 0);
+	}
+
+	@Benchmark
+	public PedidoDTO pedidoSave() {
+		Long ingresso = aplicacao.ingressos.get(contador++ % aplicacao.ingressos.size());
+		return pedidoService.save(new PedidoDTO(null, AplicacaoPopulada.INICIO, 1, 2, ingresso,
+				new ArrayList<>(aplicacao.lancheCombos), null, "PIX", null, null));
+	}
+
+	@Benchmark
+	public List<PedidoDTO> pedidoFindAll() {
+		return pedidoService.findAll();
+	}
+
+	@Benchmark
+	public Optional<PedidoDTO> pedidoFindById() {
+		return pedidoService.findById(aplicacao.pedidos.get(contador++ % aplicacao.pedidos.size()));
+	}
+
+	@Benchmark
+	public SessaoDTO sessaoSave() {
+		int sala = contador++ % AplicacaoPopulada.SALAS;
+		if (sala == 0) {
+			proximoHorario = proximoHorario.plusHours(4);
+		}
+		return sessaoService.save(new SessaoDTO(null, proximoHorario, aplicacao.filmes.get(0), aplicacao.salas.get(sala), null));
+	}
+}
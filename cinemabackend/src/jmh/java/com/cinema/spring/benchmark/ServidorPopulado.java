@@ -0,0 +1,52 @@
+package com.cinema.spring.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.core.env.Environment;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * A aplicação populada de {@link AplicacaoPopulada}, mas com o Tomcat numa
+ * porta livre. Com {@code -p threads=PLATAFORMA} as requisições rodam no pool
+ * de threads de plataforma do Tomcat; com {@code VIRTUAL}, no perfil
+ * "virtual" (uma thread virtual por requisição e conexões limitadas pelo
+ * semáforo), que só existe a partir do Java 21.
+ * <p>
+ * Os dois lados usam o pool de 20 conexões do perfil virtual, para que a
+ * diferença medida seja a do modelo de threads.
+ */
+@State(Scope.Benchmark)
+public class ServidorPopulado extends AplicacaoPopulada {
+	@Param({"PLATAFORMA", "VIRTUAL"})
+	public String threads;
+
+	@Override
+	protected void configurar(List<String> argumentos) {
+		argumentos.add("--server.port=0");
+		argumentos.add("--server.tomcat.accept-count=" + CargaHttpBenchmark.CLIENTES);
+		argumentos.add("--spring.datasource.hikari.maximum-pool-size=20");
+		switch (threads) {
+			case "PLATAFORMA" -> argumentos.add("--spring.threads.virtual.enabled=false");
+			case "VIRTUAL" -> {
+				if (Runtime.version().feature() < 21) {
+					throw new IllegalStateException("threads=VIRTUAL exige Java 21, rodando em " + Runtime.version());
+				}
+				argumentos.add("--spring.profiles.active=virtual");
+			}
+			default -> throw new IllegalArgumentException("threads deve ser PLATAFORMA ou VIRTUAL: " + threads);
+		}
+	}
+
+	@Override
+	protected WebApplicationType web() {
+		return WebApplicationType.SERVLET;
+	}
+
+	public URI uri(String caminho) {
+		return URI.create("http://localhost:" + bean(Environment.class).getProperty("local.server.port") + caminho);
+	}
+}
@@ -0,0 +1,4 @@
+-- Só para o benchmark com -p ids=IDENTITY: sessões e pedidos com id gerado
+-- pelo banco, como antes da troca para sequências (ver META-INF/ids-identity.xml).
+ALTER TABLE sessoes ALTER COLUMN id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL;
+ALTER TABLE pedidos ALTER COLUMN id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL;
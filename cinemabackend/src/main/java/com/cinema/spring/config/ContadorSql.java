@@ -0,0 +1,42 @@
+package com.cinema.spring.config;
+
+/**
+ * Quantos comandos SQL a requisição corrente executou e quanto tempo eles
+ * levaram. Fica em uma ThreadLocal aberta pelo interceptor no início da
+ * requisição; comandos fora de uma requisição não são contados aqui.
+ */
+final class ContadorSql {
+    private static final ThreadLocal<ContadorSql> ATUAL = new ThreadLocal<>();
+
+    private long comandos;
+    private long nanos;
+
+    private ContadorSql() {
+    }
+
+    static void iniciar() {
+        ATUAL.set(new ContadorSql());
+    }
+
+    static ContadorSql encerrar() {
+        ContadorSql contador = ATUAL.get();
+        ATUAL.remove();
+        return contador;
+    }
+
+    static void registrar(long nanos) {
+        ContadorSql contador = ATUAL.get();
+        if (contador != null) {
+            contador.comandos++;
+            contador.nanos += nanos;
+        }
+    }
+
+    long comandos() {
+        return comandos;
+    }
+
+    long nanos() {
+        return nanos;
+    }
+}
@@ -28,8 +28,11 @@ public class CorsConfig {
         config.addAllowedMethod("GET");
         config.addAllowedMethod("POST");
         config.addAllowedMethod("PUT");
+        config.addAllowedMethod("PATCH");
         config.addAllowedMethod("DELETE");
         config.addAllowedMethod("OPTIONS");
+        config.addExposedHeader("ETag");
+        config.addExposedHeader("Idempotent-Replayed");
         
         source.registerCorsConfiguration("/**", config);
         return new CorsFilter(source);
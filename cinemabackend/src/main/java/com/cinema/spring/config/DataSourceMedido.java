@@ -0,0 +1,68 @@
+package com.cinema.spring.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource que cronometra cada execução de comando (execute*, inclusive
+ * batches) das conexões que entrega e repassa o tempo ao {@link MedidorSql}.
+ */
+class DataSourceMedido extends DelegatingDataSource {
+    private final MedidorSql medidor;
+
+    DataSourceMedido(DataSource alvo, MedidorSql medidor) {
+        super(alvo);
+        this.medidor = medidor;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return medindo(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return medindo(super.getConnection(username, password));
+    }
+
+    private Connection medindo(Connection conexao) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, metodo, args) -> {
+                    Object resultado = invocar(conexao, metodo, args);
+                    if (resultado instanceof Statement comando && Statement.class.isAssignableFrom(metodo.getReturnType())) {
+                        return medindo(comando, metodo.getReturnType());
+                    }
+                    return resultado;
+                });
+    }
+
+    private Object medindo(Statement comando, Class<?> tipo) {
+        return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{tipo},
+                (proxy, metodo, args) -> {
+                    if (!metodo.getName().startsWith("execute")) {
+                        return invocar(comando, metodo, args);
+                    }
+                    long inicio = System.nanoTime();
+                    try {
+                        return invocar(comando, metodo, args);
+                    } finally {
+                        medidor.registrar(System.nanoTime() - inicio);
+                    }
+                });
+    }
+
+    private static Object invocar(Object alvo, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(alvo, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.cinema.spring.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Envolve o DataSource em um {@link DataSourceMedido} e recebe o tempo de
+ * cada comando. O timer só é ligado depois que o MeterRegistry está pronto;
+ * comandos anteriores (DDL da inicialização) não são registrados nele.
+ */
+class MedidorSql implements BeanPostProcessor {
+    static final String SQL = "cinema.sql.comandos";
+
+    private volatile Timer timer;
+
+    void usar(MeterRegistry registry) {
+        timer = Timer.builder(SQL)
+                .description("Execução de comandos SQL")
+                .register(registry);
+    }
+
+    void registrar(long nanos) {
+        Timer atual = timer;
+        if (atual != null) {
+            atual.record(nanos, TimeUnit.NANOSECONDS);
+        }
+        ContadorSql.registrar(nanos);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof DataSourceMedido)) {
+            return new DataSourceMedido(dataSource, this);
+        }
+        return bean;
+    }
+}
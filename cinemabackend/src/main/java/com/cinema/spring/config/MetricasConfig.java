@@ -0,0 +1,37 @@
+package com.cinema.spring.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Métricas de banco: todo comando SQL é cronometrado no DataSource
+ * (cinema.sql.comandos) e cada requisição publica quantos comandos executou e
+ * quanto tempo passou no banco. Latência por endpoint, espera por conexão do
+ * Hikari e estatísticas do cache vêm do próprio Actuator.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class MetricasConfig implements WebMvcConfigurer {
+    private final MeterRegistry registry;
+    private final MedidorSql medidorSql;
+
+    @Bean
+    static MedidorSql medidorSql() {
+        return new MedidorSql();
+    }
+
+    @PostConstruct
+    void ligarTimer() {
+        medidorSql.usar(registry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry interceptors) {
+        interceptors.addInterceptor(new MetricasSqlInterceptor(registry));
+    }
+}
@@ -0,0 +1,59 @@
+package com.cinema.spring.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Abre o {@link ContadorSql} no início de cada requisição e, ao final,
+ * publica quantos comandos ela executou e o tempo gasto no banco, com as
+ * mesmas tags method/uri do http.server.requests. Requisições assíncronas
+ * (NDJSON, SSE) consultam o banco em outra thread e ficam de fora.
+ */
+class MetricasSqlInterceptor implements AsyncHandlerInterceptor {
+    static final String COMANDOS = "cinema.http.sql.comandos";
+    static final String TEMPO = "cinema.http.sql.tempo";
+
+    private final MeterRegistry registry;
+
+    MetricasSqlInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ContadorSql.iniciar();
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ContadorSql.encerrar();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ContadorSql contador = ContadorSql.encerrar();
+        if (contador == null) {
+            return;
+        }
+        Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = padrao == null ? "UNKNOWN" : padrao.toString();
+        DistributionSummary.builder(COMANDOS)
+                .description("Comandos SQL executados por requisição")
+                .tags("method", request.getMethod(), "uri", uri)
+                .register(registry)
+                .record(contador.comandos());
+        Timer.builder(TEMPO)
+                .description("Tempo de banco por requisição")
+                .tags("method", request.getMethod(), "uri", uri)
+                .register(registry)
+                .record(contador.nanos(), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,36 @@
+package com.cinema.spring.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Perfil "virtual": com spring.threads.virtual.enabled (Java 21+) cada
+ * requisição roda em uma thread virtual, então milhares podem chegar ao
+ * banco ao mesmo tempo. O DataSource passa a ser limitado por um semáforo do
+ * tamanho do pool, e quem não consegue conexão dentro do prazo falha logo em
+ * vez de se acumular na fila do Hikari.
+ */
+@Configuration
+@Profile("virtual")
+public class ThreadsVirtuaisConfig {
+
+    @Bean
+    static BeanPostProcessor limitarConexoes(@Value("${cinema.jdbc.max-concorrencia:10}") int maximo,
+                                             @Value("${cinema.jdbc.espera-conexao:PT2S}") Duration espera) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof DataSourceLimitado)) {
+                    return new DataSourceLimitado(dataSource, maximo, espera);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package com.cinema.spring.controller;
+
+import com.cinema.spring.dto.ReservaAssentosDTO;
+import com.cinema.spring.service.AssentoService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/sessoes/{sessaoId}/assentos")
+@RequiredArgsConstructor
+public class AssentoController {
+    private final AssentoService assentoService;
+
+    @GetMapping
+    public ResponseEntity<int[][]> findBySessao(@PathVariable Long sessaoId) {
+        return assentoService.findBySessao(sessaoId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@PathVariable Long sessaoId) {
+        return assentoService.assinar(sessaoId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/hold")
+    public ResponseEntity<?> reservar(@PathVariable Long sessaoId, @RequestBody ReservaAssentosDTO reserva) {
+        try {
+            return assentoService.reservar(sessaoId, reserva.getAssentos())
+                    .<ResponseEntity<?>>map(saved -> ResponseEntity.status(HttpStatus.CREATED).body(saved))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(e.getMessage());
+        }
+    }
+}
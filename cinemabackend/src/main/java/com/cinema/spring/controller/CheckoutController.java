@@ -0,0 +1,37 @@
+package com.cinema.spring.controller;
+
+import com.cinema.spring.dto.CheckoutConfirmacaoDTO;
+import com.cinema.spring.dto.CheckoutDTO;
+import com.cinema.spring.service.CheckoutService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/pedidos/checkout")
+@RequiredArgsConstructor
+public class CheckoutController {
+    private final CheckoutService checkoutService;
+
+    @PostMapping
+    public ResponseEntity<?> checkout(@RequestBody CheckoutDTO checkoutDTO) {
+        try {
+            CheckoutConfirmacaoDTO confirmacao = checkoutService.checkout(checkoutDTO);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(confirmacao);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{token}")
+    public ResponseEntity<CheckoutConfirmacaoDTO> findByToken(@PathVariable String token) {
+        return checkoutService.findByToken(token)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,27 @@
+package com.cinema.spring.controller;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Edição feita sobre uma versão que já não é a atual (informada pelo cliente
+ * ou alterada por outra transação entre a leitura e o update) vira 409.
+ */
+@RestControllerAdvice
+public class ConflitoVersaoHandler {
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> conflito(OptimisticLockingFailureException e) {
+        String registro = "O registro";
+        if (e instanceof ObjectOptimisticLockingFailureException objeto && objeto.getIdentifier() != null) {
+            String classe = objeto.getPersistentClassName();
+            registro = classe.substring(classe.lastIndexOf('.') + 1) + " " + objeto.getIdentifier();
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(registro + " foi alterado por outra edição. Recarregue e tente de novo.");
+    }
+}
@@ -1,12 +1,22 @@
 package com.cinema.spring.controller;
 
+import com.cinema.spring.dto.BuscaFilmesDTO;
+import com.cinema.spring.dto.SessaoDTO;
 import com.cinema.spring.model.Filme;
+import com.cinema.spring.service.AgendaSessoesService;
+import com.cinema.spring.service.BuscaFilmesService;
 import com.cinema.spring.service.FilmeService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -14,16 +24,51 @@ import java.util.List;
 @RequiredArgsConstructor
 public class FilmeController {
     private final FilmeService filmeService;
+    private final BuscaFilmesService buscaFilmesService;
+    private final AgendaSessoesService agendaSessoesService;
+    private final JsonMapper jsonMapper;
 
     @GetMapping
-    public ResponseEntity<List<Filme>> findAll() {
-        return ResponseEntity.ok(filmeService.findAll());
+    public ResponseEntity<List<Filme>> findAll(@RequestParam(required = false) Long after, @RequestParam(required = false) Integer limit) {
+        String etag = filmeService.etag();
+        if (!Paginacao.solicitada(after, limit)) {
+            return ResponseEntity.ok().eTag(etag).body(filmeService.findAll());
+        }
+        int limite = Paginacao.limite(limit);
+        return Paginacao.pagina(filmeService.findPage(after, limite), limite, Filme::getId, etag);
+    }
+
+    @GetMapping(params = Paginacao.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        return Paginacao.ndjson(jsonMapper, filmeService::streamAll);
+    }
+
+    @GetMapping("/busca")
+    public ResponseEntity<?> buscar(@RequestParam(required = false) String q,
+                                    @RequestParam(required = false) List<String> genero,
+                                    @RequestParam(required = false) List<String> classificacao,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+                                    @RequestParam(required = false) Integer limit) {
+        try {
+            BuscaFilmesDTO resultado = buscaFilmesService.buscar(q, genero, classificacao, de, ate, Paginacao.limite(limit));
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}/proximas-sessoes")
+    public ResponseEntity<List<SessaoDTO>> findProximasSessoes(@PathVariable Long id, @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(agendaSessoesService.proximasDoFilme(id, LocalDateTime.now(), Paginacao.limite(limit)));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Filme> findById(@PathVariable Long id) {
+        String etag = filmeService.etag();
         return filmeService.findById(id)
-                .map(ResponseEntity::ok)
+                .map(item -> ResponseEntity.ok().eTag(etag).body(item))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -34,13 +79,30 @@ public class FilmeController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Filme> update(@PathVariable Long id, @RequestBody Filme filme) {
-        return filmeService.findById(id)
-                .map(existing -> {
-                    Filme updated = filmeService.update(id, filme);
-                    return ResponseEntity.ok(updated);
-                })
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody Filme filme) {
+        try {
+            return filmeService.update(id, filme)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(e.getMessage());
+        }
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patch(@PathVariable Long id, @RequestBody JsonNode alteracoes) {
+        try {
+            return filmeService.patch(id, alteracoes)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(e.getMessage());
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -6,6 +6,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
 
 import java.util.List;
 
@@ -14,10 +17,20 @@ import java.util.List;
 @RequiredArgsConstructor
 public class IngressoController {
     private final IngressoService ingressoService;
+    private final JsonMapper jsonMapper;
 
     @GetMapping
-    public ResponseEntity<List<IngressoDTO>> findAll() {
-        return ResponseEntity.ok(ingressoService.findAll());
+    public ResponseEntity<List<IngressoDTO>> findAll(@RequestParam(required = false) Long after, @RequestParam(required = false) Integer limit) {
+        if (!Paginacao.solicitada(after, limit)) {
+            return ResponseEntity.ok(ingressoService.findAll());
+        }
+        int limite = Paginacao.limite(limit);
+        return Paginacao.pagina(ingressoService.findPage(after, limite), limite, IngressoDTO::getId);
+    }
+
+    @GetMapping(params = Paginacao.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        return Paginacao.ndjson(jsonMapper, ingressoService::streamAll);
     }
 
     @GetMapping("/{id}")
@@ -40,6 +53,18 @@ public class IngressoController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patch(@PathVariable Long id, @RequestBody JsonNode alteracoes) {
+        try {
+            return ingressoService.patch(id, alteracoes)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage());
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         if (ingressoService.findById(id).isPresent()) {
@@ -6,6 +6,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
 
 import java.util.List;
 
@@ -14,16 +17,28 @@ import java.util.List;
 @RequiredArgsConstructor
 public class LancheComboController {
     private final LancheComboService lancheComboService;
+    private final JsonMapper jsonMapper;
 
     @GetMapping
-    public ResponseEntity<List<LancheCombo>> findAll() {
-        return ResponseEntity.ok(lancheComboService.findAll());
+    public ResponseEntity<List<LancheCombo>> findAll(@RequestParam(required = false) Long after, @RequestParam(required = false) Integer limit) {
+        String etag = lancheComboService.etag();
+        if (!Paginacao.solicitada(after, limit)) {
+            return ResponseEntity.ok().eTag(etag).body(lancheComboService.findAll());
+        }
+        int limite = Paginacao.limite(limit);
+        return Paginacao.pagina(lancheComboService.findPage(after, limite), limite, LancheCombo::getId, etag);
+    }
+
+    @GetMapping(params = Paginacao.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        return Paginacao.ndjson(jsonMapper, lancheComboService::streamAll);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<LancheCombo> findById(@PathVariable Long id) {
+        String etag = lancheComboService.etag();
         return lancheComboService.findById(id)
-                .map(ResponseEntity::ok)
+                .map(item -> ResponseEntity.ok().eTag(etag).body(item))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -35,14 +50,23 @@ public class LancheComboController {
 
     @PutMapping("/{id}")
     public ResponseEntity<LancheCombo> update(@PathVariable Long id, @RequestBody LancheCombo lancheCombo) {
-        return lancheComboService.findById(id)
-                .map(existing -> {
-                    LancheCombo updated = lancheComboService.update(id, lancheCombo);
-                    return ResponseEntity.ok(updated);
-                })
+        return lancheComboService.update(id, lancheCombo)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patch(@PathVariable Long id, @RequestBody JsonNode alteracoes) {
+        try {
+            return lancheComboService.patch(id, alteracoes)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage());
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> delete(@PathVariable Long id) {
         if (!lancheComboService.findById(id).isPresent()) {
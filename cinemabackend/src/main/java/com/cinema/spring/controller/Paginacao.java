@@ -0,0 +1,74 @@
+package com.cinema.spring.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Apoio às listagens: paginação por cursor ({@code ?after=id&limit=n}) e
+ * exportação em NDJSON ({@code ?formato=ndjson}).
+ */
+final class Paginacao {
+    static final String NDJSON = "formato=ndjson";
+    static final int LIMITE_PADRAO = 50;
+    static final int LIMITE_MAXIMO = 1000;
+
+    private Paginacao() {
+    }
+
+    static boolean solicitada(Long after, Integer limit) {
+        return after != null || limit != null;
+    }
+
+    static int limite(Integer limit) {
+        if (limit == null) {
+            return LIMITE_PADRAO;
+        }
+        return Math.max(1, Math.min(limit, LIMITE_MAXIMO));
+    }
+
+    static <T> ResponseEntity<List<T>> pagina(List<T> itens, int limite, Function<T, Long> id) {
+        return pagina(itens, limite, id, null);
+    }
+
+    static <T> ResponseEntity<List<T>> pagina(List<T> itens, int limite, Function<T, Long> id, String etag) {
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok();
+        if (etag != null) {
+            resposta.eTag(etag);
+        }
+        if (itens.size() == limite) {
+            String proxima = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", id.apply(itens.get(itens.size() - 1)))
+                    .replaceQueryParam("limit", limite)
+                    .toUriString();
+            resposta.header(HttpHeaders.LINK, "<" + proxima + ">; rel=\"next\"");
+        }
+        return resposta.body(itens);
+    }
+
+    static <T> ResponseEntity<StreamingResponseBody> ndjson(JsonMapper jsonMapper, Consumer<Consumer<T>> fonte) {
+        StreamingResponseBody corpo = out -> fonte.accept(item -> escrever(jsonMapper, out, item));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(corpo);
+    }
+
+    private static void escrever(JsonMapper jsonMapper, OutputStream out, Object item) {
+        try {
+            out.write(jsonMapper.writeValueAsBytes(item));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
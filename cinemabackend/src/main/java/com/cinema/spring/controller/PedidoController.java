@@ -1,11 +1,15 @@
 package com.cinema.spring.controller;
 
 import com.cinema.spring.dto.PedidoDTO;
+import com.cinema.spring.service.IdempotenciaService;
 import com.cinema.spring.service.PedidoService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
 
 import java.util.List;
 
@@ -13,11 +17,25 @@ import java.util.List;
 @RequestMapping("/pedidos")
 @RequiredArgsConstructor
 public class PedidoController {
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
     private final PedidoService pedidoService;
+    private final IdempotenciaService idempotenciaService;
+    private final JsonMapper jsonMapper;
 
     @GetMapping
-    public ResponseEntity<List<PedidoDTO>> findAll() {
-        return ResponseEntity.ok(pedidoService.findAll());
+    public ResponseEntity<List<PedidoDTO>> findAll(@RequestParam(required = false) Long after, @RequestParam(required = false) Integer limit) {
+        if (!Paginacao.solicitada(after, limit)) {
+            return ResponseEntity.ok(pedidoService.findAll());
+        }
+        int limite = Paginacao.limite(limit);
+        return Paginacao.pagina(pedidoService.findPage(after, limite), limite, PedidoDTO::getId);
+    }
+
+    @GetMapping(params = Paginacao.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        return Paginacao.ndjson(jsonMapper, pedidoService::streamAll);
     }
 
     @GetMapping("/{id}")
@@ -28,16 +46,53 @@ public class PedidoController {
     }
 
     @PostMapping
-    public ResponseEntity<PedidoDTO> create(@RequestBody PedidoDTO pedidoDTO) {
-        PedidoDTO saved = pedidoService.save(pedidoDTO);
-        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+    public ResponseEntity<?> create(@RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                    @RequestBody PedidoDTO pedidoDTO) {
+        try {
+            IdempotenciaService.Resultado<PedidoDTO> resultado = idempotenciaService.executar(
+                    "pedidos", idempotencyKey, pedidoDTO, () -> pedidoService.save(pedidoDTO));
+            ResponseEntity.BodyBuilder resposta = ResponseEntity.status(HttpStatus.CREATED);
+            if (resultado.repetido()) {
+                resposta.header(IDEMPOTENT_REPLAYED, "true");
+            }
+            return resposta.body(resultado.valor());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(e.getMessage());
+        }
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<PedidoDTO> update(@PathVariable Long id, @RequestBody PedidoDTO pedidoDTO) {
-        return pedidoService.update(id, pedidoDTO)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody PedidoDTO pedidoDTO) {
+        try {
+            return pedidoService.update(id, pedidoDTO)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(e.getMessage());
+        }
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patch(@PathVariable Long id, @RequestBody JsonNode alteracoes) {
+        try {
+            return pedidoService.patch(id, alteracoes)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(e.getMessage());
+        }
     }
 
     @DeleteMapping("/{id}")
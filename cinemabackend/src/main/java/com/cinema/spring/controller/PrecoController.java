@@ -0,0 +1,34 @@
+package com.cinema.spring.controller;
+
+import com.cinema.spring.dto.RegrasPrecoDTO;
+import com.cinema.spring.service.PrecificacaoService;
+import com.cinema.spring.service.ProgramacaoService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/precos")
+@RequiredArgsConstructor
+public class PrecoController {
+    private final PrecificacaoService precificacaoService;
+    private final ProgramacaoService programacaoService;
+
+    @GetMapping("/regras")
+    public ResponseEntity<RegrasPrecoDTO> regras() {
+        return ResponseEntity.ok(precificacaoService.regras());
+    }
+
+    @PutMapping("/regras")
+    public ResponseEntity<?> definirRegras(@RequestBody RegrasPrecoDTO regras) {
+        try {
+            precificacaoService.definirRegras(regras);
+            programacaoService.reprecificar();
+            return ResponseEntity.ok(precificacaoService.regras());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage());
+        }
+    }
+}
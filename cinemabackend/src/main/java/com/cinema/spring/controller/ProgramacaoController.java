@@ -0,0 +1,24 @@
+package com.cinema.spring.controller;
+
+import com.cinema.spring.dto.ProgramacaoDTO;
+import com.cinema.spring.service.ProgramacaoService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/programacao")
+@RequiredArgsConstructor
+public class ProgramacaoController {
+    private final ProgramacaoService programacaoService;
+
+    @GetMapping
+    public ResponseEntity<List<ProgramacaoDTO>> findByData(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data) {
+        return ResponseEntity.ok(programacaoService.findByData(data != null ? data : LocalDate.now()));
+    }
+}
@@ -0,0 +1,32 @@
+package com.cinema.spring.controller;
+
+import com.cinema.spring.dto.VendasDTO;
+import com.cinema.spring.service.VendasService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/relatorios")
+@RequiredArgsConstructor
+public class RelatorioController {
+    private final VendasService vendasService;
+
+    @GetMapping("/vendas")
+    public ResponseEntity<?> vendas(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+                                    @RequestParam(required = false) String agrupar) {
+        try {
+            List<VendasDTO> vendas = vendasService.relatorio(de, ate, agrupar);
+            return ResponseEntity.ok(vendas);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage());
+        }
+    }
+}
@@ -1,12 +1,21 @@
 package com.cinema.spring.controller;
 
+import com.cinema.spring.dto.HorarioLivreDTO;
+import com.cinema.spring.dto.SessaoDTO;
 import com.cinema.spring.model.Sala;
+import com.cinema.spring.service.AgendaSessoesService;
+import com.cinema.spring.service.GradeSalasService;
 import com.cinema.spring.service.SalaService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -14,19 +23,49 @@ import java.util.List;
 @RequiredArgsConstructor
 public class SalaController {
     private final SalaService salaService;
+    private final GradeSalasService gradeSalasService;
+    private final AgendaSessoesService agendaSessoesService;
+    private final JsonMapper jsonMapper;
 
     @GetMapping
-    public ResponseEntity<List<Sala>> findAll() {
-        return ResponseEntity.ok(salaService.findAll());
+    public ResponseEntity<List<Sala>> findAll(@RequestParam(required = false) Long after, @RequestParam(required = false) Integer limit) {
+        String etag = salaService.etag();
+        if (!Paginacao.solicitada(after, limit)) {
+            return ResponseEntity.ok().eTag(etag).body(salaService.findAll());
+        }
+        int limite = Paginacao.limite(limit);
+        return Paginacao.pagina(salaService.findPage(after, limite), limite, Sala::getId, etag);
+    }
+
+    @GetMapping(params = Paginacao.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        return Paginacao.ndjson(jsonMapper, salaService::streamAll);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Sala> findById(@PathVariable Long id) {
+        String etag = salaService.etag();
         return salaService.findById(id)
-                .map(ResponseEntity::ok)
+                .map(item -> ResponseEntity.ok().eTag(etag).body(item))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/horarios-livres")
+    public ResponseEntity<List<HorarioLivreDTO>> findHorariosLivres(@PathVariable Long id,
+                                                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data,
+                                                                    @RequestParam(required = false) Integer duracao) {
+        if (salaService.findById(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(gradeSalasService.horariosLivres(id, data, duracao));
+    }
+
+    @GetMapping("/{id}/sessoes")
+    public ResponseEntity<List<SessaoDTO>> findSessoes(@PathVariable Long id,
+                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data) {
+        return ResponseEntity.ok(agendaSessoesService.daSala(id, data != null ? data : LocalDate.now()));
+    }
+
     @PostMapping
     public ResponseEntity<Sala> create(@RequestBody Sala sala) {
         Sala saved = salaService.save(sala);
@@ -34,13 +73,30 @@ public class SalaController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Sala> update(@PathVariable Long id, @RequestBody Sala sala) {
-        return salaService.findById(id)
-                .map(existing -> {
-                    Sala updated = salaService.update(id, sala);
-                    return ResponseEntity.ok(updated);
-                })
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody Sala sala) {
+        try {
+            return salaService.update(id, sala)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(e.getMessage());
+        }
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patch(@PathVariable Long id, @RequestBody JsonNode alteracoes) {
+        try {
+            return salaService.patch(id, alteracoes)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(e.getMessage());
+        }
     }
 
     @DeleteMapping("/{id}")
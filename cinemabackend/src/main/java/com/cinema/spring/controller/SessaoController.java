@@ -1,12 +1,21 @@
 package com.cinema.spring.controller;
 
+import com.cinema.spring.dto.LoteSessoesDTO;
+import com.cinema.spring.dto.OcupacaoDTO;
+import com.cinema.spring.dto.ResultadoLoteSessoesDTO;
 import com.cinema.spring.dto.SessaoDTO;
+import com.cinema.spring.service.OcupacaoService;
 import com.cinema.spring.service.SessaoService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -14,10 +23,27 @@ import java.util.List;
 @RequiredArgsConstructor
 public class SessaoController {
     private final SessaoService sessaoService;
+    private final OcupacaoService ocupacaoService;
+    private final JsonMapper jsonMapper;
 
     @GetMapping
-    public ResponseEntity<List<SessaoDTO>> findAll() {
-        return ResponseEntity.ok(sessaoService.findAll());
+    public ResponseEntity<List<SessaoDTO>> findAll(@RequestParam(required = false) Long after, @RequestParam(required = false) Integer limit) {
+        if (!Paginacao.solicitada(after, limit)) {
+            return ResponseEntity.ok(sessaoService.findAll());
+        }
+        int limite = Paginacao.limite(limit);
+        return Paginacao.pagina(sessaoService.findPage(after, limite), limite, SessaoDTO::getId);
+    }
+
+    @GetMapping(params = Paginacao.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        return Paginacao.ndjson(jsonMapper, sessaoService::streamAll);
+    }
+
+    @GetMapping("/ocupacao")
+    public ResponseEntity<List<OcupacaoDTO>> findOcupacao(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data) {
+        return ResponseEntity.ok(ocupacaoService.findByData(data != null ? data : LocalDate.now()));
     }
 
     @GetMapping("/{id}")
@@ -28,16 +54,55 @@ public class SessaoController {
     }
 
     @PostMapping
-    public ResponseEntity<SessaoDTO> create(@RequestBody SessaoDTO sessaoDTO) {
-        SessaoDTO saved = sessaoService.save(sessaoDTO);
-        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+    public ResponseEntity<?> create(@RequestBody SessaoDTO sessaoDTO) {
+        try {
+            SessaoDTO saved = sessaoService.save(sessaoDTO);
+            return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/lote")
+    public ResponseEntity<?> createLote(@RequestBody LoteSessoesDTO loteDTO) {
+        try {
+            ResultadoLoteSessoesDTO resultado = sessaoService.saveLote(loteDTO);
+            return ResponseEntity.status(HttpStatus.CREATED).body(resultado);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(e.getMessage());
+        }
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<SessaoDTO> update(@PathVariable Long id, @RequestBody SessaoDTO sessaoDTO) {
-        return sessaoService.update(id, sessaoDTO)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody SessaoDTO sessaoDTO) {
+        try {
+            return sessaoService.update(id, sessaoDTO)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(e.getMessage());
+        }
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patch(@PathVariable Long id, @RequestBody JsonNode alteracoes) {
+        try {
+            return sessaoService.patch(id, alteracoes)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(e.getMessage());
+        }
     }
 
     @DeleteMapping("/{id}")
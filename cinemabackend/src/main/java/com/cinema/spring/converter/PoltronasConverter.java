@@ -1,40 +1,230 @@
 package com.cinema.spring.converter;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.cinema.spring.model.SeatLayout;
 import jakarta.persistence.AttributeConverter;
 import jakarta.persistence.Converter;
 
+import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
 
+/**
+ * Grava o layout em formato binário versionado, codificado em Base64 para
+ * caber na coluna TEXT existente:
+ * <pre>
+ * versão (1 byte) | nº de fileiras (varint) | tamanho de cada fileira (varint)
+ * | sequências de (repetições varint, valor 1 byte) até cobrir todas as poltronas
+ * </pre>
+ * Linhas antigas em JSON ({@code [[0,0],[0]]}) continuam sendo lidas e são
+ * regravadas no formato binário por {@code SalaService.migrarPoltronasLegadas}.
+ * Dados que não seguem um dos dois formatos, ou poltronas fora de 0-255, são
+ * recusados com IllegalArgumentException em vez de truncados.
+ */
 @Converter(autoApply = true)
-public class PoltronasConverter implements AttributeConverter<List<List<Integer>>, String> {
-    
-    private final ObjectMapper objectMapper = new ObjectMapper();
+public class PoltronasConverter implements AttributeConverter<SeatLayout, String> {
+    public static final byte VERSAO = 1;
 
     @Override
-    public String convertToDatabaseColumn(List<List<Integer>> poltronas) {
-        if (poltronas == null) {
-            return "[]";
-        }
-        try {
-            return objectMapper.writeValueAsString(poltronas);
-        } catch (Exception e) {
-            return "[]";
-        }
+    public String convertToDatabaseColumn(SeatLayout poltronas) {
+        return Base64.getEncoder().encodeToString(encode(poltronas == null ? SeatLayout.VAZIO : poltronas));
     }
 
     @Override
-    public List<List<Integer>> convertToEntityAttribute(String dbData) {
+    public SeatLayout convertToEntityAttribute(String dbData) {
         if (dbData == null || dbData.isEmpty()) {
-            return new ArrayList<>();
+            return SeatLayout.VAZIO;
         }
-        try {
-            return objectMapper.readValue(dbData, new TypeReference<List<List<Integer>>>() {});
-        } catch (Exception e) {
-            return new ArrayList<>();
+        if (isLegado(dbData)) {
+            return fromJson(dbData);
         }
+        return decode(Base64.getDecoder().decode(dbData));
+    }
+
+    public static boolean isLegado(String dbData) {
+        return dbData.charAt(0) == '[';
+    }
+
+    static byte[] encode(SeatLayout layout) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + layout.fileiras());
+        out.write(VERSAO);
+        writeVarint(out, layout.fileiras());
+        for (int fileira = 0; fileira < layout.fileiras(); fileira++) {
+            writeVarint(out, layout.assentosNaFileira(fileira));
+        }
+        int indice = 0;
+        while (indice < layout.total()) {
+            int valor = layout.valor(indice);
+            int fim = indice + 1;
+            while (fim < layout.total() && layout.valor(fim) == valor) {
+                fim++;
+            }
+            writeVarint(out, fim - indice);
+            out.write(valor);
+            indice = fim;
+        }
+        return out.toByteArray();
     }
-}
 
+    static SeatLayout decode(byte[] dados) {
+        int[] posicao = {0};
+        int versao = readByte(dados, posicao);
+        if (versao != VERSAO) {
+            throw new IllegalArgumentException("Versão de layout de poltronas desconhecida: " + versao);
+        }
+        int fileiras = readVarint(dados, posicao);
+        if (fileiras > dados.length - posicao[0]) {
+            throw corrompido("mais fileiras do que bytes");
+        }
+        int[] assentosPorFileira = new int[fileiras];
+        long total = 0;
+        for (int i = 0; i < assentosPorFileira.length; i++) {
+            assentosPorFileira[i] = readVarint(dados, posicao);
+            total += assentosPorFileira[i];
+        }
+        if (total > Integer.MAX_VALUE - 8) {
+            throw corrompido("quantidade de poltronas grande demais");
+        }
+        byte[] poltronas = new byte[(int) total];
+        int indice = 0;
+        while (indice < total) {
+            int repeticoes = readVarint(dados, posicao);
+            if (repeticoes == 0 || repeticoes > total - indice) {
+                throw corrompido("sequência de " + repeticoes + " poltrona(s) na posição " + indice);
+            }
+            byte valor = (byte) readByte(dados, posicao);
+            Arrays.fill(poltronas, indice, indice + repeticoes, valor);
+            indice += repeticoes;
+        }
+        if (posicao[0] != dados.length) {
+            throw corrompido((dados.length - posicao[0]) + " byte(s) sobrando");
+        }
+        return SeatLayout.of(assentosPorFileira, poltronas);
+    }
+
+    /**
+     * Leitura direta do JSON antigo ({@code [[0,1],[0]]}, com espaços e
+     * fileiras null opcionais), sem passar por listas de Integer.
+     */
+    static SeatLayout fromJson(String json) {
+        int[] posicao = {0};
+        List<int[]> fileiras = new ArrayList<>();
+        esperar(json, posicao, '[');
+        if (!tentar(json, posicao, ']')) {
+            do {
+                fileiras.add(fileiraJson(json, posicao));
+            } while (tentar(json, posicao, ','));
+            esperar(json, posicao, ']');
+        }
+        pularEspacos(json, posicao);
+        if (posicao[0] != json.length()) {
+            throw jsonInvalido(posicao, "conteúdo após o fim do layout");
+        }
+        return SeatLayout.of(fileiras.toArray(new int[0][]));
+    }
+
+    private static int[] fileiraJson(String json, int[] posicao) {
+        pularEspacos(json, posicao);
+        if (json.startsWith("null", posicao[0])) {
+            posicao[0] += 4;
+            return null;
+        }
+        esperar(json, posicao, '[');
+        int[] valores = new int[8];
+        int quantidade = 0;
+        if (!tentar(json, posicao, ']')) {
+            do {
+                if (quantidade == valores.length) {
+                    valores = Arrays.copyOf(valores, quantidade * 2);
+                }
+                valores[quantidade++] = valorJson(json, posicao);
+            } while (tentar(json, posicao, ','));
+            esperar(json, posicao, ']');
+        }
+        return Arrays.copyOf(valores, quantidade);
+    }
+
+    private static int valorJson(String json, int[] posicao) {
+        pularEspacos(json, posicao);
+        int inicio = posicao[0];
+        if (posicao[0] < json.length() && json.charAt(posicao[0]) == '-') {
+            posicao[0]++;
+        }
+        int digitos = posicao[0];
+        while (posicao[0] < json.length() && Character.isDigit(json.charAt(posicao[0]))) {
+            posicao[0]++;
+        }
+        if (posicao[0] == digitos) {
+            throw jsonInvalido(posicao, "número esperado");
+        }
+        String numero = json.substring(inicio, posicao[0]);
+        long valor = numero.length() > 18 ? Long.MAX_VALUE : Long.parseLong(numero);
+        if (valor < 0 || valor > 0xFF) {
+            throw new IllegalArgumentException("Valor de poltrona fora do intervalo 0-255: " + numero);
+        }
+        return (int) valor;
+    }
+
+    private static void esperar(String json, int[] posicao, char esperado) {
+        if (!tentar(json, posicao, esperado)) {
+            throw jsonInvalido(posicao, "'" + esperado + "' esperado");
+        }
+    }
+
+    private static boolean tentar(String json, int[] posicao, char esperado) {
+        pularEspacos(json, posicao);
+        if (posicao[0] < json.length() && json.charAt(posicao[0]) == esperado) {
+            posicao[0]++;
+            return true;
+        }
+        return false;
+    }
+
+    private static void pularEspacos(String json, int[] posicao) {
+        while (posicao[0] < json.length() && Character.isWhitespace(json.charAt(posicao[0]))) {
+            posicao[0]++;
+        }
+    }
+
+    private static IllegalArgumentException jsonInvalido(int[] posicao, String motivo) {
+        return new IllegalArgumentException("Layout de poltronas legado inválido na posição " + posicao[0] + ": " + motivo);
+    }
+
+    private static IllegalArgumentException corrompido(String motivo) {
+        return new IllegalArgumentException("Layout de poltronas corrompido: " + motivo);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int valor) {
+        while ((valor & ~0x7F) != 0) {
+            out.write((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        out.write(valor);
+    }
+
+    private static int readByte(byte[] dados, int[] posicao) {
+        if (posicao[0] >= dados.length) {
+            throw corrompido("fim inesperado dos dados");
+        }
+        return dados[posicao[0]++] & 0xFF;
+    }
+
+    private static int readVarint(byte[] dados, int[] posicao) {
+        long valor = 0;
+        int deslocamento = 0;
+        int b;
+        do {
+            if (deslocamento > 28) {
+                throw corrompido("varint longo demais");
+            }
+            b = readByte(dados, posicao);
+            valor |= (long) (b & 0x7F) << deslocamento;
+            deslocamento += 7;
+        } while ((b & 0x80) != 0);
+        if (valor > Integer.MAX_VALUE) {
+            throw corrompido("varint fora do intervalo");
+        }
+        return (int) valor;
+    }
+}
@@ -0,0 +1,13 @@
+package com.cinema.spring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssentoDTO {
+    private Integer fileira;
+    private Integer numero;
+}
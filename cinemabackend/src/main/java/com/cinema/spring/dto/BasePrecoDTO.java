@@ -0,0 +1,21 @@
+package com.cinema.spring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BasePrecoDTO {
+    private Long sessao;
+    private LocalDateTime horario;
+    private String tipoSala;
+    private Integer capacidade;
+    private LocalDate estreia;
+    private Long valorInteiraCentavos;
+    private Long valorMeiaCentavos;
+}
@@ -0,0 +1,19 @@
+package com.cinema.spring.dto;
+
+import com.cinema.spring.model.Filme;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BuscaFilmesDTO {
+    private long total;
+    private List<Filme> filmes;
+    private Map<String, Long> generos;
+    private Map<String, Long> classificacoes;
+}
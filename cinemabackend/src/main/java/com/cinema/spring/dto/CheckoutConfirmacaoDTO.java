@@ -0,0 +1,20 @@
+package com.cinema.spring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutConfirmacaoDTO {
+    public static final String PENDENTE = "PENDENTE";
+    public static final String CONFIRMADO = "CONFIRMADO";
+    public static final String FALHOU = "FALHOU";
+
+    private String token;
+    private String status;
+    private Double valorTotal;
+    private Long pedido;
+    private String mensagem;
+}
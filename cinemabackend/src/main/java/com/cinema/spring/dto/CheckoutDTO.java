@@ -0,0 +1,18 @@
+package com.cinema.spring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutDTO {
+    private Long ingresso;
+    private Integer ingressosMeiaQtd;
+    private Integer ingressosInteiraQtd;
+    private List<Long> lancheCombos;
+    private String metodoPagamento;
+}
@@ -0,0 +1,15 @@
+package com.cinema.spring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HorarioLivreDTO {
+    private LocalDateTime inicio;
+    private LocalDateTime fim;
+}
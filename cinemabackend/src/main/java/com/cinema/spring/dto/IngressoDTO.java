@@ -12,5 +12,6 @@ public class IngressoDTO {
     private Double valorInteira;
     private Double valorMeia;
     private Long sessao;
+    private Long versao;
 }
 
@@ -0,0 +1,22 @@
+package com.cinema.spring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemLoteSessoesDTO {
+    public static final String CRIADA = "CRIADA";
+    public static final String CONFLITO = "CONFLITO";
+
+    private LocalDateTime horario;
+    private Long filme;
+    private Long sala;
+    private String status;
+    private Long sessao;
+    private String mensagem;
+}
@@ -0,0 +1,22 @@
+package com.cinema.spring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoteSessoesDTO {
+    private List<Long> filmes;
+    private List<Long> salas;
+    private List<LocalTime> horarios;
+    private LocalDate dataInicio;
+    private LocalDate dataFim;
+    private Double valorInteira;
+    private Double valorMeia;
+}
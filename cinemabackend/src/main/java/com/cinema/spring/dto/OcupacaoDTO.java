@@ -0,0 +1,24 @@
+package com.cinema.spring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OcupacaoDTO {
+    private Long sessao;
+    private LocalDateTime horario;
+    private Long filme;
+    private Long sala;
+    private Integer salaNumero;
+    private Integer capacidade;
+    private Integer ingressosVendidos;
+
+    public int getLugaresDisponiveis() {
+        return Math.max(0, capacidade - ingressosVendidos);
+    }
+}
@@ -1,5 +1,6 @@
 package com.cinema.spring.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -19,5 +20,9 @@ public class PedidoDTO {
     private List<Long> lancheCombos;
     private Double valorTotal;
     private String metodoPagamento;
+    private Long versao;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ReservaAssentosDTO reserva;
 }
 
@@ -0,0 +1,30 @@
+package com.cinema.spring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgramacaoDTO {
+    private Long sessao;
+    private LocalDateTime horario;
+    private Long filme;
+    private String titulo;
+    private String genero;
+    private String classificacao;
+    private Integer duracao;
+    private Long sala;
+    private Integer salaNumero;
+    private Double valorInteira;
+    private Double valorMeia;
+    private Integer capacidade;
+    private Long ingressosVendidos;
+
+    public long getLugaresDisponiveis() {
+        return Math.max(0, capacidade - ingressosVendidos);
+    }
+}
@@ -0,0 +1,49 @@
+package com.cinema.spring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Regras de preço. Os valores-base (em centavos) são os de sessões novas; cada
+ * sessão guarda o seu no ingresso. Os ajustes são percentuais somados sobre o
+ * valor-base: dia da semana, faixas de horário (início inclusivo, fim
+ * exclusivo, podendo virar a meia-noite), tipo de sala, janela de estreia (os
+ * primeiros {@code diasEstreia} dias de exibição do filme) e ocupação (vale a
+ * maior faixa já atingida, em percentual da capacidade).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegrasPrecoDTO {
+    private Long inteiraCentavos;
+    private Long meiaCentavos;
+    private Map<DayOfWeek, Integer> diasSemana;
+    private List<FaixaHorario> horarios;
+    private Map<String, Integer> tiposSala;
+    private Integer diasEstreia;
+    private Integer percentualEstreia;
+    private List<FaixaOcupacao> ocupacao;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FaixaHorario {
+        private LocalTime inicio;
+        private LocalTime fim;
+        private Integer percentual;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FaixaOcupacao {
+        private Integer ocupacao;
+        private Integer percentual;
+    }
+}
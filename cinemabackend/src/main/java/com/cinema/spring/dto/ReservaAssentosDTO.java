@@ -0,0 +1,17 @@
+package com.cinema.spring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservaAssentosDTO {
+    private String token;
+    private List<AssentoDTO> assentos;
+    private LocalDateTime expiraEm;
+}
@@ -0,0 +1,16 @@
+package com.cinema.spring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoLoteSessoesDTO {
+    private int criadas;
+    private int rejeitadas;
+    private List<ItemLoteSessoesDTO> itens;
+}
@@ -14,5 +14,6 @@ public class SessaoDTO {
     private LocalDateTime horario;
     private Long filme;
     private Long sala;
+    private Long versao;
 }
 
@@ -0,0 +1,16 @@
+package com.cinema.spring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VendasDTO {
+    private String chave;
+    private Long ingressosMeia;
+    private Long ingressosInteira;
+    private Double valorTotal;
+    private Long combos;
+}
@@ -0,0 +1,26 @@
+package com.cinema.spring.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Assento vendido em uma sessão, gravado junto com o pedido que o vendeu. É
+ * a partir destas linhas que o AssentoService monta o mapa de assentos da
+ * sessão em memória.
+ */
+@Entity
+@Table(name = "assentos_vendidos", indexes = {
+    @Index(name = "idx_assentos_vendidos_pedido_id", columnList = "pedido_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssentoVendido {
+    @EmbeddedId
+    private AssentoVendidoId id;
+
+    @Column(name = "pedido_id", nullable = false)
+    private Long pedido;
+}
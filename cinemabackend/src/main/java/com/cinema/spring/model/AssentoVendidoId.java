@@ -0,0 +1,24 @@
+package com.cinema.spring.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssentoVendidoId implements Serializable {
+    @Column(name = "sessao_id", nullable = false)
+    private Long sessao;
+
+    @Column(nullable = false)
+    private Integer fileira;
+
+    @Column(nullable = false)
+    private Integer numero;
+}
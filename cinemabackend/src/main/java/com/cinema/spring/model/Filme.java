@@ -4,17 +4,20 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDate;
 
 @Entity
+@DynamicUpdate
 @Table(name = "filmes")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Filme {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "filmes_seq")
+    @SequenceGenerator(name = "filmes_seq", sequenceName = "filmes_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -40,5 +43,7 @@ public class Filme {
 
     @Column(nullable = false)
     private LocalDate dataFinalExibicao;
-}
 
+    @Version
+    private Long versao;
+}
@@ -4,25 +4,30 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
-@Table(name = "ingressos")
+@DynamicUpdate
+@Table(name = "ingressos", indexes = @Index(name = "idx_ingressos_sessao_id", columnList = "sessao_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Ingresso {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ingressos_seq")
+    @SequenceGenerator(name = "ingressos_seq", sequenceName = "ingressos_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
-    private Double valorInteira;
+    private Long valorInteiraCentavos;
 
     @Column(nullable = false)
-    private Double valorMeia;
+    private Long valorMeiaCentavos;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "sessao_id", nullable = false)
     private Sessao sessao;
-}
 
+    @Version
+    private Long versao;
+}
@@ -4,15 +4,18 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
+@DynamicUpdate
 @Table(name = "lanche_combos")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class LancheCombo {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lanche_combos_seq")
+    @SequenceGenerator(name = "lanche_combos_seq", sequenceName = "lanche_combos_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -29,5 +32,7 @@ public class LancheCombo {
 
     @Column(nullable = false)
     private Double subtotal;
-}
 
+    @Version
+    private Long versao;
+}
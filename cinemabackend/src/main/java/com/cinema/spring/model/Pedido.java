@@ -4,18 +4,24 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "pedidos")
+@DynamicUpdate
+@Table(name = "pedidos", indexes = {
+    @Index(name = "idx_pedidos_ingresso_id", columnList = "ingresso_id"),
+    @Index(name = "idx_pedidos_data_hora", columnList = "data_hora")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Pedido {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pedidos_seq")
+    @SequenceGenerator(name = "pedidos_seq", sequenceName = "pedidos_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -27,7 +33,7 @@ public class Pedido {
     @Column(nullable = false)
     private Integer ingressosInteiraQtd;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "ingresso_id", nullable = false)
     private Ingresso ingresso;
 
@@ -35,7 +41,11 @@ public class Pedido {
     @JoinTable(
         name = "pedido_lanche_combo",
         joinColumns = @JoinColumn(name = "pedido_id"),
-        inverseJoinColumns = @JoinColumn(name = "lanche_combo_id")
+        inverseJoinColumns = @JoinColumn(name = "lanche_combo_id"),
+        indexes = {
+            @Index(name = "idx_pedido_lanche_combo_pedido_id", columnList = "pedido_id"),
+            @Index(name = "idx_pedido_lanche_combo_lanche_combo_id", columnList = "lanche_combo_id")
+        }
     )
     private List<LancheCombo> lancheCombos = new java.util.ArrayList<>();
 
@@ -44,5 +54,10 @@ public class Pedido {
 
     @Column(nullable = false)
     private String metodoPagamento;
-}
 
+    @Column(unique = true, length = 36)
+    private String checkoutToken;
+
+    @Version
+    private Long versao;
+}
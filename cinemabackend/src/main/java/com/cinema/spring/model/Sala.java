@@ -4,17 +4,20 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-
-import java.util.List;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
+@DynamicUpdate
 @Table(name = "salas")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Sala {
+    public static final String PADRAO = "PADRAO";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "salas_seq")
+    @SequenceGenerator(name = "salas_seq", sequenceName = "salas_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -25,6 +28,11 @@ public class Sala {
 
     @Column(columnDefinition = "TEXT")
     @Convert(converter = com.cinema.spring.converter.PoltronasConverter.class)
-    private List<List<Integer>> poltronas;
-}
+    private SeatLayout poltronas;
 
+    @Column(nullable = false, length = 20)
+    private String tipo = PADRAO;
+
+    @Version
+    private Long versao;
+}
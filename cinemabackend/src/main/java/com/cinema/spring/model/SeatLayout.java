@@ -0,0 +1,131 @@
+package com.cinema.spring.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import org.hibernate.annotations.Immutable;
+
+import java.util.Arrays;
+
+/**
+ * Layout de poltronas de uma sala, guardado em arrays primitivos: o início de
+ * cada fileira e o valor de cada poltrona (0 a 255). Imutável, para que o
+ * Hibernate não precise copiá-lo a cada carga para checagem de alterações.
+ */
+@Immutable
+public final class SeatLayout {
+    public static final SeatLayout VAZIO = new SeatLayout(new int[] {0}, new byte[0]);
+
+    private final int[] inicioFileira;
+    private final byte[] poltronas;
+
+    private SeatLayout(int[] inicioFileira, byte[] poltronas) {
+        this.inicioFileira = inicioFileira;
+        this.poltronas = poltronas;
+    }
+
+    /**
+     * Cria o layout a partir do tamanho de cada fileira e dos valores já
+     * concatenados. Os arrays passam a pertencer ao layout e não são copiados.
+     */
+    public static SeatLayout of(int[] assentosPorFileira, byte[] poltronas) {
+        int[] inicioFileira = new int[assentosPorFileira.length + 1];
+        for (int i = 0; i < assentosPorFileira.length; i++) {
+            if (assentosPorFileira[i] < 0) {
+                throw new IllegalArgumentException("Fileira com tamanho negativo: " + i);
+            }
+            inicioFileira[i + 1] = inicioFileira[i] + assentosPorFileira[i];
+        }
+        if (inicioFileira[assentosPorFileira.length] != poltronas.length) {
+            throw new IllegalArgumentException("Quantidade de poltronas não confere com as fileiras.");
+        }
+        return new SeatLayout(inicioFileira, poltronas);
+    }
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static SeatLayout of(int[][] fileiras) {
+        if (fileiras == null) {
+            return VAZIO;
+        }
+        int[] assentosPorFileira = new int[fileiras.length];
+        int total = 0;
+        for (int i = 0; i < fileiras.length; i++) {
+            assentosPorFileira[i] = fileiras[i] == null ? 0 : fileiras[i].length;
+            total += assentosPorFileira[i];
+        }
+        byte[] poltronas = new byte[total];
+        int posicao = 0;
+        for (int[] fileira : fileiras) {
+            if (fileira == null) {
+                continue;
+            }
+            for (int valor : fileira) {
+                if (valor < 0 || valor > 0xFF) {
+                    throw new IllegalArgumentException("Valor de poltrona fora do intervalo 0-255: " + valor);
+                }
+                poltronas[posicao++] = (byte) valor;
+            }
+        }
+        return of(assentosPorFileira, poltronas);
+    }
+
+    @JsonValue
+    public int[][] toArray() {
+        int[][] fileiras = new int[fileiras()][];
+        for (int fileira = 0; fileira < fileiras.length; fileira++) {
+            fileiras[fileira] = new int[assentosNaFileira(fileira)];
+            for (int numero = 0; numero < fileiras[fileira].length; numero++) {
+                fileiras[fileira][numero] = valor(fileira, numero);
+            }
+        }
+        return fileiras;
+    }
+
+    public int fileiras() {
+        return inicioFileira.length - 1;
+    }
+
+    public int assentosNaFileira(int fileira) {
+        return inicioFileira[fileira + 1] - inicioFileira[fileira];
+    }
+
+    public int[] assentosPorFileira() {
+        int[] assentosPorFileira = new int[fileiras()];
+        for (int fileira = 0; fileira < assentosPorFileira.length; fileira++) {
+            assentosPorFileira[fileira] = assentosNaFileira(fileira);
+        }
+        return assentosPorFileira;
+    }
+
+    public int total() {
+        return poltronas.length;
+    }
+
+    public int valor(int fileira, int numero) {
+        return poltronas[inicioFileira[fileira] + numero] & 0xFF;
+    }
+
+    public int valor(int indice) {
+        return poltronas[indice] & 0xFF;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SeatLayout outro)) {
+            return false;
+        }
+        return Arrays.equals(inicioFileira, outro.inicioFileira) && Arrays.equals(poltronas, outro.poltronas);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(inicioFileira) + Arrays.hashCode(poltronas);
+    }
+
+    @Override
+    public String toString() {
+        return "SeatLayout(fileiras=" + fileiras() + ", total=" + total() + ")";
+    }
+}
@@ -4,28 +4,49 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "sessoes")
+@DynamicUpdate
+@Table(name = "sessoes", indexes = {
+    @Index(name = "idx_sessoes_filme_id", columnList = "filme_id"),
+    @Index(name = "idx_sessoes_sala_id", columnList = "sala_id"),
+    @Index(name = "idx_sessoes_horario", columnList = "horario")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Sessao {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sessoes_seq")
+    @SequenceGenerator(name = "sessoes_seq", sequenceName = "sessoes_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
     private LocalDateTime horario;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "filme_id", nullable = false)
     private Filme filme;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "sala_id", nullable = false)
     private Sala sala;
+
+    /**
+     * Ingressos vendidos, alterado só pelos updates condicionais do
+     * OcupacaoService; por isso fica fora dos updates da entidade.
+     */
+    @Column(nullable = false, updatable = false)
+    private Integer ingressosVendidos = 0;
+
+    @Version
+    private Long versao;
+
+    public Sessao(Long id, LocalDateTime horario, Filme filme, Sala sala) {
+        this(id, horario, filme, sala, 0, null);
+    }
 }
 
@@ -0,0 +1,39 @@
+package com.cinema.spring.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Consolidado das vendas de uma sessão em um dia (data do pedido). Mantido
+ * incrementalmente pelo VendasService; filme e sala são copiados da sessão
+ * para que os relatórios não precisem de join.
+ */
+@Entity
+@Table(name = "vendas_diarias")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VendaDiaria {
+    @EmbeddedId
+    private VendaDiariaId id;
+
+    @Column(name = "filme_id", nullable = false)
+    private Long filme;
+
+    @Column(name = "sala_id", nullable = false)
+    private Long sala;
+
+    @Column(nullable = false)
+    private Long ingressosMeia;
+
+    @Column(nullable = false)
+    private Long ingressosInteira;
+
+    @Column(nullable = false)
+    private Long valorCentavos;
+
+    @Column(nullable = false)
+    private Long combos;
+}
@@ -0,0 +1,22 @@
+package com.cinema.spring.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VendaDiariaId implements Serializable {
+    @Column(nullable = false)
+    private LocalDate dia;
+
+    @Column(name = "sessao_id", nullable = false)
+    private Long sessao;
+}
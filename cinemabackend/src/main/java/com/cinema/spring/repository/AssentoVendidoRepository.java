@@ -0,0 +1,60 @@
+package com.cinema.spring.repository;
+
+import com.cinema.spring.model.AssentoVendido;
+import com.cinema.spring.model.AssentoVendidoId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AssentoVendidoRepository extends JpaRepository<AssentoVendido, AssentoVendidoId> {
+    @Query("SELECT a FROM AssentoVendido a WHERE a.id.sessao = :sessao")
+    List<AssentoVendido> findBySessao(@Param("sessao") Long sessao);
+
+    @Query("SELECT a FROM AssentoVendido a WHERE a.pedido = :pedido")
+    List<AssentoVendido> findByPedido(@Param("pedido") Long pedido);
+
+    @Query("""
+            SELECT a.id.fileira AS fileira, MAX(a.id.numero) AS ultimoNumero
+            FROM AssentoVendido a
+            WHERE a.id.sessao = :sessao
+            GROUP BY a.id.fileira
+            """)
+    List<FileiraVendida> findFileirasBySessao(@Param("sessao") Long sessao);
+
+    @Query("""
+            SELECT a.id.fileira AS fileira, MAX(a.id.numero) AS ultimoNumero
+            FROM AssentoVendido a
+            WHERE a.id.sessao IN (SELECT s.id FROM Sessao s WHERE s.sala.id = :sala)
+            GROUP BY a.id.fileira
+            """)
+    List<FileiraVendida> findFileirasBySala(@Param("sala") Long sala);
+
+    /**
+     * Insere direto, sem o select que o merge faria por a chave já vir
+     * preenchida.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO assentos_vendidos (sessao_id, fileira, numero, pedido_id)
+            VALUES (:sessao, :fileira, :numero, :pedido)
+            """, nativeQuery = true)
+    int vender(@Param("sessao") Long sessao, @Param("fileira") int fileira, @Param("numero") int numero,
+               @Param("pedido") Long pedido);
+
+    @Modifying
+    @Query("DELETE FROM AssentoVendido a WHERE a.pedido = :pedido")
+    int deleteByPedido(@Param("pedido") Long pedido);
+
+    /**
+     * Fileira com assentos vendidos e o maior número vendido nela.
+     */
+    interface FileiraVendida {
+        Integer getFileira();
+        Integer getUltimoNumero();
+    }
+}
@@ -1,10 +1,22 @@
 package com.cinema.spring.repository;
 
 import com.cinema.spring.model.Filme;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface FilmeRepository extends JpaRepository<Filme, Long> {
-}
+    List<Filme> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT f FROM Filme f ORDER BY f.id")
+    Stream<Filme> streamAll();
+}
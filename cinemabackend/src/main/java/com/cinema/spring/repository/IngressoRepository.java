@@ -1,13 +1,45 @@
 package com.cinema.spring.repository;
 
+import com.cinema.spring.dto.BasePrecoDTO;
+import com.cinema.spring.dto.IngressoDTO;
 import com.cinema.spring.model.Ingresso;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface IngressoRepository extends JpaRepository<Ingresso, Long> {
     Optional<Ingresso> findBySessaoId(Long sessaoId);
-}
 
+    @Query("SELECT new com.cinema.spring.dto.IngressoDTO(i.id, i.valorInteiraCentavos / 100.0, i.valorMeiaCentavos / 100.0, i.sessao.id, i.versao) FROM Ingresso i ORDER BY i.id")
+    List<IngressoDTO> findAllDTO();
+
+    @Query("SELECT new com.cinema.spring.dto.IngressoDTO(i.id, i.valorInteiraCentavos / 100.0, i.valorMeiaCentavos / 100.0, i.sessao.id, i.versao) FROM Ingresso i WHERE i.id > :after ORDER BY i.id")
+    List<IngressoDTO> findDTOPage(@Param("after") Long after, Limit limit);
+
+    @Query("SELECT new com.cinema.spring.dto.IngressoDTO(i.id, i.valorInteiraCentavos / 100.0, i.valorMeiaCentavos / 100.0, i.sessao.id, i.versao) FROM Ingresso i WHERE i.id = :id")
+    Optional<IngressoDTO> findDTOById(@Param("id") Long id);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.cinema.spring.dto.IngressoDTO(i.id, i.valorInteiraCentavos / 100.0, i.valorMeiaCentavos / 100.0, i.sessao.id, i.versao) FROM Ingresso i ORDER BY i.id")
+    Stream<IngressoDTO> streamAllDTO();
+
+    @Query("""
+            SELECT new com.cinema.spring.dto.BasePrecoDTO(s.id, s.horario, sa.tipo, sa.capacidade, f.dataInicioExibicao,
+                i.valorInteiraCentavos, i.valorMeiaCentavos)
+            FROM Ingresso i JOIN i.sessao s JOIN s.filme f JOIN s.sala sa
+            WHERE (:sessao IS NULL OR s.id = :sessao)
+              AND (:filme IS NULL OR f.id = :filme)
+              AND (:sala IS NULL OR sa.id = :sala)
+            """)
+    List<BasePrecoDTO> findBasesPreco(@Param("sessao") Long sessaoId, @Param("filme") Long filmeId, @Param("sala") Long salaId);
+}
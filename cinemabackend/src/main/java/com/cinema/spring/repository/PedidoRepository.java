@@ -1,11 +1,88 @@
 package com.cinema.spring.repository;
 
 import com.cinema.spring.model.Pedido;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface PedidoRepository extends JpaRepository<Pedido, Long> {
     long countByIngressoId(Long ingressoId);
-}
 
+    @Query(value = "SELECT COUNT(*) FROM pedido_lanche_combo WHERE lanche_combo_id = :lancheComboId", nativeQuery = true)
+    long countByLancheComboId(@Param("lancheComboId") Long lancheComboId);
+
+    @Query("""
+            SELECT p.id AS id, p.dataHora AS dataHora, p.ingressosMeiaQtd AS ingressosMeiaQtd,
+                p.ingressosInteiraQtd AS ingressosInteiraQtd, p.ingresso.id AS ingresso,
+                p.valorTotal AS valorTotal, p.metodoPagamento AS metodoPagamento, p.versao AS versao
+            FROM Pedido p ORDER BY p.id
+            """)
+    List<PedidoResumo> findAllResumos();
+
+    @Query("""
+            SELECT p.id AS id, p.dataHora AS dataHora, p.ingressosMeiaQtd AS ingressosMeiaQtd,
+                p.ingressosInteiraQtd AS ingressosInteiraQtd, p.ingresso.id AS ingresso,
+                p.valorTotal AS valorTotal, p.metodoPagamento AS metodoPagamento, p.versao AS versao
+            FROM Pedido p WHERE p.id > :after ORDER BY p.id
+            """)
+    List<PedidoResumo> findResumoPage(@Param("after") Long after, Limit limit);
+
+    @Query("""
+            SELECT p.id AS id, p.dataHora AS dataHora, p.ingressosMeiaQtd AS ingressosMeiaQtd,
+                p.ingressosInteiraQtd AS ingressosInteiraQtd, p.ingresso.id AS ingresso,
+                p.valorTotal AS valorTotal, p.metodoPagamento AS metodoPagamento, p.versao AS versao
+            FROM Pedido p WHERE p.id = :id
+            """)
+    Optional<PedidoResumo> findResumoById(@Param("id") Long id);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            SELECT p.id AS id, p.dataHora AS dataHora, p.ingressosMeiaQtd AS ingressosMeiaQtd,
+                p.ingressosInteiraQtd AS ingressosInteiraQtd, p.ingresso.id AS ingresso,
+                p.valorTotal AS valorTotal, p.metodoPagamento AS metodoPagamento, p.versao AS versao
+            FROM Pedido p ORDER BY p.id
+            """)
+    Stream<PedidoResumo> streamAllResumos();
+
+    @Query("SELECT p.id AS pedido, lc.id AS lancheCombo FROM Pedido p JOIN p.lancheCombos lc")
+    List<PedidoLancheCombo> findAllLancheCombos();
+
+    @Query("SELECT p.id AS pedido, lc.id AS lancheCombo FROM Pedido p JOIN p.lancheCombos lc WHERE p.id IN :pedidos")
+    List<PedidoLancheCombo> findLancheCombos(@Param("pedidos") Collection<Long> pedidos);
+
+    @Query("SELECT p.checkoutToken AS token, p.id AS pedido FROM Pedido p WHERE p.checkoutToken IN :tokens")
+    List<PedidoCheckout> findByCheckoutTokens(@Param("tokens") Collection<String> tokens);
+
+    interface PedidoResumo {
+        Long getId();
+        LocalDateTime getDataHora();
+        Integer getIngressosMeiaQtd();
+        Integer getIngressosInteiraQtd();
+        Long getIngresso();
+        Double getValorTotal();
+        String getMetodoPagamento();
+        Long getVersao();
+    }
+
+    interface PedidoCheckout {
+        String getToken();
+        Long getPedido();
+    }
+
+    interface PedidoLancheCombo {
+        Long getPedido();
+        Long getLancheCombo();
+    }
+}
@@ -1,10 +1,36 @@
 package com.cinema.spring.repository;
 
 import com.cinema.spring.model.Sala;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface SalaRepository extends JpaRepository<Sala, Long> {
-}
+    @Query(value = "SELECT id AS id, poltronas AS poltronas FROM salas WHERE poltronas LIKE '[%'", nativeQuery = true)
+    List<PoltronasLegadas> findPoltronasLegadas();
+
+    @Modifying
+    @Query(value = "UPDATE salas SET poltronas = :poltronas WHERE id = :id", nativeQuery = true)
+    int atualizarPoltronas(@Param("id") Long id, @Param("poltronas") String poltronas);
 
+    List<Sala> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT s FROM Sala s ORDER BY s.id")
+    Stream<Sala> streamAll();
+
+    interface PoltronasLegadas {
+        Long getId();
+        String getPoltronas();
+    }
+}
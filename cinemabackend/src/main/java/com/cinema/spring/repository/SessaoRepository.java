@@ -1,14 +1,124 @@
 package com.cinema.spring.repository;
 
+import com.cinema.spring.dto.OcupacaoDTO;
+import com.cinema.spring.dto.ProgramacaoDTO;
+import com.cinema.spring.dto.SessaoDTO;
 import com.cinema.spring.model.Sessao;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface SessaoRepository extends JpaRepository<Sessao, Long> {
     List<Sessao> findByFilmeId(Long filmeId);
     List<Sessao> findBySalaId(Long salaId);
-}
+    long countByFilmeId(Long filmeId);
+    long countBySalaId(Long salaId);
+
+    @Query("SELECT new com.cinema.spring.dto.SessaoDTO(s.id, s.horario, s.filme.id, s.sala.id, s.versao) FROM Sessao s ORDER BY s.id")
+    List<SessaoDTO> findAllDTO();
+
+    @Query("SELECT new com.cinema.spring.dto.SessaoDTO(s.id, s.horario, s.filme.id, s.sala.id, s.versao) FROM Sessao s WHERE s.id > :after ORDER BY s.id")
+    List<SessaoDTO> findDTOPage(@Param("after") Long after, Limit limit);
+
+    @Query("SELECT new com.cinema.spring.dto.SessaoDTO(s.id, s.horario, s.filme.id, s.sala.id, s.versao) FROM Sessao s WHERE s.id = :id")
+    Optional<SessaoDTO> findDTOById(@Param("id") Long id);
+
+    @Query("SELECT new com.cinema.spring.dto.SessaoDTO(s.id, s.horario, s.filme.id, s.sala.id, s.versao) FROM Sessao s WHERE s.horario >= :inicio")
+    List<SessaoDTO> findDTOAPartirDe(@Param("inicio") LocalDateTime inicio);
+
+    @Query("""
+            SELECT new com.cinema.spring.dto.SessaoDTO(s.id, s.horario, s.filme.id, s.sala.id, s.versao) FROM Sessao s
+            WHERE s.sala.id = :salaId AND s.horario >= :inicio AND s.horario < :fim
+            ORDER BY s.horario, s.id
+            """)
+    List<SessaoDTO> findDTOBySalaEntre(@Param("salaId") Long salaId,
+                                       @Param("inicio") LocalDateTime inicio,
+                                       @Param("fim") LocalDateTime fim);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.cinema.spring.dto.SessaoDTO(s.id, s.horario, s.filme.id, s.sala.id, s.versao) FROM Sessao s ORDER BY s.id")
+    Stream<SessaoDTO> streamAllDTO();
+
+    @Query("SELECT s FROM Sessao s JOIN FETCH s.sala WHERE s.id = :sessaoId")
+    Optional<Sessao> findComSalaById(@Param("sessaoId") Long sessaoId);
+
+    @Query("""
+            SELECT new com.cinema.spring.dto.ProgramacaoDTO(
+                s.id, s.horario, f.id, f.titulo, f.genero, f.classificacao, f.duracao,
+                sa.id, sa.numero, i.valorInteiraCentavos / 100.0, i.valorMeiaCentavos / 100.0, sa.capacidade, CAST(s.ingressosVendidos AS Long))
+            FROM Sessao s
+            JOIN s.filme f
+            JOIN s.sala sa
+            LEFT JOIN Ingresso i ON i.sessao = s
+            WHERE (:sessaoId IS NULL OR s.id = :sessaoId)
+              AND (:filmeId IS NULL OR f.id = :filmeId)
+              AND (:salaId IS NULL OR sa.id = :salaId)
+              AND (:inicio IS NULL OR s.horario >= :inicio)
+              AND (:fim IS NULL OR s.horario < :fim)
+            """)
+    List<ProgramacaoDTO> findProgramacao(@Param("sessaoId") Long sessaoId,
+                                         @Param("filmeId") Long filmeId,
+                                         @Param("salaId") Long salaId,
+                                         @Param("inicio") LocalDateTime inicio,
+                                         @Param("fim") LocalDateTime fim);
 
+    @Query("SELECT s.id AS sessao, s.sala.id AS sala, s.filme.id AS filme, s.horario AS horario, s.filme.duracao AS duracao FROM Sessao s")
+    List<HorarioSessao> findHorarios();
+
+    @Modifying
+    @Query("""
+            UPDATE Sessao s SET s.ingressosVendidos = s.ingressosVendidos + :quantidade
+            WHERE s.id = :sessaoId
+              AND s.ingressosVendidos + :quantidade <= (SELECT sa.capacidade FROM Sala sa WHERE sa = s.sala)
+            """)
+    int ocupar(@Param("sessaoId") Long sessaoId, @Param("quantidade") int quantidade);
+
+    @Modifying
+    @Query("UPDATE Sessao s SET s.ingressosVendidos = s.ingressosVendidos - :quantidade WHERE s.id = :sessaoId")
+    int liberar(@Param("sessaoId") Long sessaoId, @Param("quantidade") int quantidade);
+
+    @Modifying
+    @Query("""
+            UPDATE Sessao s SET s.ingressosVendidos = COALESCE((SELECT SUM(p.ingressosMeiaQtd + p.ingressosInteiraQtd)
+                FROM Pedido p WHERE p.ingresso.sessao = s), 0)
+            WHERE (:sessaoId IS NULL OR s.id = :sessaoId)
+            """)
+    int recalcularIngressosVendidos(@Param("sessaoId") Long sessaoId);
+
+    @Query("SELECT s.sala.id AS sala, s.sala.capacidade AS capacidade, s.ingressosVendidos AS ingressosVendidos FROM Sessao s WHERE s.id = :sessaoId")
+    Optional<LotacaoSessao> findLotacao(@Param("sessaoId") Long sessaoId);
+
+    @Query("""
+            SELECT new com.cinema.spring.dto.OcupacaoDTO(s.id, s.horario, s.filme.id, sa.id, sa.numero, sa.capacidade, s.ingressosVendidos)
+            FROM Sessao s JOIN s.sala sa
+            WHERE s.horario >= :inicio AND s.horario < :fim
+            ORDER BY s.horario, sa.numero, s.id
+            """)
+    List<OcupacaoDTO> findOcupacao(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
+
+    interface HorarioSessao {
+        Long getSessao();
+        Long getSala();
+        Long getFilme();
+        LocalDateTime getHorario();
+        Integer getDuracao();
+    }
+
+    interface LotacaoSessao {
+        Long getSala();
+        Integer getCapacidade();
+        Integer getIngressosVendidos();
+    }
+}
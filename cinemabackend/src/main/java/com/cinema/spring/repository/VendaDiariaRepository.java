@@ -0,0 +1,98 @@
+package com.cinema.spring.repository;
+
+import com.cinema.spring.model.VendaDiaria;
+import com.cinema.spring.model.VendaDiariaId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface VendaDiariaRepository extends JpaRepository<VendaDiaria, VendaDiariaId> {
+    String CONSOLIDAR_PEDIDOS = """
+            INSERT INTO vendas_diarias (dia, sessao_id, filme_id, sala_id, ingressos_meia, ingressos_inteira, valor_centavos, combos)
+            SELECT CAST(p.data_hora AS DATE), s.id, s.filme_id, s.sala_id, SUM(p.ingressos_meia_qtd), SUM(p.ingressos_inteira_qtd),
+                SUM(CAST(ROUND(p.valor_total * 100) AS BIGINT)), SUM(COALESCE(c.quantidade, 0))
+            FROM pedidos p
+            JOIN ingressos i ON i.id = p.ingresso_id
+            JOIN sessoes s ON s.id = i.sessao_id
+            LEFT JOIN (SELECT pedido_id, COUNT(*) AS quantidade FROM pedido_lanche_combo GROUP BY pedido_id) c ON c.pedido_id = p.id
+            """;
+
+    String AGRUPAR_CONSOLIDADO = " GROUP BY CAST(p.data_hora AS DATE), s.id, s.filme_id, s.sala_id";
+
+    @Modifying
+    @Query("""
+            UPDATE VendaDiaria v SET v.ingressosMeia = v.ingressosMeia + :meia,
+                v.ingressosInteira = v.ingressosInteira + :inteira,
+                v.valorCentavos = v.valorCentavos + :centavos,
+                v.combos = v.combos + :combos
+            WHERE v.id.dia = :dia AND v.id.sessao = :sessao
+            """)
+    int acumular(@Param("dia") LocalDate dia, @Param("sessao") Long sessao, @Param("meia") long meia,
+                 @Param("inteira") long inteira, @Param("centavos") long centavos, @Param("combos") long combos);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO vendas_diarias (dia, sessao_id, filme_id, sala_id, ingressos_meia, ingressos_inteira, valor_centavos, combos)
+            SELECT :dia, s.id, s.filme_id, s.sala_id, :meia, :inteira, :centavos, :combos FROM sessoes s WHERE s.id = :sessao
+            """, nativeQuery = true)
+    int criar(@Param("dia") LocalDate dia, @Param("sessao") Long sessao, @Param("meia") long meia,
+              @Param("inteira") long inteira, @Param("centavos") long centavos, @Param("combos") long combos);
+
+    @Modifying
+    @Query("DELETE FROM VendaDiaria v WHERE v.id.sessao = :sessao")
+    int deleteBySessao(@Param("sessao") Long sessao);
+
+    @Modifying
+    @Query(value = CONSOLIDAR_PEDIDOS + " WHERE s.id = :sessao" + AGRUPAR_CONSOLIDADO, nativeQuery = true)
+    int consolidarSessao(@Param("sessao") Long sessao);
+
+    @Modifying
+    @Query(value = CONSOLIDAR_PEDIDOS + AGRUPAR_CONSOLIDADO, nativeQuery = true)
+    int consolidarTudo();
+
+    @Query("""
+            SELECT v.id.dia AS chave, SUM(v.ingressosMeia) AS ingressosMeia, SUM(v.ingressosInteira) AS ingressosInteira,
+                SUM(v.valorCentavos) AS valorCentavos, SUM(v.combos) AS combos
+            FROM VendaDiaria v WHERE v.id.dia BETWEEN :de AND :ate GROUP BY v.id.dia ORDER BY v.id.dia
+            """)
+    List<TotalVendas> totalPorDia(@Param("de") LocalDate de, @Param("ate") LocalDate ate);
+
+    @Query("""
+            SELECT v.filme AS chave, SUM(v.ingressosMeia) AS ingressosMeia, SUM(v.ingressosInteira) AS ingressosInteira,
+                SUM(v.valorCentavos) AS valorCentavos, SUM(v.combos) AS combos
+            FROM VendaDiaria v WHERE v.id.dia BETWEEN :de AND :ate GROUP BY v.filme ORDER BY v.filme
+            """)
+    List<TotalVendas> totalPorFilme(@Param("de") LocalDate de, @Param("ate") LocalDate ate);
+
+    @Query("""
+            SELECT v.sala AS chave, SUM(v.ingressosMeia) AS ingressosMeia, SUM(v.ingressosInteira) AS ingressosInteira,
+                SUM(v.valorCentavos) AS valorCentavos, SUM(v.combos) AS combos
+            FROM VendaDiaria v WHERE v.id.dia BETWEEN :de AND :ate GROUP BY v.sala ORDER BY v.sala
+            """)
+    List<TotalVendas> totalPorSala(@Param("de") LocalDate de, @Param("ate") LocalDate ate);
+
+    @Query("""
+            SELECT v.id.sessao AS chave, SUM(v.ingressosMeia) AS ingressosMeia, SUM(v.ingressosInteira) AS ingressosInteira,
+                SUM(v.valorCentavos) AS valorCentavos, SUM(v.combos) AS combos
+            FROM VendaDiaria v WHERE v.id.dia BETWEEN :de AND :ate GROUP BY v.id.sessao ORDER BY v.id.sessao
+            """)
+    List<TotalVendas> totalPorSessao(@Param("de") LocalDate de, @Param("ate") LocalDate ate);
+
+    interface TotalVendas {
+        Object getChave();
+
+        Long getIngressosMeia();
+
+        Long getIngressosInteira();
+
+        Long getValorCentavos();
+
+        Long getCombos();
+    }
+}
@@ -0,0 +1,212 @@
+package com.cinema.spring.service;
+
+import com.cinema.spring.dto.SessaoDTO;
+import com.cinema.spring.repository.SessaoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Agenda das sessões de hoje em diante, em memória, separada em baldes por
+ * (filme, dia) e (sala, dia). Cada balde é uma lista imutável ordenada pelo
+ * horário, trocada inteira a cada alteração, e os dias de cada filme ou sala
+ * ficam num mapa ordenado: "próximas N sessões do filme" percorre os dias a
+ * partir de hoje e para assim que junta N, e "sessões da sala no dia" é um get.
+ * Na virada do dia os baldes que ficaram no passado são descartados.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AgendaSessoesService {
+    private static final Comparator<SessaoDTO> ORDEM = Comparator
+            .comparing(SessaoDTO::getHorario)
+            .thenComparing(SessaoDTO::getId);
+
+    private final SessaoRepository sessaoRepository;
+
+    private final ConcurrentHashMap<Long, Agenda> porFilme = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Agenda> porSala = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, SessaoDTO> porSessao = new ConcurrentHashMap<>();
+    private volatile LocalDate corte = LocalDate.now();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reconstruir() {
+        LocalDate hoje = LocalDate.now();
+        List<SessaoDTO> sessoes = sessaoRepository.findDTOAPartirDe(hoje.atStartOfDay());
+        corte = hoje;
+        porFilme.clear();
+        porSala.clear();
+        porSessao.clear();
+        sessoes.forEach(this::aplicar);
+        log.info("Agenda carregada com {} sessão(ões) a partir de {}", sessoes.size(), hoje);
+    }
+
+    /**
+     * Até {@code limite} sessões do filme com horário igual ou posterior a
+     * {@code aPartirDe}, em ordem de horário.
+     */
+    public List<SessaoDTO> proximasDoFilme(Long filmeId, LocalDateTime aPartirDe, int limite) {
+        Agenda agenda = porFilme.get(filmeId);
+        return agenda == null ? List.of() : agenda.proximas(aPartirDe, limite);
+    }
+
+    /**
+     * Sessões da sala no dia, em ordem de horário. Dias anteriores ao corte
+     * da agenda não estão em memória e são consultados no banco.
+     */
+    public List<SessaoDTO> daSala(Long salaId, LocalDate dia) {
+        if (dia.isBefore(corte)) {
+            return sessaoRepository.findDTOBySalaEntre(salaId, dia.atStartOfDay(), dia.plusDays(1).atStartOfDay());
+        }
+        Agenda agenda = porSala.get(salaId);
+        return agenda == null ? List.of() : agenda.doDia(dia);
+    }
+
+    public void atualizar(SessaoDTO sessao) {
+        SessaoDTO copia = copia(sessao);
+        Transacoes.aposCommit(() -> aplicarSincronizado(List.of(copia)));
+    }
+
+    public void atualizar(Collection<SessaoDTO> sessoes) {
+        List<SessaoDTO> copias = sessoes.stream().map(AgendaSessoesService::copia).toList();
+        Transacoes.aposCommit(() -> aplicarSincronizado(copias));
+    }
+
+    public void remover(Long sessaoId) {
+        Transacoes.aposCommit(() -> removerSincronizado(sessaoId));
+    }
+
+    @Scheduled(cron = "${cinema.sessoes.agenda-expiracao:0 0 0 * * *}")
+    public synchronized void expirar() {
+        LocalDate hoje = LocalDate.now();
+        if (!hoje.isAfter(corte)) {
+            return;
+        }
+        corte = hoje;
+        LocalDateTime inicio = hoje.atStartOfDay();
+        int antes = porSessao.size();
+        porSessao.values().removeIf(sessao -> sessao.getHorario().isBefore(inicio));
+        expirar(porFilme, hoje);
+        expirar(porSala, hoje);
+        log.info("Agenda expirou {} sessão(ões) anteriores a {}", antes - porSessao.size(), hoje);
+    }
+
+    private synchronized void aplicarSincronizado(List<SessaoDTO> sessoes) {
+        sessoes.forEach(this::aplicar);
+    }
+
+    private synchronized void removerSincronizado(Long sessaoId) {
+        retirar(sessaoId);
+    }
+
+    private void aplicar(SessaoDTO sessao) {
+        retirar(sessao.getId());
+        if (sessao.getHorario().toLocalDate().isBefore(corte)) {
+            return;
+        }
+        porSessao.put(sessao.getId(), sessao);
+        porFilme.computeIfAbsent(sessao.getFilme(), id -> new Agenda()).inserir(sessao);
+        porSala.computeIfAbsent(sessao.getSala(), id -> new Agenda()).inserir(sessao);
+    }
+
+    private void retirar(Long sessaoId) {
+        SessaoDTO anterior = porSessao.remove(sessaoId);
+        if (anterior == null) {
+            return;
+        }
+        porFilme.computeIfPresent(anterior.getFilme(), (id, agenda) -> agenda.remover(anterior) ? null : agenda);
+        porSala.computeIfPresent(anterior.getSala(), (id, agenda) -> agenda.remover(anterior) ? null : agenda);
+    }
+
+    private static void expirar(Map<Long, Agenda> agendas, LocalDate hoje) {
+        agendas.values().removeIf(agenda -> agenda.expirar(hoje));
+    }
+
+    private static SessaoDTO copia(SessaoDTO sessao) {
+        return new SessaoDTO(sessao.getId(), sessao.getHorario(), sessao.getFilme(), sessao.getSala(), sessao.getVersao());
+    }
+
+    /**
+     * Dias de um filme ou de uma sala. Só é alterada sob o lock do serviço;
+     * a leitura percorre o mapa concorrente sem bloquear.
+     */
+    private static final class Agenda {
+        private final ConcurrentSkipListMap<LocalDate, List<SessaoDTO>> dias = new ConcurrentSkipListMap<>();
+
+        List<SessaoDTO> doDia(LocalDate dia) {
+            return dias.getOrDefault(dia, List.of());
+        }
+
+        List<SessaoDTO> proximas(LocalDateTime aPartirDe, int limite) {
+            List<SessaoDTO> proximas = new ArrayList<>(Math.min(limite, 64));
+            for (List<SessaoDTO> sessoes : dias.tailMap(aPartirDe.toLocalDate(), true).values()) {
+                int i = primeiraAPartirDe(sessoes, aPartirDe);
+                for (; i < sessoes.size() && proximas.size() < limite; i++) {
+                    proximas.add(sessoes.get(i));
+                }
+                if (proximas.size() == limite) {
+                    break;
+                }
+            }
+            return proximas;
+        }
+
+        void inserir(SessaoDTO sessao) {
+            dias.compute(sessao.getHorario().toLocalDate(), (dia, sessoes) -> {
+                List<SessaoDTO> novas = sessoes == null ? new ArrayList<>(1) : new ArrayList<>(sessoes);
+                int posicao = Collections.binarySearch(novas, sessao, ORDEM);
+                novas.add(posicao < 0 ? -posicao - 1 : posicao, sessao);
+                return List.copyOf(novas);
+            });
+        }
+
+        /**
+         * Retira a sessão do seu dia e diz se a agenda ficou vazia.
+         */
+        boolean remover(SessaoDTO sessao) {
+            dias.computeIfPresent(sessao.getHorario().toLocalDate(), (dia, sessoes) -> {
+                List<SessaoDTO> novas = sessoes.stream()
+                        .filter(item -> !item.getId().equals(sessao.getId()))
+                        .toList();
+                return novas.isEmpty() ? null : novas;
+            });
+            return dias.isEmpty();
+        }
+
+        /**
+         * Descarta os dias anteriores a {@code hoje} e diz se a agenda ficou vazia.
+         */
+        boolean expirar(LocalDate hoje) {
+            dias.headMap(hoje).clear();
+            return dias.isEmpty();
+        }
+
+        private static int primeiraAPartirDe(List<SessaoDTO> sessoes, LocalDateTime aPartirDe) {
+            int inicio = 0;
+            int fim = sessoes.size();
+            while (inicio < fim) {
+                int meio = (inicio + fim) >>> 1;
+                if (sessoes.get(meio).getHorario().isBefore(aPartirDe)) {
+                    inicio = meio + 1;
+                } else {
+                    fim = meio;
+                }
+            }
+            return inicio;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.cinema.spring.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Distribui as mudanças de estado dos assentos por Server-Sent Events. Cada
+ * sessão tem um hub; publicar só enfileira o evento (já serializado) na fila
+ * limitada de cada assinante, e um pool pequeno faz as escritas. Um assinante
+ * cuja fila enche é desconectado e, ao reconectar, recebe o estado completo.
+ * <p>
+ * A escrita em si bloqueia enquanto o cliente não consome. Um envio que passa
+ * do prazo desconecta o assinante, e o pool ganha uma thread até que a escrita
+ * presa retorne, para que os demais assinantes continuem recebendo.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AssentoEventos {
+    public static final String ESTADO = "estado";
+    public static final String RESERVADO = "reservado";
+    public static final String VENDIDO = "vendido";
+    public static final String LIBERADO = "liberado";
+
+    private final JsonMapper jsonMapper;
+
+    @Value("${cinema.assentos.stream-timeout:PT30M}")
+    private Duration timeout;
+
+    @Value("${cinema.assentos.stream-fila:256}")
+    private int capacidadeFila;
+
+    @Value("${cinema.assentos.stream-threads:4}")
+    private int threads;
+
+    @Value("${cinema.assentos.stream-prazo-envio:PT10S}")
+    private Duration prazoEnvio;
+
+    private final ConcurrentHashMap<Long, Hub> hubs = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor entrega;
+    private int presos;
+
+    @PostConstruct
+    void iniciar() {
+        AtomicInteger contador = new AtomicInteger();
+        entrega = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), tarefa -> {
+            Thread thread = new Thread(tarefa, "assentos-sse-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void encerrar() {
+        hubs.keySet().forEach(this::encerrar);
+        entrega.shutdown();
+    }
+
+    /**
+     * Registra um assinante e enfileira o estado atual como primeiro evento. O
+     * estado é lido sob o lock do hub, então nenhuma mudança publicada depois
+     * dele chega antes.
+     */
+    public SseEmitter assinar(Long sessaoId, Supplier<Object> estadoAtual) {
+        return assinar(sessaoId, new SseEmitter(timeout.toMillis()), estadoAtual);
+    }
+
+    SseEmitter assinar(Long sessaoId, SseEmitter emitter, Supplier<Object> estadoAtual) {
+        Hub hub = hubs.computeIfAbsent(sessaoId, id -> new Hub());
+        Assinante assinante = new Assinante(hub, emitter);
+        emitter.onCompletion(assinante::remover);
+        emitter.onTimeout(assinante::remover);
+        emitter.onError(erro -> assinante.remover());
+        hub.registrar(assinante, estadoAtual);
+        return emitter;
+    }
+
+    public void publicar(Long sessaoId, String tipo, Object dados) {
+        Hub hub = hubs.get(sessaoId);
+        if (hub != null) {
+            hub.publicar(tipo, dados);
+        }
+    }
+
+    public void encerrar(Long sessaoId) {
+        Hub hub = hubs.remove(sessaoId);
+        if (hub != null) {
+            hub.assinantes.forEach(Assinante::desconectar);
+        }
+    }
+
+    public int assinantes(Long sessaoId) {
+        Hub hub = hubs.get(sessaoId);
+        return hub == null ? 0 : hub.assinantes.size();
+    }
+
+    @Scheduled(fixedRateString = "${cinema.assentos.stream-heartbeat:PT30S}")
+    public void pulsar() {
+        hubs.values().forEach(Hub::pulsar);
+    }
+
+    /**
+     * Desconecta os assinantes com um envio em andamento há mais que o prazo.
+     */
+    @Scheduled(fixedDelayString = "${cinema.assentos.varredura:PT1S}")
+    public void vigiarEnvios() {
+        long limite = System.nanoTime() - prazoEnvio.toNanos();
+        hubs.values().forEach(hub -> hub.assinantes.forEach(assinante -> assinante.vigiar(limite)));
+    }
+
+    /**
+     * Soma (ou devolve) uma thread ao pool enquanto uma escrita está presa.
+     */
+    private synchronized void compensarPresos(int delta) {
+        presos += delta;
+        int tamanho = threads + presos;
+        if (delta > 0) {
+            entrega.setMaximumPoolSize(tamanho);
+            entrega.setCorePoolSize(tamanho);
+        } else {
+            entrega.setCorePoolSize(tamanho);
+            entrega.setMaximumPoolSize(tamanho);
+        }
+    }
+
+    private String json(Object dados) {
+        return jsonMapper.writeValueAsString(dados);
+    }
+
+    private record Evento(long id, String tipo, String dados) {
+    }
+
+    private final class Hub {
+        private final CopyOnWriteArrayList<Assinante> assinantes = new CopyOnWriteArrayList<>();
+        private long sequencia;
+
+        synchronized void registrar(Assinante assinante, Supplier<Object> estadoAtual) {
+            assinantes.add(assinante);
+            assinante.enfileirar(new Evento(sequencia, ESTADO, json(estadoAtual.get())));
+        }
+
+        synchronized void publicar(String tipo, Object dados) {
+            if (assinantes.isEmpty()) {
+                return;
+            }
+            Evento evento = new Evento(++sequencia, tipo, json(dados));
+            assinantes.forEach(assinante -> assinante.enfileirar(evento));
+        }
+
+        void pulsar() {
+            assinantes.forEach(assinante -> assinante.enfileirar(null));
+        }
+    }
+
+    private final class Assinante {
+        private final Hub hub;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Evento> fila = new ArrayBlockingQueue<>(capacidadeFila);
+        private final AtomicBoolean agendado = new AtomicBoolean();
+        private long enviandoDesde;
+        private boolean preso;
+        private volatile boolean pulso;
+        private volatile boolean desconectado;
+
+        Assinante(Hub hub, SseEmitter emitter) {
+            this.hub = hub;
+            this.emitter = emitter;
+        }
+
+        void enfileirar(Evento evento) {
+            if (desconectado) {
+                return;
+            }
+            if (evento == null) {
+                pulso = true;
+            } else if (!fila.offer(evento)) {
+                log.debug("Assinante de assentos lento, desconectando");
+                desconectar();
+                return;
+            }
+            agendar();
+        }
+
+        void desconectar() {
+            desconectado = true;
+            fila.clear();
+            agendar();
+        }
+
+        void remover() {
+            desconectado = true;
+            hub.assinantes.remove(this);
+        }
+
+        /**
+         * Um envio iniciado antes de {@code limite} (em nanoTime) ainda não
+         * retornou: o assinante sai do hub e a conexão é encerrada numa thread
+         * própria, já que complete() pode esperar pela escrita presa.
+         */
+        void vigiar(long limite) {
+            synchronized (this) {
+                if (enviandoDesde == 0 || enviandoDesde - limite > 0 || preso) {
+                    return;
+                }
+                preso = true;
+                compensarPresos(1);
+            }
+            log.debug("Envio de assentos sem retorno há mais de {}, desconectando", prazoEnvio);
+            remover();
+            fila.clear();
+            Thread encerramento = new Thread(() -> {
+                try {
+                    emitter.complete();
+                } catch (RuntimeException e) {
+                    log.debug("Falha ao encerrar assinante preso", e);
+                }
+            }, "assentos-sse-encerrar");
+            encerramento.setDaemon(true);
+            encerramento.start();
+        }
+
+        private void agendar() {
+            if (agendado.compareAndSet(false, true)) {
+                entrega.execute(this::drenar);
+            }
+        }
+
+        private void drenar() {
+            try {
+                if (desconectado) {
+                    remover();
+                    emitter.complete();
+                    return;
+                }
+                if (pulso) {
+                    pulso = false;
+                    enviar(SseEmitter.event().comment(""));
+                }
+                Evento evento;
+                while (!desconectado && (evento = fila.poll()) != null) {
+                    enviar(SseEmitter.event()
+                            .id(Long.toString(evento.id()))
+                            .name(evento.tipo())
+                            .data(evento.dados()));
+                }
+            } catch (IOException | IllegalStateException e) {
+                remover();
+                return;
+            } finally {
+                agendado.set(false);
+            }
+            if ((desconectado || pulso || !fila.isEmpty())) {
+                agendar();
+            }
+        }
+
+        private void enviar(SseEmitter.SseEventBuilder evento) throws IOException {
+            synchronized (this) {
+                enviandoDesde = System.nanoTime();
+            }
+            try {
+                emitter.send(evento);
+            } finally {
+                synchronized (this) {
+                    enviandoDesde = 0;
+                    if (preso) {
+                        preso = false;
+                        compensarPresos(-1);
+                    }
+                }
+            }
+        }
+    }
+}
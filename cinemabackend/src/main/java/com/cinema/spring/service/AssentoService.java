@@ -0,0 +1,268 @@
+package com.cinema.spring.service;
+
+import com.cinema.spring.dto.AssentoDTO;
+import com.cinema.spring.dto.ReservaAssentosDTO;
+import com.cinema.spring.model.AssentoVendido;
+import com.cinema.spring.model.Sala;
+import com.cinema.spring.model.SeatLayout;
+import com.cinema.spring.model.Sessao;
+import com.cinema.spring.repository.AssentoVendidoRepository;
+import com.cinema.spring.repository.SessaoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mapas de assentos das sessões, montados sob demanda a partir da sala e dos
+ * assentos já vendidos. O mapa de uma sessão que já começou (mais o prazo de
+ * uma reserva, para que reservas feitas antes do início ainda possam ser
+ * pagas) é descartado pela varredura, que assim só percorre sessões abertas.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AssentoService {
+    private final SessaoRepository sessaoRepository;
+    private final AssentoVendidoRepository assentoVendidoRepository;
+    private final AssentoEventos assentoEventos;
+    private final ConcurrentHashMap<Long, MapaSessao> mapas = new ConcurrentHashMap<>();
+
+    @Value("${cinema.assentos.reserva-ttl:PT5M}")
+    private Duration reservaTtl;
+
+    public Optional<int[][]> findBySessao(Long sessaoId) {
+        return mapa(sessaoId).map(AssentoService::estados);
+    }
+
+    public Optional<SseEmitter> assinar(Long sessaoId) {
+        return mapa(sessaoId).map(mapa -> assentoEventos.assinar(sessaoId, () -> estados(mapa)));
+    }
+
+    public Optional<ReservaAssentosDTO> reservar(Long sessaoId, List<AssentoDTO> assentos) {
+        return mapa(sessaoId).map(mapa -> {
+            int[] indices = indices(mapa, assentos);
+            long agora = System.currentTimeMillis();
+            long expiraEm = agora + reservaTtl.toMillis();
+            String token = mapa.reservar(indices, expiraEm, agora);
+            if (token == null) {
+                throw new IllegalStateException("Um ou mais assentos já estão reservados ou vendidos.");
+            }
+            assentoEventos.publicar(sessaoId, AssentoEventos.RESERVADO, coordenadas(mapa, indices));
+            return new ReservaAssentosDTO(token, assentos,
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(expiraEm), ZoneId.systemDefault()));
+        });
+    }
+
+    /**
+     * Vende os assentos de uma reserva como parte da transação de um pedido: a
+     * venda é gravada com o pedido, anunciada após o commit e desfeita se a
+     * transação for revertida.
+     */
+    public void confirmarNaTransacao(Long sessaoId, Long pedidoId, ReservaAssentosDTO reserva, int ingressos) {
+        MapaAssentos mapa = mapa(sessaoId)
+                .orElseThrow(() -> new IllegalArgumentException("Sessão não encontrada com id: " + sessaoId));
+        if (reserva.getToken() == null) {
+            throw new IllegalArgumentException("Token da reserva é obrigatório.");
+        }
+        int[] indices = indices(mapa, reserva.getAssentos());
+        if (indices.length != ingressos) {
+            throw new IllegalArgumentException("A reserva tem " + indices.length + " assento(s), mas o pedido tem " + ingressos + " ingresso(s).");
+        }
+        String token = reserva.getToken();
+        MapaAssentos.Reserva vendida = mapa.confirmar(token, indices, System.currentTimeMillis());
+        if (vendida == null) {
+            throw new IllegalStateException("Reserva expirada ou assentos não pertencem a ela.");
+        }
+        Transacoes.aoReverter(() -> mapa.desfazerVenda(token, vendida));
+        for (AssentoDTO assento : reserva.getAssentos()) {
+            assentoVendidoRepository.vender(sessaoId, assento.getFileira(), assento.getNumero(), pedidoId);
+        }
+        Transacoes.aposCommit(() -> assentoEventos.publicar(sessaoId, AssentoEventos.VENDIDO, coordenadas(mapa, indices)));
+    }
+
+    /**
+     * Apaga os assentos vendidos por um pedido; eles voltam a ficar livres no
+     * mapa da sessão após o commit.
+     */
+    public void liberarDoPedido(Long pedidoId) {
+        List<AssentoVendido> vendidos = assentoVendidoRepository.findByPedido(pedidoId);
+        if (vendidos.isEmpty()) {
+            return;
+        }
+        assentoVendidoRepository.deleteByPedido(pedidoId);
+        Transacoes.aposCommit(() -> {
+            Long sessaoId = vendidos.get(0).getId().getSessao();
+            MapaSessao aberto = mapas.get(sessaoId);
+            if (aberto == null) {
+                return;
+            }
+            MapaAssentos mapa = aberto.assentos();
+            int[][] liberados = new int[vendidos.size()][];
+            for (int i = 0; i < liberados.length; i++) {
+                AssentoVendido vendido = vendidos.get(i);
+                int fileira = vendido.getId().getFileira();
+                int numero = vendido.getId().getNumero();
+                if (mapa.existe(fileira, numero)) {
+                    mapa.liberarVenda(mapa.indice(fileira, numero));
+                }
+                liberados[i] = new int[]{fileira, numero};
+            }
+            assentoEventos.publicar(sessaoId, AssentoEventos.LIBERADO, liberados);
+        });
+    }
+
+    public void descartar(Long sessaoId) {
+        mapas.remove(sessaoId);
+        assentoEventos.encerrar(sessaoId);
+    }
+
+    /**
+     * Descarta os mapas abertos das sessões de uma sala, por exemplo quando o
+     * layout dela muda; eles são remontados no próximo acesso.
+     */
+    public void descartarSala(Long salaId) {
+        mapas.forEach((sessaoId, aberto) -> {
+            if (aberto.sala().equals(salaId) && mapas.remove(sessaoId, aberto)) {
+                assentoEventos.encerrar(sessaoId);
+            }
+        });
+    }
+
+    /**
+     * Recusa passar a sessão para um layout em que algum assento já vendido
+     * dela não existiria.
+     */
+    public void conferirLayoutDaSessao(Long sessaoId, SeatLayout layout) {
+        conferirLayout(assentoVendidoRepository.findFileirasBySessao(sessaoId), layout,
+                "A sessão tem assentos vendidos que não existem no layout da nova sala");
+    }
+
+    /**
+     * Recusa um novo layout para a sala se algum assento já vendido em uma
+     * das sessões dela deixaria de existir.
+     */
+    public void conferirLayoutDaSala(Long salaId, SeatLayout layout) {
+        conferirLayout(assentoVendidoRepository.findFileirasBySala(salaId), layout,
+                "A sala tem sessões com assentos vendidos que não existem no novo layout");
+    }
+
+    @Scheduled(fixedDelayString = "${cinema.assentos.varredura:PT1S}")
+    public void liberarExpirados() {
+        long agora = System.currentTimeMillis();
+        mapas.forEach((sessaoId, aberto) -> {
+            if (aberto.descartarEm() <= agora) {
+                if (mapas.remove(sessaoId, aberto)) {
+                    assentoEventos.encerrar(sessaoId);
+                }
+                return;
+            }
+            MapaAssentos mapa = aberto.assentos();
+            List<int[]> liberados = new ArrayList<>();
+            mapa.liberarExpirados(agora, indice -> liberados.add(new int[]{mapa.fileira(indice), mapa.numero(indice)}));
+            if (!liberados.isEmpty()) {
+                assentoEventos.publicar(sessaoId, AssentoEventos.LIBERADO, liberados);
+            }
+        });
+    }
+
+    private static void conferirLayout(List<AssentoVendidoRepository.FileiraVendida> vendidas, SeatLayout layout, String mensagem) {
+        SeatLayout poltronas = layout == null ? SeatLayout.VAZIO : layout;
+        for (AssentoVendidoRepository.FileiraVendida vendida : vendidas) {
+            int fileira = vendida.getFileira();
+            if (fileira >= poltronas.fileiras() || vendida.getUltimoNumero() >= poltronas.assentosNaFileira(fileira)) {
+                throw new IllegalStateException(mensagem + " (fileira " + fileira + ", número " + vendida.getUltimoNumero() + ").");
+            }
+        }
+    }
+
+    private static int[][] estados(MapaAssentos mapa) {
+        long agora = System.currentTimeMillis();
+        int[][] estados = new int[mapa.fileiras()][];
+        for (int fileira = 0; fileira < estados.length; fileira++) {
+            estados[fileira] = new int[mapa.assentosNaFileira(fileira)];
+            for (int numero = 0; numero < estados[fileira].length; numero++) {
+                estados[fileira][numero] = mapa.estado(mapa.indice(fileira, numero), agora);
+            }
+        }
+        return estados;
+    }
+
+    private static int[][] coordenadas(MapaAssentos mapa, int[] indices) {
+        int[][] coordenadas = new int[indices.length][];
+        for (int i = 0; i < indices.length; i++) {
+            coordenadas[i] = new int[]{mapa.fileira(indices[i]), mapa.numero(indices[i])};
+        }
+        return coordenadas;
+    }
+
+    private Optional<MapaAssentos> mapa(Long sessaoId) {
+        MapaSessao aberto = mapas.get(sessaoId);
+        if (aberto != null) {
+            return Optional.of(aberto.assentos());
+        }
+        return sessaoRepository.findComSalaById(sessaoId)
+                .map(sessao -> new MapaSessao(criarMapa(sessaoId, sessao.getSala()), sessao.getSala().getId(), descartarEm(sessao)))
+                .map(novo -> {
+                    MapaSessao existente = mapas.putIfAbsent(sessaoId, novo);
+                    return (existente != null ? existente : novo).assentos();
+                });
+    }
+
+    private long descartarEm(Sessao sessao) {
+        return sessao.getHorario().atZone(ZoneId.systemDefault()).toInstant().plus(reservaTtl).toEpochMilli();
+    }
+
+    private MapaAssentos criarMapa(Long sessaoId, Sala sala) {
+        SeatLayout poltronas = sala.getPoltronas();
+        MapaAssentos mapa = new MapaAssentos(poltronas == null ? new int[0] : poltronas.assentosPorFileira());
+        for (AssentoVendido vendido : assentoVendidoRepository.findBySessao(sessaoId)) {
+            int fileira = vendido.getId().getFileira();
+            int numero = vendido.getId().getNumero();
+            if (!mapa.existe(fileira, numero)) {
+                // Edições de sala e sessão recusam layouts assim; se um escapar, a sessão continua utilizável.
+                log.warn("Assento vendido fora do layout da sala {}: sessão {}, fileira {}, número {}",
+                        sala.getId(), sessaoId, fileira, numero);
+                continue;
+            }
+            mapa.marcarVendido(mapa.indice(fileira, numero));
+        }
+        return mapa;
+    }
+
+    private int[] indices(MapaAssentos mapa, List<AssentoDTO> assentos) {
+        if (assentos == null || assentos.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos um assento.");
+        }
+        int[] indices = new int[assentos.size()];
+        for (int i = 0; i < indices.length; i++) {
+            AssentoDTO assento = assentos.get(i);
+            if (assento.getFileira() == null || assento.getNumero() == null) {
+                throw new IllegalArgumentException("Fileira e número do assento são obrigatórios.");
+            }
+            indices[i] = mapa.indice(assento.getFileira(), assento.getNumero());
+        }
+        Arrays.sort(indices);
+        for (int i = 1; i < indices.length; i++) {
+            if (indices[i] == indices[i - 1]) {
+                throw new IllegalArgumentException("Assento informado mais de uma vez.");
+            }
+        }
+        return indices;
+    }
+
+    private record MapaSessao(MapaAssentos assentos, Long sala, long descartarEm) {
+    }
+}
@@ -0,0 +1,638 @@
+package com.cinema.spring.service;
+
+import com.cinema.spring.dto.BuscaFilmesDTO;
+import com.cinema.spring.model.Filme;
+import com.cinema.spring.repository.FilmeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido do catálogo de filmes, em memória. Título, sinopse, elenco
+ * e gênero são quebrados em termos sem acento e em minúsculas, e cada termo
+ * aponta para a lista ordenada das posições (ordinais) dos filmes que o
+ * contêm. A busca intersecta as listas dos termos da consulta, com o último
+ * termo valendo como prefixo, e num único passe pelos candidatos aplica o
+ * período de exibição, conta as facetas e mantém os melhores resultados. A
+ * contagem de cada faceta ignora o filtro dela mesma, para a tela poder
+ * oferecer as alternativas.
+ * <p>
+ * O passe só lê arrays de primitivos indexados pelo ordinal (gênero e
+ * classificação codificados, datas em dias, posição do título na ordem
+ * alfabética, -1 para filmes removidos), o que mantém consultas amplas sobre
+ * catálogos grandes abaixo de um milissegundo. Cada filme mantém seu ordinal
+ * entre atualizações e filmes novos recebem o próximo, então as listas só
+ * crescem no final.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BuscaFilmesService {
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> IRRELEVANTES = Set.of(
+            "a", "as", "o", "os", "e", "de", "da", "das", "do", "dos", "em", "na", "nas", "no", "nos",
+            "um", "uma", "uns", "umas", "ao", "aos", "com", "por", "para", "pra", "que", "se");
+    private static final int TAMANHO_MINIMO_PREFIXO = 2;
+    private static final int PESO_TITULO = 8;
+    private static final int PESO_ELENCO = 4;
+    private static final int PESO_GENERO = 2;
+    private static final int PESO_SINOPSE = 1;
+    private static final Comparator<Documento> ORDEM_TITULO = Comparator
+            .comparing(Documento::tituloChave)
+            .thenComparing(documento -> documento.filme().getId());
+
+    private final FilmeRepository filmeRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postagens> termos = new TreeMap<>();
+    private final TreeMap<String, Postagens> termosTitulo = new TreeMap<>();
+    private final TreeMap<String, Postagens> termosElenco = new TreeMap<>();
+    private final TreeMap<String, Postagens> termosGenero = new TreeMap<>();
+    private final List<Documento> documentos = new ArrayList<>();
+    private final Map<Long, Integer> ordinais = new HashMap<>();
+    private final Faceta generos = new Faceta();
+    private final Faceta classificacoes = new Faceta();
+
+    private int[] generoPorOrdinal = new int[0];
+    private int[] classificacaoPorOrdinal = new int[0];
+    private int[] inicioPorOrdinal = new int[0];
+    private int[] fimPorOrdinal = new int[0];
+    private int[] posicaoPorOrdinal = new int[0];
+    private int[] ordinalPorPosicao = new int[0];
+    private int ativos;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        List<Filme> filmes = filmeRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            termos.clear();
+            termosTitulo.clear();
+            termosElenco.clear();
+            termosGenero.clear();
+            documentos.clear();
+            ordinais.clear();
+            indexarTodos(filmes);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Índice de busca carregado com {} filme(s)", filmes.size());
+    }
+
+    public void atualizar(Filme filme) {
+        Transacoes.aposCommit(() -> indexar(filme));
+    }
+
+    public void remover(Long filmeId) {
+        Transacoes.aposCommit(() -> desindexar(filmeId));
+    }
+
+    /**
+     * Indexa o filme imediatamente, substituindo a versão anterior dele se
+     * houver. O índice guarda uma cópia, então alterações posteriores no
+     * objeto recebido não o afetam.
+     */
+    public void indexar(Filme filme) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinais.get(filme.getId());
+            if (ordinal != null && documentos.get(ordinal) != null) {
+                retirar(documentos.get(ordinal));
+                tirarDaOrdem(ordinal);
+            }
+            porNaOrdem(inserir(filme));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexa vários filmes de uma vez, ordenando os títulos uma única vez no
+     * final em vez de encaixar um a um.
+     */
+    public void indexarTodos(Collection<Filme> filmes) {
+        lock.writeLock().lock();
+        try {
+            for (Filme filme : filmes) {
+                Integer ordinal = ordinais.get(filme.getId());
+                if (ordinal != null && documentos.get(ordinal) != null) {
+                    retirar(documentos.get(ordinal));
+                }
+                inserir(filme);
+            }
+            ordenarTudo();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void desindexar(Long filmeId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinais.remove(filmeId);
+            if (ordinal != null && documentos.get(ordinal) != null) {
+                retirar(documentos.get(ordinal));
+                tirarDaOrdem(ordinal);
+                documentos.set(ordinal, null);
+                posicaoPorOrdinal[ordinal] = -1;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca filmes pelo texto (todos os termos precisam aparecer em algum
+     * campo), restritos aos gêneros e classificações informados e cujo período
+     * de exibição cruza [de, ate]. O título pesa mais que o elenco, que pesa
+     * mais que o gênero e a sinopse; empates e buscas sem texto saem em ordem
+     * de título.
+     */
+    public BuscaFilmesDTO buscar(String texto, Collection<String> generosAceitos, Collection<String> classificacoesAceitas,
+                                 LocalDate de, LocalDate ate, int limite) {
+        if (de != null && ate != null && de.isAfter(ate)) {
+            throw new IllegalArgumentException("Informe um período válido (de <= ate).");
+        }
+        List<String> consulta = termosDe(texto);
+        lock.readLock().lock();
+        try {
+            Busca busca = new Busca(consulta, generos.aceitos(generosAceitos), classificacoes.aceitos(classificacoesAceitas),
+                    de == null ? Integer.MIN_VALUE : (int) de.toEpochDay(),
+                    ate == null ? Integer.MAX_VALUE : (int) ate.toEpochDay(), limite);
+            busca.percorrer();
+            return busca.resultado();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Documento inserir(Filme filme) {
+        Integer ordinal = ordinais.get(filme.getId());
+        if (ordinal == null) {
+            ordinal = documentos.size();
+            documentos.add(null);
+            ordinais.put(filme.getId(), ordinal);
+            crescer(documentos.size());
+        }
+        Documento documento = documento(ordinal, filme);
+        documentos.set(ordinal, documento);
+        Filme copia = documento.filme();
+        generoPorOrdinal[ordinal] = generos.codigo(copia.getGenero());
+        classificacaoPorOrdinal[ordinal] = classificacoes.codigo(copia.getClassificacao());
+        inicioPorOrdinal[ordinal] = (int) copia.getDataInicioExibicao().toEpochDay();
+        fimPorOrdinal[ordinal] = (int) copia.getDataFinalExibicao().toEpochDay();
+        for (String termo : termos(copia)) {
+            postagens(termos, termo).adicionar(ordinal);
+        }
+        documento.titulo().forEach(termo -> postagens(termosTitulo, termo).adicionar(documento.ordinal()));
+        documento.elenco().forEach(termo -> postagens(termosElenco, termo).adicionar(documento.ordinal()));
+        documento.genero().forEach(termo -> postagens(termosGenero, termo).adicionar(documento.ordinal()));
+        return documento;
+    }
+
+    private void retirar(Documento documento) {
+        for (String termo : termos(documento.filme())) {
+            retirar(termos, termo, documento.ordinal());
+        }
+        documento.titulo().forEach(termo -> retirar(termosTitulo, termo, documento.ordinal()));
+        documento.elenco().forEach(termo -> retirar(termosElenco, termo, documento.ordinal()));
+        documento.genero().forEach(termo -> retirar(termosGenero, termo, documento.ordinal()));
+    }
+
+    private static Postagens postagens(Map<String, Postagens> indice, String termo) {
+        return indice.computeIfAbsent(termo, chave -> new Postagens());
+    }
+
+    private static void retirar(Map<String, Postagens> indice, String termo, int ordinal) {
+        Postagens postagens = indice.get(termo);
+        if (postagens != null) {
+            postagens.remover(ordinal);
+            if (postagens.tamanho == 0) {
+                indice.remove(termo);
+            }
+        }
+    }
+
+    private void crescer(int tamanho) {
+        if (tamanho <= generoPorOrdinal.length) {
+            return;
+        }
+        int capacidade = Math.max(tamanho, generoPorOrdinal.length * 2);
+        generoPorOrdinal = Arrays.copyOf(generoPorOrdinal, capacidade);
+        classificacaoPorOrdinal = Arrays.copyOf(classificacaoPorOrdinal, capacidade);
+        inicioPorOrdinal = Arrays.copyOf(inicioPorOrdinal, capacidade);
+        fimPorOrdinal = Arrays.copyOf(fimPorOrdinal, capacidade);
+        posicaoPorOrdinal = Arrays.copyOf(posicaoPorOrdinal, capacidade);
+        ordinalPorPosicao = Arrays.copyOf(ordinalPorPosicao, capacidade);
+    }
+
+    private void ordenarTudo() {
+        List<Documento> presentes = new ArrayList<>(documentos.size());
+        for (Documento documento : documentos) {
+            if (documento != null) {
+                presentes.add(documento);
+            }
+        }
+        presentes.sort(ORDEM_TITULO);
+        for (int posicao = 0; posicao < presentes.size(); posicao++) {
+            int ordinal = presentes.get(posicao).ordinal();
+            ordinalPorPosicao[posicao] = ordinal;
+            posicaoPorOrdinal[ordinal] = posicao;
+        }
+        ativos = presentes.size();
+    }
+
+    /**
+     * Encaixa o filme na ordem de títulos por busca binária e desloca os que
+     * vêm depois: O(n) em inteiros, sem reordenar o catálogo.
+     */
+    private void porNaOrdem(Documento documento) {
+        int inicio = 0;
+        int fim = ativos;
+        while (inicio < fim) {
+            int meio = (inicio + fim) >>> 1;
+            if (ORDEM_TITULO.compare(documentos.get(ordinalPorPosicao[meio]), documento) < 0) {
+                inicio = meio + 1;
+            } else {
+                fim = meio;
+            }
+        }
+        System.arraycopy(ordinalPorPosicao, inicio, ordinalPorPosicao, inicio + 1, ativos - inicio);
+        ordinalPorPosicao[inicio] = documento.ordinal();
+        ativos++;
+        for (int posicao = inicio; posicao < ativos; posicao++) {
+            posicaoPorOrdinal[ordinalPorPosicao[posicao]] = posicao;
+        }
+    }
+
+    private void tirarDaOrdem(int ordinal) {
+        int posicao = posicaoPorOrdinal[ordinal];
+        System.arraycopy(ordinalPorPosicao, posicao + 1, ordinalPorPosicao, posicao, ativos - posicao - 1);
+        ativos--;
+        for (int i = posicao; i < ativos; i++) {
+            posicaoPorOrdinal[ordinalPorPosicao[i]] = i;
+        }
+    }
+
+    private static Set<String> termos(Filme filme) {
+        Set<String> termos = new LinkedHashSet<>();
+        termos.addAll(termosDe(filme.getTitulo()));
+        termos.addAll(termosDe(filme.getSinopse()));
+        termos.addAll(termosDe(filme.getElenco()));
+        termos.addAll(termosDe(filme.getGenero()));
+        return termos;
+    }
+
+    private static Documento documento(int ordinal, Filme filme) {
+        Filme copia = new Filme(filme.getId(), filme.getTitulo(), filme.getSinopse(), filme.getClassificacao(),
+                filme.getDuracao(), filme.getElenco(), filme.getGenero(), filme.getDataInicioExibicao(),
+                filme.getDataFinalExibicao(), filme.getVersao());
+        return new Documento(ordinal, copia, normalizar(copia.getTitulo()),
+                termosDe(copia.getTitulo()), termosDe(copia.getElenco()), termosDe(copia.getGenero()));
+    }
+
+    private static List<String> termosDe(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return List.of();
+        }
+        Set<String> termos = new LinkedHashSet<>();
+        for (String termo : SEPARADOR.split(normalizar(texto))) {
+            if (relevante(termo)) {
+                termos.add(termo);
+            }
+        }
+        return List.copyOf(termos);
+    }
+
+    private static boolean relevante(String termo) {
+        if (termo.isEmpty() || IRRELEVANTES.contains(termo)) {
+            return false;
+        }
+        return termo.length() > 1 || Character.isDigit(termo.charAt(0));
+    }
+
+    private static String normalizar(String texto) {
+        return MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private record Documento(int ordinal, Filme filme, String tituloChave, List<String> titulo,
+                             List<String> elenco, List<String> genero) {
+    }
+
+    /**
+     * Lista ordenada de ordinais. Como filmes novos recebem o maior ordinal, a
+     * inserção normalmente é um acréscimo no final.
+     */
+    private static final class Postagens {
+        private int[] itens = new int[4];
+        private int tamanho;
+
+        void adicionar(int ordinal) {
+            int posicao = tamanho;
+            if (tamanho > 0 && itens[tamanho - 1] >= ordinal) {
+                posicao = Arrays.binarySearch(itens, 0, tamanho, ordinal);
+                if (posicao >= 0) {
+                    return;
+                }
+                posicao = -posicao - 1;
+            }
+            if (tamanho == itens.length) {
+                itens = Arrays.copyOf(itens, tamanho * 2);
+            }
+            System.arraycopy(itens, posicao, itens, posicao + 1, tamanho - posicao);
+            itens[posicao] = ordinal;
+            tamanho++;
+        }
+
+        void remover(int ordinal) {
+            int posicao = Arrays.binarySearch(itens, 0, tamanho, ordinal);
+            if (posicao >= 0) {
+                System.arraycopy(itens, posicao + 1, itens, posicao, tamanho - posicao - 1);
+                tamanho--;
+            }
+        }
+
+        /**
+         * Primeira posição a partir de {@code inicio} com ordinal maior ou
+         * igual ao procurado, por busca exponencial: percorrer uma lista longa
+         * guiado por uma curta custa proporcional à curta.
+         */
+        int avancar(int inicio, int ordinal) {
+            int salto = 1;
+            int fim = inicio;
+            while (fim < tamanho && itens[fim] < ordinal) {
+                inicio = fim + 1;
+                fim += salto;
+                salto <<= 1;
+            }
+            int posicao = Arrays.binarySearch(itens, inicio, Math.min(fim + 1, tamanho), ordinal);
+            return posicao >= 0 ? posicao : -posicao - 1;
+        }
+
+        void marcar(BitSet ordinais) {
+            for (int i = 0; i < tamanho; i++) {
+                ordinais.set(itens[i]);
+            }
+        }
+    }
+
+    /**
+     * Dicionário dos valores de uma faceta: cada valor distinto (sem acento e
+     * sem diferença de caixa) recebe um código, e o rótulo exibido é a
+     * primeira grafia indexada.
+     */
+    private static final class Faceta {
+        private final Map<String, Integer> codigos = new HashMap<>();
+        private final List<String> rotulos = new ArrayList<>();
+
+        int codigo(String valor) {
+            String rotulo = valor.trim();
+            return codigos.computeIfAbsent(normalizar(rotulo), chave -> {
+                rotulos.add(rotulo);
+                return rotulos.size() - 1;
+            });
+        }
+
+        /**
+         * Códigos aceitos pelo filtro, ou null se ele não restringe nada.
+         */
+        boolean[] aceitos(Collection<String> valores) {
+            if (valores == null || valores.stream().allMatch(valor -> valor == null || valor.isBlank())) {
+                return null;
+            }
+            boolean[] aceitos = new boolean[rotulos.size()];
+            for (String valor : valores) {
+                Integer codigo = valor == null ? null : codigos.get(normalizar(valor.trim()));
+                if (codigo != null) {
+                    aceitos[codigo] = true;
+                }
+            }
+            return aceitos;
+        }
+
+        Map<String, Long> contagens(long[] quantidades) {
+            List<Integer> presentes = new ArrayList<>();
+            for (int codigo = 0; codigo < quantidades.length; codigo++) {
+                if (quantidades[codigo] > 0) {
+                    presentes.add(codigo);
+                }
+            }
+            presentes.sort(Comparator.comparingLong((Integer codigo) -> quantidades[codigo]).reversed()
+                    .thenComparing(rotulos::get));
+            Map<String, Long> contagens = new LinkedHashMap<>();
+            presentes.forEach(codigo -> contagens.put(rotulos.get(codigo), quantidades[codigo]));
+            return contagens;
+        }
+    }
+
+    /**
+     * Uma consulta em andamento, executada sob o lock de leitura. Para cada
+     * termo guarda quais ordinais o têm no título, no elenco e no gênero, de
+     * onde sai a pontuação; os melhores resultados ficam num heap de longs
+     * (pontos nos 32 bits altos, posição do título invertida nos baixos).
+     */
+    private final class Busca {
+        private final List<String> consulta;
+        private final boolean prefixo;
+        private final boolean[] generosAceitos;
+        private final boolean[] classificacoesAceitas;
+        private final int de;
+        private final int ate;
+        private final long[] porGenero = new long[generos.rotulos.size()];
+        private final long[] porClassificacao = new long[classificacoes.rotulos.size()];
+        private final BitSet[] noTitulo;
+        private final BitSet[] noElenco;
+        private final BitSet[] noGenero;
+        private final long[] melhores;
+        private int quantidadeMelhores;
+        private long total;
+
+        Busca(List<String> consulta, boolean[] generosAceitos, boolean[] classificacoesAceitas, int de, int ate, int limite) {
+            this.consulta = consulta;
+            this.prefixo = !consulta.isEmpty() && consulta.get(consulta.size() - 1).length() >= TAMANHO_MINIMO_PREFIXO;
+            this.generosAceitos = generosAceitos;
+            this.classificacoesAceitas = classificacoesAceitas;
+            this.de = de;
+            this.ate = ate;
+            this.melhores = new long[limite];
+            this.noTitulo = new BitSet[consulta.size()];
+            this.noElenco = new BitSet[consulta.size()];
+            this.noGenero = new BitSet[consulta.size()];
+            for (int i = 0; i < consulta.size(); i++) {
+                boolean comoPrefixo = prefixo && i == consulta.size() - 1;
+                noTitulo[i] = marcados(termosTitulo, consulta.get(i), comoPrefixo);
+                noElenco[i] = marcados(termosElenco, consulta.get(i), comoPrefixo);
+                noGenero[i] = marcados(termosGenero, consulta.get(i), comoPrefixo);
+            }
+        }
+
+        void percorrer() {
+            if (consulta.isEmpty()) {
+                for (int ordinal = 0; ordinal < documentos.size(); ordinal++) {
+                    if (posicaoPorOrdinal[ordinal] >= 0) {
+                        avaliar(ordinal);
+                    }
+                }
+                return;
+            }
+            List<Postagens> listas = new ArrayList<>(consulta.size());
+            int exatos = prefixo ? consulta.size() - 1 : consulta.size();
+            for (int i = 0; i < exatos; i++) {
+                Postagens postagens = termos.get(consulta.get(i));
+                if (postagens == null) {
+                    return;
+                }
+                listas.add(postagens);
+            }
+            BitSet comPrefixo = prefixo ? marcados(termos, consulta.get(consulta.size() - 1), true) : null;
+            if (listas.isEmpty()) {
+                for (int ordinal = comPrefixo.nextSetBit(0); ordinal >= 0; ordinal = comPrefixo.nextSetBit(ordinal + 1)) {
+                    avaliar(ordinal);
+                }
+                return;
+            }
+            listas.sort(Comparator.comparingInt(postagens -> postagens.tamanho));
+            Postagens menor = listas.get(0);
+            int[] cursores = new int[listas.size()];
+            proximo:
+            for (int i = 0; i < menor.tamanho; i++) {
+                int ordinal = menor.itens[i];
+                for (int j = 1; j < listas.size(); j++) {
+                    Postagens lista = listas.get(j);
+                    cursores[j] = lista.avancar(cursores[j], ordinal);
+                    if (cursores[j] == lista.tamanho) {
+                        return;
+                    }
+                    if (lista.itens[cursores[j]] != ordinal) {
+                        continue proximo;
+                    }
+                }
+                if (comPrefixo == null || comPrefixo.get(ordinal)) {
+                    avaliar(ordinal);
+                }
+            }
+        }
+
+        BuscaFilmesDTO resultado() {
+            long[] ordenados = Arrays.copyOf(melhores, quantidadeMelhores);
+            Arrays.sort(ordenados);
+            List<Filme> filmes = new ArrayList<>(ordenados.length);
+            for (int i = ordenados.length - 1; i >= 0; i--) {
+                int posicao = Integer.MAX_VALUE - (int) ordenados[i];
+                filmes.add(documentos.get(ordinalPorPosicao[posicao]).filme());
+            }
+            return new BuscaFilmesDTO(total, filmes, generos.contagens(porGenero), classificacoes.contagens(porClassificacao));
+        }
+
+        private void avaliar(int ordinal) {
+            if (inicioPorOrdinal[ordinal] > ate || fimPorOrdinal[ordinal] < de) {
+                return;
+            }
+            int genero = generoPorOrdinal[ordinal];
+            int classificacao = classificacaoPorOrdinal[ordinal];
+            boolean generoAceito = generosAceitos == null || generosAceitos[genero];
+            boolean classificacaoAceita = classificacoesAceitas == null || classificacoesAceitas[classificacao];
+            if (classificacaoAceita) {
+                porGenero[genero]++;
+            }
+            if (generoAceito) {
+                porClassificacao[classificacao]++;
+            }
+            if (generoAceito && classificacaoAceita) {
+                total++;
+                oferecer(((long) pontuar(ordinal) << 32) | (Integer.MAX_VALUE - posicaoPorOrdinal[ordinal]));
+            }
+        }
+
+        private int pontuar(int ordinal) {
+            int pontos = 0;
+            for (int i = 0; i < consulta.size(); i++) {
+                if (noTitulo[i].get(ordinal)) {
+                    pontos += PESO_TITULO;
+                } else if (noElenco[i].get(ordinal)) {
+                    pontos += PESO_ELENCO;
+                } else if (noGenero[i].get(ordinal)) {
+                    pontos += PESO_GENERO;
+                } else {
+                    pontos += PESO_SINOPSE;
+                }
+            }
+            return pontos;
+        }
+
+        /**
+         * Heap de mínimo com os melhores resultados até agora; um candidato
+         * só entra se superar o pior deles.
+         */
+        private void oferecer(long chave) {
+            if (quantidadeMelhores < melhores.length) {
+                int filho = quantidadeMelhores++;
+                while (filho > 0) {
+                    int pai = (filho - 1) >>> 1;
+                    if (melhores[pai] <= chave) {
+                        break;
+                    }
+                    melhores[filho] = melhores[pai];
+                    filho = pai;
+                }
+                melhores[filho] = chave;
+                return;
+            }
+            if (melhores.length == 0 || chave <= melhores[0]) {
+                return;
+            }
+            int pai = 0;
+            while (true) {
+                int filho = 2 * pai + 1;
+                if (filho >= quantidadeMelhores) {
+                    break;
+                }
+                if (filho + 1 < quantidadeMelhores && melhores[filho + 1] < melhores[filho]) {
+                    filho++;
+                }
+                if (melhores[filho] >= chave) {
+                    break;
+                }
+                melhores[pai] = melhores[filho];
+                pai = filho;
+            }
+            melhores[pai] = chave;
+        }
+
+        private BitSet marcados(NavigableMap<String, Postagens> indice, String termo, boolean comoPrefixo) {
+            BitSet marcados = new BitSet();
+            if (comoPrefixo) {
+                indice.subMap(termo, true, termo + Character.MAX_VALUE, false).values()
+                        .forEach(postagens -> postagens.marcar(marcados));
+            } else {
+                Postagens postagens = indice.get(termo);
+                if (postagens != null) {
+                    postagens.marcar(marcados);
+                }
+            }
+            return marcados;
+        }
+    }
+}
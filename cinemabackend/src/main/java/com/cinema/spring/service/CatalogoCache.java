@@ -0,0 +1,57 @@
+package com.cinema.spring.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache dos catálogos (filmes, salas, lanche combos). Cada catálogo tem uma
+ * versão que entra na chave das entradas e na ETag das respostas; uma escrita
+ * confirmada incrementa a versão, de modo que leituras em andamento com dados
+ * antigos gravam em chaves que ninguém mais consulta.
+ */
+@Component
+@RequiredArgsConstructor
+class CatalogoCache {
+    static final String FILMES = "filmes";
+    static final String SALAS = "salas";
+    static final String LANCHE_COMBOS = "lancheCombos";
+
+    private final CacheManager cacheManager;
+
+    private final long instancia = System.currentTimeMillis();
+    private final ConcurrentHashMap<String, AtomicLong> versoes = new ConcurrentHashMap<>();
+
+    <T> T get(String catalogo, Object chave, Supplier<T> carregar) {
+        Chave versionada = new Chave(versao(catalogo).get(), chave);
+        return cache(catalogo).get(versionada, carregar::get);
+    }
+
+    void invalidar(String catalogo) {
+        Transacoes.aposCommit(() -> {
+            versao(catalogo).incrementAndGet();
+            cache(catalogo).clear();
+        });
+    }
+
+    String etag(String catalogo) {
+        return "W/\"" + catalogo + "-" + instancia + "-" + versao(catalogo).get() + "\"";
+    }
+
+    private AtomicLong versao(String catalogo) {
+        return versoes.computeIfAbsent(catalogo, nome -> new AtomicLong());
+    }
+
+    private Cache cache(String catalogo) {
+        return Objects.requireNonNull(cacheManager.getCache(catalogo), "Cache não configurado: " + catalogo);
+    }
+
+    private record Chave(long versao, Object chave) {
+    }
+}
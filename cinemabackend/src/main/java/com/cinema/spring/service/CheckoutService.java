@@ -0,0 +1,487 @@
+package com.cinema.spring.service;
+
+import com.cinema.spring.dto.CheckoutConfirmacaoDTO;
+import com.cinema.spring.dto.CheckoutDTO;
+import com.cinema.spring.model.Ingresso;
+import com.cinema.spring.model.LancheCombo;
+import com.cinema.spring.model.Pedido;
+import com.cinema.spring.repository.IngressoRepository;
+import com.cinema.spring.repository.PedidoRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Checkout assíncrono: o pedido é precificado e validado na requisição, entra
+ * em uma fila em memória e é gravado por uma única thread em lotes, um commit
+ * por lote. O cliente recebe um token e consulta o status depois.
+ * <p>
+ * Com {@code cinema.checkout.diario.habilitado}, o pedido também é anexado ao
+ * {@link DiarioCheckout} e só é aceito depois de estar em disco; na subida, o
+ * que ficou no diário sem chegar ao banco é gravado antes de abrir a fila.
+ * <p>
+ * Só recusas de negócio (IllegalStateException ou IllegalArgumentException,
+ * como sessão lotada) marcam o checkout como FALHOU. Qualquer outra falha
+ * deixa o pedido pendente: ele volta para a frente da fila, é tentado de novo
+ * com espera crescente, e o diário só é concluído até o último pedido gravado
+ * ou recusado.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CheckoutService {
+    private final PedidoRepository pedidoRepository;
+    private final IngressoRepository ingressoRepository;
+    private final LancheComboService lancheComboService;
+    private final PedidoService pedidoService;
+    private final ProgramacaoService programacaoService;
+    private final VendasService vendasService;
+    private final OcupacaoService ocupacaoService;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${cinema.checkout.batch-size:200}")
+    private int batchSize;
+
+    @Value("${cinema.checkout.flush-interval:PT0.02S}")
+    private Duration flushInterval;
+
+    @Value("${cinema.checkout.capacidade-fila:10000}")
+    private int capacidadeFila;
+
+    @Value("${cinema.checkout.retencao-status:PT10M}")
+    private Duration retencaoStatus;
+
+    @Value("${cinema.checkout.retentativa.espera-inicial:PT0.1S}")
+    private Duration esperaInicial;
+
+    @Value("${cinema.checkout.retentativa.espera-maxima:PT5S}")
+    private Duration esperaMaxima;
+
+    @Value("${cinema.checkout.diario.habilitado:false}")
+    private boolean diarioHabilitado;
+
+    @Value("${cinema.checkout.diario.diretorio:./data/checkout}")
+    private Path diretorioDiario;
+
+    @Value("${cinema.checkout.diario.tamanho-segmento:8MB}")
+    private DataSize tamanhoSegmentoDiario;
+
+    @Value("${cinema.checkout.diario.retencao:PT2S}")
+    private Duration retencaoDiario;
+
+    private final ConcurrentHashMap<String, Registro> confirmacoes = new ConcurrentHashMap<>();
+    private final Deque<PedidoPendente> retentativas = new ConcurrentLinkedDeque<>();
+    private BlockingQueue<PedidoPendente> fila;
+    private TransactionTemplate transactionTemplate;
+    private DiarioCheckout diario;
+    private Thread escritor;
+    private volatile boolean ativo;
+
+    @PostConstruct
+    void iniciar() throws IOException {
+        fila = new ArrayBlockingQueue<>(capacidadeFila);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        if (diarioHabilitado) {
+            diario = new DiarioCheckout(diretorioDiario, Math.toIntExact(tamanhoSegmentoDiario.toBytes()), retencaoDiario);
+            recuperar(diario.pendentes());
+        }
+        ativo = true;
+        escritor = new Thread(this::executar, "checkout-escritor");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    @PreDestroy
+    void encerrar() throws InterruptedException {
+        ativo = false;
+        escritor.join(TimeUnit.SECONDS.toMillis(30));
+        if (diario != null) {
+            diario.close();
+        }
+    }
+
+    public CheckoutConfirmacaoDTO checkout(CheckoutDTO dto) {
+        if (dto.getIngresso() == null) {
+            throw new IllegalArgumentException("Ingresso é obrigatório.");
+        }
+        if (dto.getMetodoPagamento() == null || dto.getMetodoPagamento().isBlank()) {
+            throw new IllegalArgumentException("Método de pagamento é obrigatório.");
+        }
+        Ingresso ingresso = ingressoRepository.findById(dto.getIngresso())
+                .orElseThrow(() -> new IllegalArgumentException("Ingresso não encontrado com id: " + dto.getIngresso()));
+        List<LancheCombo> lancheCombos = lancheComboService.findAllById(dto.getLancheCombos());
+        double valorTotal = pedidoService.calcularValorTotal(ingresso, dto.getIngressosMeiaQtd(), dto.getIngressosInteiraQtd(), lancheCombos);
+        if (dto.getIngressosMeiaQtd() + dto.getIngressosInteiraQtd() == 0) {
+            throw new IllegalArgumentException("Informe ao menos um ingresso.");
+        }
+
+        Pedido pedido = new Pedido();
+        pedido.setDataHora(LocalDateTime.now());
+        pedido.setIngressosMeiaQtd(dto.getIngressosMeiaQtd());
+        pedido.setIngressosInteiraQtd(dto.getIngressosInteiraQtd());
+        pedido.setIngresso(ingresso);
+        pedido.setLancheCombos(lancheCombos);
+        pedido.setValorTotal(valorTotal);
+        pedido.setMetodoPagamento(dto.getMetodoPagamento());
+
+        String token = UUID.randomUUID().toString();
+        pedido.setCheckoutToken(token);
+        CheckoutConfirmacaoDTO confirmacao = new CheckoutConfirmacaoDTO(token, CheckoutConfirmacaoDTO.PENDENTE, valorTotal, null, null);
+        confirmacoes.put(token, new Registro(confirmacao, System.currentTimeMillis()));
+        long sequencia;
+        try {
+            sequencia = enfileirar(token, pedido);
+        } catch (RuntimeException e) {
+            confirmacoes.remove(token);
+            throw e;
+        }
+        if (diario != null) {
+            diario.sincronizar(sequencia);
+        }
+        return confirmacao;
+    }
+
+    public Optional<CheckoutConfirmacaoDTO> findByToken(String token) {
+        return Optional.ofNullable(confirmacoes.get(token))
+                .map(Registro::confirmacao);
+    }
+
+    /**
+     * Grava o que o diário trouxe da execução anterior: o que já tem token no
+     * banco só é confirmado, o resto vai em lotes como um checkout normal.
+     * Se o banco falhar no meio, o que sobrou fica pendente e passa para o
+     * escritor tentar de novo. Devolve quantos pedidos foram gravados.
+     */
+    int recuperar(List<DiarioCheckout.Registro> registros) {
+        if (registros.isEmpty()) {
+            return 0;
+        }
+        Map<String, Long> gravados = new HashMap<>();
+        for (int i = 0; i < registros.size(); i += batchSize) {
+            List<String> tokens = registros.subList(i, Math.min(i + batchSize, registros.size())).stream()
+                    .map(DiarioCheckout.Registro::token)
+                    .toList();
+            pedidoRepository.findByCheckoutTokens(tokens)
+                    .forEach(gravado -> gravados.put(gravado.getToken(), gravado.getPedido()));
+        }
+        Map<Long, Ingresso> ingressos = ingressoRepository.findAllById(registros.stream()
+                        .map(DiarioCheckout.Registro::ingresso)
+                        .distinct()
+                        .toList()).stream()
+                .collect(Collectors.toMap(Ingresso::getId, Function.identity()));
+
+        List<PedidoPendente> faltantes = new ArrayList<>();
+        for (DiarioCheckout.Registro registro : registros) {
+            confirmacoes.put(registro.token(), new Registro(new CheckoutConfirmacaoDTO(registro.token(),
+                    CheckoutConfirmacaoDTO.PENDENTE, registro.valorTotal(), null, null), System.currentTimeMillis()));
+            Long pedidoId = gravados.get(registro.token());
+            if (pedidoId != null) {
+                atualizar(registro.token(), CheckoutConfirmacaoDTO.CONFIRMADO, pedidoId, null);
+                continue;
+            }
+            try {
+                faltantes.add(new PedidoPendente(registro.token(), pedido(registro, ingressos), registro.sequencia()));
+            } catch (IllegalArgumentException e) {
+                atualizar(registro.token(), CheckoutConfirmacaoDTO.FALHOU, null, e.getMessage());
+            }
+        }
+        List<PedidoPendente> restante = List.of();
+        for (int i = 0; i < faltantes.size(); i += batchSize) {
+            List<PedidoPendente> lote = faltantes.subList(i, Math.min(i + batchSize, faltantes.size()));
+            List<PedidoPendente> naoGravados = gravar(lote);
+            if (!naoGravados.isEmpty()) {
+                restante = faltantes.subList(i + lote.size() - naoGravados.size(), faltantes.size());
+                break;
+            }
+        }
+        concluir(registros.get(registros.size() - 1).sequencia(), restante);
+        adiar(restante);
+        log.info("Diário de checkout reprocessado: {} pedido(s) gravado(s), {} já estavam no banco, {} para nova tentativa",
+                faltantes.size() - restante.size(), gravados.size(), restante.size());
+        return faltantes.size() - restante.size();
+    }
+
+    private Pedido pedido(DiarioCheckout.Registro registro, Map<Long, Ingresso> ingressos) {
+        Ingresso ingresso = ingressos.get(registro.ingresso());
+        if (ingresso == null) {
+            throw new IllegalArgumentException("Ingresso não encontrado com id: " + registro.ingresso());
+        }
+        Pedido pedido = new Pedido();
+        pedido.setDataHora(registro.dataHora());
+        pedido.setIngressosMeiaQtd(registro.ingressosMeiaQtd());
+        pedido.setIngressosInteiraQtd(registro.ingressosInteiraQtd());
+        pedido.setIngresso(ingresso);
+        pedido.setLancheCombos(lancheComboService.findAllById(registro.lancheCombos()));
+        pedido.setValorTotal(registro.valorTotal());
+        pedido.setMetodoPagamento(registro.metodoPagamento());
+        pedido.setCheckoutToken(registro.token());
+        return pedido;
+    }
+
+    /**
+     * Anexa ao diário e enfileira sob o mesmo lock, para que a ordem da fila
+     * seja a das sequências e nada entre no diário sem lugar na fila.
+     */
+    private long enfileirar(String token, Pedido pedido) {
+        synchronized (fila) {
+            if (fila.remainingCapacity() == 0) {
+                throw new IllegalStateException("Fila de checkout cheia, tente novamente em instantes.");
+            }
+            long sequencia = diario == null ? 0 : diario.anexar(pedido);
+            fila.add(new PedidoPendente(token, pedido, sequencia));
+            return sequencia;
+        }
+    }
+
+    /**
+     * Enquanto houver retentativas, a fila espera: assim o diário nunca é
+     * concluído além de um pedido que ainda não chegou ao banco. No
+     * encerramento, retentativas pendentes ficam para o diário da próxima
+     * subida.
+     */
+    private void executar() {
+        long proximaLimpeza = System.currentTimeMillis() + retencaoStatus.toMillis();
+        Duration espera = Duration.ZERO;
+        while (ativo || (!fila.isEmpty() && retentativas.isEmpty())) {
+            try {
+                List<PedidoPendente> lote;
+                if (retentativas.isEmpty()) {
+                    espera = Duration.ZERO;
+                    lote = proximoLote();
+                } else {
+                    espera = espera.isZero() ? esperaInicial : min(espera.multipliedBy(2), esperaMaxima);
+                    TimeUnit.NANOSECONDS.sleep(espera.toNanos());
+                    lote = retomar();
+                }
+                if (!lote.isEmpty()) {
+                    List<PedidoPendente> restante = gravar(lote);
+                    concluir(lote.get(lote.size() - 1).sequencia(), restante);
+                    adiar(restante);
+                }
+                if (diario != null) {
+                    diario.avancar();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Erro inesperado no escritor de checkout", e);
+            }
+            if (System.currentTimeMillis() >= proximaLimpeza) {
+                removerConfirmacoesAntigas();
+                proximaLimpeza = System.currentTimeMillis() + retencaoStatus.toMillis();
+            }
+        }
+        if (!retentativas.isEmpty()) {
+            log.warn("Escritor de checkout encerrado com {} pedido(s) sem gravar{}", retentativas.size(),
+                    diario == null ? "" : "; serão regravados do diário na próxima subida");
+        }
+    }
+
+    private List<PedidoPendente> proximoLote() throws InterruptedException {
+        List<PedidoPendente> lote = new ArrayList<>(batchSize);
+        PedidoPendente primeiro = fila.poll(flushInterval.toNanos(), TimeUnit.NANOSECONDS);
+        if (primeiro == null) {
+            return lote;
+        }
+        lote.add(primeiro);
+        long limite = System.nanoTime() + flushInterval.toNanos();
+        while (lote.size() < batchSize) {
+            fila.drainTo(lote, batchSize - lote.size());
+            long restante = limite - System.nanoTime();
+            if (lote.size() >= batchSize || restante <= 0) {
+                break;
+            }
+            PedidoPendente proximo = fila.poll(restante, TimeUnit.NANOSECONDS);
+            if (proximo == null) {
+                break;
+            }
+            lote.add(proximo);
+        }
+        return lote;
+    }
+
+    /**
+     * Tira da frente das retentativas o próximo lote, já confirmando o que
+     * chegou ao banco apesar da falha (o commit aconteceu, mas a resposta
+     * não); gravá-los de novo só esbarraria no token único.
+     */
+    private List<PedidoPendente> retomar() {
+        List<PedidoPendente> lote = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize && !retentativas.isEmpty(); i++) {
+            lote.add(retentativas.pollFirst());
+        }
+        Map<String, Long> gravados = new HashMap<>();
+        try {
+            pedidoRepository.findByCheckoutTokens(lote.stream().map(PedidoPendente::token).toList())
+                    .forEach(gravado -> gravados.put(gravado.getToken(), gravado.getPedido()));
+        } catch (RuntimeException e) {
+            log.warn("Banco indisponível ao retomar {} pedido(s) do checkout", lote.size(), e);
+            adiar(lote);
+            return List.of();
+        }
+        List<PedidoPendente> faltantes = new ArrayList<>(lote.size());
+        for (PedidoPendente pendente : lote) {
+            Long pedidoId = gravados.get(pendente.token());
+            if (pedidoId != null) {
+                confirmar(pendente, pedidoId);
+            } else {
+                faltantes.add(pendente);
+            }
+        }
+        if (faltantes.isEmpty() && diario != null) {
+            diario.concluir(lote.get(lote.size() - 1).sequencia());
+        }
+        return faltantes;
+    }
+
+    /**
+     * Devolve à frente das retentativas, na ordem original, o que não foi
+     * gravado.
+     */
+    private void adiar(List<PedidoPendente> restante) {
+        for (int i = restante.size() - 1; i >= 0; i--) {
+            retentativas.offerFirst(restante.get(i));
+        }
+    }
+
+    /**
+     * Conclui o diário até o último pedido do lote ou, se sobrou algo, até o
+     * anterior ao primeiro que ficou sem gravar.
+     */
+    private void concluir(long ultima, List<PedidoPendente> restante) {
+        if (diario != null) {
+            diario.concluir(restante.isEmpty() ? ultima : restante.get(0).sequencia() - 1);
+        }
+    }
+
+    /**
+     * Grava o lote em uma transação; se ela falhar, grava um a um. Devolve o
+     * que ficou sem gravar por falha transitória: do primeiro pedido nessa
+     * situação até o fim do lote.
+     */
+    private List<PedidoPendente> gravar(List<PedidoPendente> lote) {
+        try {
+            lote.forEach(pendente -> reiniciar(pendente.pedido()));
+            List<Pedido> salvos = transactionTemplate.execute(status -> {
+                List<Pedido> pedidos = pedidoRepository.saveAll(lote.stream().map(PedidoPendente::pedido).toList());
+                registrarVendas(pedidos);
+                return pedidos;
+            });
+            for (int i = 0; i < lote.size(); i++) {
+                confirmar(lote.get(i), salvos.get(i).getId());
+            }
+            return List.of();
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            log.debug("Lote de {} pedido(s) recusado ({}), gravando um a um", lote.size(), e.getMessage());
+        } catch (RuntimeException e) {
+            log.warn("Falha ao gravar lote de {} pedido(s), gravando um a um", lote.size(), e);
+        }
+        for (int i = 0; i < lote.size(); i++) {
+            if (!gravarIndividualmente(lote.get(i))) {
+                return lote.subList(i, lote.size());
+            }
+        }
+        return List.of();
+    }
+
+    /**
+     * Grava um pedido sozinho. Devolve false se a falha foi transitória e o
+     * pedido deve ser tentado de novo.
+     */
+    private boolean gravarIndividualmente(PedidoPendente pendente) {
+        try {
+            reiniciar(pendente.pedido());
+            Pedido salvo = transactionTemplate.execute(status -> {
+                Pedido pedido = pedidoRepository.save(pendente.pedido());
+                registrarVendas(List.of(pedido));
+                return pedido;
+            });
+            confirmar(pendente, salvo.getId());
+            return true;
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            atualizar(pendente.token(), CheckoutConfirmacaoDTO.FALHOU, null, e.getMessage());
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Falha ao gravar pedido do checkout {}, nova tentativa em breve", pendente.token(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Desfaz o que uma tentativa revertida deixou no pedido, para que a
+     * próxima o persista como novo.
+     */
+    private static void reiniciar(Pedido pedido) {
+        pedido.setId(null);
+        pedido.setVersao(null);
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    /**
+     * Ocupa os lugares com um UPDATE por sessão do lote, e não um por pedido;
+     * se a soma não couber, o lote inteiro é recusado e cai na gravação um a
+     * um, que decide pedido por pedido.
+     */
+    private void registrarVendas(List<Pedido> pedidos) {
+        Map<Long, Integer> lugares = new LinkedHashMap<>();
+        for (Pedido pedido : pedidos) {
+            lugares.merge(pedido.getIngresso().getSessao().getId(),
+                    pedido.getIngressosMeiaQtd() + pedido.getIngressosInteiraQtd(), Integer::sum);
+        }
+        lugares.forEach(ocupacaoService::ocupar);
+        lugares.keySet().forEach(programacaoService::registrarVenda);
+        vendasService.registrar(pedidos);
+    }
+
+    private void confirmar(PedidoPendente pendente, Long pedidoId) {
+        atualizar(pendente.token(), CheckoutConfirmacaoDTO.CONFIRMADO, pedidoId, null);
+    }
+
+    private void atualizar(String token, String status, Long pedidoId, String mensagem) {
+        confirmacoes.computeIfPresent(token, (chave, registro) -> new Registro(
+                new CheckoutConfirmacaoDTO(token, status, registro.confirmacao().getValorTotal(), pedidoId, mensagem),
+                registro.criadoEm()));
+    }
+
+    private void removerConfirmacoesAntigas() {
+        long limite = System.currentTimeMillis() - retencaoStatus.toMillis();
+        confirmacoes.values().removeIf(registro -> registro.criadoEm() < limite
+                && !CheckoutConfirmacaoDTO.PENDENTE.equals(registro.confirmacao().getStatus()));
+    }
+
+    private record PedidoPendente(String token, Pedido pedido, long sequencia) {
+    }
+
+    private record Registro(CheckoutConfirmacaoDTO confirmacao, long criadoEm) {
+    }
+}
@@ -0,0 +1,338 @@
+package com.cinema.spring.service;
+
+import com.cinema.spring.model.LancheCombo;
+import com.cinema.spring.model.Pedido;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Diário local do checkout. Cada pedido aceito é serializado direto em um
+ * segmento mapeado em memória (sem cópia intermediária) e só é confirmado ao
+ * cliente depois do {@code force()}; quem chega enquanto outro força espera
+ * o mesmo {@code force()}, que cobre todos os registros anexados até ali.
+ * <p>
+ * Segmentos têm tamanho fixo e nunca são reaproveitados: cheio o ativo, abre-se
+ * outro, e os antigos são apagados quando todos os seus registros já estão no
+ * banco. O ponto de conclusão só avança depois da {@code retencao}, para cobrir
+ * o atraso do banco em levar o commit ao disco; na reabertura, o que passou do
+ * ponto volta em {@link #pendentes()} e quem reprocessa descarta o que já
+ * estiver gravado.
+ */
+@Slf4j
+public final class DiarioCheckout implements Closeable {
+    private static final String PREFIXO = "checkout-";
+    private static final String SUFIXO = ".diario";
+    private static final int MAGICO = 0x43484b31;
+    private static final int VERSAO = 1;
+    private static final int CABECALHO = 32;
+    private static final int POSICAO_PONTO = 8;
+    private static final int CABECALHO_REGISTRO = 16;
+
+    private final Path diretorio;
+    private final int tamanhoSegmento;
+    private final long retencaoNanos;
+    private final ArrayDeque<Segmento> segmentos = new ArrayDeque<>();
+    private final ArrayDeque<long[]> concluidos = new ArrayDeque<>();
+    private final List<Registro> pendentes;
+    private final AtomicLong duravel = new AtomicLong();
+    private final Object forca = new Object();
+
+    private Segmento ativo;
+    private int posicao;
+    private long ultima;
+    private long ponto;
+
+    public DiarioCheckout(Path diretorio, int tamanhoSegmento, Duration retencao) throws IOException {
+        if (tamanhoSegmento <= CABECALHO + CABECALHO_REGISTRO) {
+            throw new IllegalArgumentException("Tamanho de segmento do diário muito pequeno: " + tamanhoSegmento);
+        }
+        this.diretorio = diretorio;
+        this.tamanhoSegmento = tamanhoSegmento;
+        this.retencaoNanos = retencao.toNanos();
+        Files.createDirectories(diretorio);
+
+        List<Registro> lidos = new ArrayList<>();
+        long numero = 0;
+        for (Path arquivo : existentes()) {
+            numero = Math.max(numero, numero(arquivo));
+            Segmento segmento = ler(arquivo, lidos);
+            segmentos.add(segmento);
+            ultima = Math.max(ultima, segmento.ultimaSequencia);
+        }
+        pendentes = lidos.stream().filter(registro -> registro.sequencia() > ponto).toList();
+        duravel.set(ultima);
+        ativo = criar(numero + 1);
+        segmentos.add(ativo);
+        apagarConcluidos();
+        if (!pendentes.isEmpty()) {
+            log.info("Diário de checkout com {} pedido(s) pendente(s) em {}", pendentes.size(), diretorio);
+        }
+    }
+
+    /**
+     * Registros encontrados na abertura que ainda não tinham sido concluídos,
+     * em ordem de sequência.
+     */
+    public List<Registro> pendentes() {
+        return pendentes;
+    }
+
+    /**
+     * Anexa o pedido (com o token do checkout já definido) e devolve a sequência
+     * do registro. O registro só é durável depois de {@link #sincronizar(long)}.
+     */
+    public synchronized long anexar(Pedido pedido) {
+        byte[] token = bytes(UUID.fromString(pedido.getCheckoutToken()));
+        byte[] metodoPagamento = pedido.getMetodoPagamento().getBytes(StandardCharsets.UTF_8);
+        List<LancheCombo> lancheCombos = pedido.getLancheCombos();
+        int tamanho = token.length + 12 + 8 + 4 + 4 + 8 + 4 + metodoPagamento.length + 4 + 8 * lancheCombos.size();
+        int total = CABECALHO_REGISTRO + tamanho;
+        if (total > tamanhoSegmento - CABECALHO) {
+            throw new IllegalArgumentException("Pedido grande demais para o diário de checkout.");
+        }
+        if (posicao + total > tamanhoSegmento) {
+            rotacionar();
+        }
+
+        long sequencia = ultima + 1;
+        LocalDateTime dataHora = pedido.getDataHora();
+        ByteBuffer registro = ativo.mapa.slice(posicao, total);
+        registro.position(8);
+        registro.putLong(sequencia)
+                .put(token)
+                .putLong(dataHora.toEpochSecond(ZoneOffset.UTC))
+                .putInt(dataHora.getNano())
+                .putLong(pedido.getIngresso().getId())
+                .putInt(pedido.getIngressosMeiaQtd())
+                .putInt(pedido.getIngressosInteiraQtd())
+                .putDouble(pedido.getValorTotal())
+                .putInt(metodoPagamento.length)
+                .put(metodoPagamento)
+                .putInt(lancheCombos.size());
+        lancheCombos.forEach(lancheCombo -> registro.putLong(lancheCombo.getId()));
+        registro.putInt(4, crc(registro, total));
+        registro.putInt(0, tamanho);
+
+        posicao += total;
+        ativo.ultimaSequencia = sequencia;
+        ultima = sequencia;
+        return sequencia;
+    }
+
+    /**
+     * Garante que o registro da sequência (e todos os anteriores) está em
+     * disco. Chamadas concorrentes compartilham o mesmo {@code force()}.
+     */
+    public void sincronizar(long sequencia) {
+        if (duravel.get() >= sequencia) {
+            return;
+        }
+        synchronized (forca) {
+            if (duravel.get() >= sequencia) {
+                return;
+            }
+            MappedByteBuffer mapa;
+            long alvo;
+            synchronized (this) {
+                mapa = ativo.mapa;
+                alvo = ultima;
+            }
+            mapa.force();
+            duravel.accumulateAndGet(alvo, Math::max);
+        }
+    }
+
+    /**
+     * Informa que todos os registros até a sequência já foram gravados no
+     * banco. O ponto só avança em {@link #avancar()}, passada a retenção.
+     */
+    public synchronized void concluir(long sequencia) {
+        concluidos.addLast(new long[]{sequencia, System.nanoTime()});
+    }
+
+    /**
+     * Avança o ponto de conclusão com o que já passou da retenção e apaga os
+     * segmentos que ficaram totalmente para trás.
+     */
+    public synchronized void avancar() {
+        long limite = System.nanoTime() - retencaoNanos;
+        long novo = ponto;
+        while (!concluidos.isEmpty() && concluidos.peekFirst()[1] - limite <= 0) {
+            novo = Math.max(novo, concluidos.removeFirst()[0]);
+        }
+        if (novo == ponto) {
+            return;
+        }
+        ponto = novo;
+        ativo.mapa.putLong(POSICAO_PONTO, ponto);
+        apagarConcluidos();
+    }
+
+    @Override
+    public synchronized void close() {
+        ativo.mapa.putLong(POSICAO_PONTO, ponto);
+        ativo.mapa.force();
+        duravel.accumulateAndGet(ultima, Math::max);
+    }
+
+    private void rotacionar() {
+        ativo.mapa.force();
+        duravel.accumulateAndGet(ultima, Math::max);
+        ativo.mapa = null;
+        try {
+            ativo = criar(ativo.numero + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível abrir novo segmento do diário de checkout", e);
+        }
+        segmentos.add(ativo);
+        log.debug("Diário de checkout: novo segmento {}", ativo.arquivo.getFileName());
+    }
+
+    private Segmento criar(long numero) throws IOException {
+        Path arquivo = diretorio.resolve(String.format("%s%020d%s", PREFIXO, numero, SUFIXO));
+        Segmento segmento = new Segmento(numero, arquivo);
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segmento.mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanhoSegmento);
+        }
+        segmento.mapa.putInt(0, MAGICO).putInt(4, VERSAO).putLong(POSICAO_PONTO, ponto);
+        segmento.mapa.force();
+        segmento.ultimaSequencia = ultima;
+        posicao = CABECALHO;
+        return segmento;
+    }
+
+    private Segmento ler(Path arquivo, List<Registro> lidos) throws IOException {
+        Segmento segmento = new Segmento(numero(arquivo), arquivo);
+        MappedByteBuffer mapa;
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+        if (mapa.capacity() < CABECALHO || mapa.getInt(0) != MAGICO || mapa.getInt(4) != VERSAO) {
+            log.warn("Segmento do diário de checkout ignorado, cabeçalho inválido: {}", arquivo);
+            return segmento;
+        }
+        ponto = Math.max(ponto, mapa.getLong(POSICAO_PONTO));
+        int inicio = CABECALHO;
+        while (inicio + CABECALHO_REGISTRO <= mapa.capacity()) {
+            int tamanho = mapa.getInt(inicio);
+            int total = CABECALHO_REGISTRO + tamanho;
+            if (tamanho <= 0 || inicio + total > mapa.capacity()) {
+                break;
+            }
+            ByteBuffer registro = mapa.slice(inicio, total);
+            long sequencia = registro.getLong(8);
+            if (registro.getInt(4) != crc(registro, total) || sequencia <= segmento.ultimaSequencia) {
+                log.warn("Registro incompleto no diário de checkout {} na posição {}; o restante do segmento foi descartado",
+                        arquivo.getFileName(), inicio);
+                break;
+            }
+            lidos.add(registro(registro, sequencia));
+            segmento.ultimaSequencia = sequencia;
+            inicio += total;
+        }
+        return segmento;
+    }
+
+    private void apagarConcluidos() {
+        Iterator<Segmento> iterador = segmentos.iterator();
+        while (iterador.hasNext()) {
+            Segmento segmento = iterador.next();
+            if (segmento == ativo || segmento.ultimaSequencia > ponto) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(segmento.arquivo);
+                iterador.remove();
+            } catch (IOException e) {
+                log.warn("Não foi possível apagar o segmento {} do diário de checkout", segmento.arquivo, e);
+            }
+        }
+    }
+
+    private List<Path> existentes() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos
+                    .filter(arquivo -> {
+                        String nome = arquivo.getFileName().toString();
+                        return nome.startsWith(PREFIXO) && nome.endsWith(SUFIXO);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long numero(Path arquivo) {
+        String nome = arquivo.getFileName().toString();
+        return Long.parseLong(nome.substring(PREFIXO.length(), nome.length() - SUFIXO.length()));
+    }
+
+    private static Registro registro(ByteBuffer registro, long sequencia) {
+        registro.position(16);
+        UUID token = new UUID(registro.getLong(), registro.getLong());
+        LocalDateTime dataHora = LocalDateTime.ofEpochSecond(registro.getLong(), registro.getInt(), ZoneOffset.UTC);
+        long ingresso = registro.getLong();
+        int meia = registro.getInt();
+        int inteira = registro.getInt();
+        double valorTotal = registro.getDouble();
+        byte[] metodoPagamento = new byte[registro.getInt()];
+        registro.get(metodoPagamento);
+        List<Long> lancheCombos = new ArrayList<>(registro.getInt());
+        while (registro.hasRemaining()) {
+            lancheCombos.add(registro.getLong());
+        }
+        return new Registro(sequencia, token.toString(), dataHora, ingresso, meia, inteira, valorTotal,
+                new String(metodoPagamento, StandardCharsets.UTF_8), List.copyOf(lancheCombos));
+    }
+
+    private static int crc(ByteBuffer registro, int total) {
+        CRC32C crc = new CRC32C();
+        crc.update(registro.slice(8, total - 8));
+        return (int) crc.getValue();
+    }
+
+    private static byte[] bytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    public record Registro(long sequencia, String token, LocalDateTime dataHora, long ingresso,
+                           int ingressosMeiaQtd, int ingressosInteiraQtd, double valorTotal,
+                           String metodoPagamento, List<Long> lancheCombos) {
+    }
+
+    private static final class Segmento {
+        private final long numero;
+        private final Path arquivo;
+        private MappedByteBuffer mapa;
+        private long ultimaSequencia;
+
+        private Segmento(long numero, Path arquivo) {
+            this.numero = numero;
+            this.arquivo = arquivo;
+        }
+    }
+}
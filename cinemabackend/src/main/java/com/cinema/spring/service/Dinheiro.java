@@ -0,0 +1,18 @@
+package com.cinema.spring.service;
+
+/**
+ * Conversão entre centavos (como os preços são guardados e calculados) e
+ * reais (como a API os expõe).
+ */
+final class Dinheiro {
+    private Dinheiro() {
+    }
+
+    static long centavos(Double reais) {
+        return reais == null ? 0 : Math.round(reais * 100);
+    }
+
+    static double reais(long centavos) {
+        return centavos / 100.0;
+    }
+}
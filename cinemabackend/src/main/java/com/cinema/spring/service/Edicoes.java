@@ -0,0 +1,50 @@
+package com.cinema.spring.service;
+
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Apoio às edições de PUT e PATCH. A versão informada pelo cliente é
+ * conferida contra a carregada, e edições concorrentes que passem dessa
+ * conferência param no {@code WHERE versao = ?} do próprio update.
+ */
+final class Edicoes {
+    private Edicoes() {
+    }
+
+    /**
+     * Lança ObjectOptimisticLockingFailureException se o cliente informou uma
+     * versão e ela não é a atual. Sem versão informada, vale só a conferência
+     * do update.
+     */
+    static void conferirVersao(Class<?> entidade, Long id, Long informada, Long atual) {
+        if (informada != null && !informada.equals(atual)) {
+            throw new ObjectOptimisticLockingFailureException(entidade, id);
+        }
+    }
+
+    /**
+     * Aplica os campos presentes em {@code alteracoes} sobre {@code atual}
+     * (um DTO ou uma cópia da entidade); os ausentes ficam como estão.
+     */
+    static <T> T mesclar(JsonMapper jsonMapper, T atual, JsonNode alteracoes) {
+        if (alteracoes == null || !alteracoes.isObject()) {
+            throw new IllegalArgumentException("Informe um objeto JSON com os campos a alterar.");
+        }
+        try {
+            return jsonMapper.readerForUpdating(atual).readValue(alteracoes);
+        } catch (JacksonException e) {
+            throw new IllegalArgumentException("Alteração inválida: " + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Cópia desanexada da entidade, para mesclar um PATCH sem tocar na
+     * instância gerenciada antes da conferência de versão.
+     */
+    static <T> T copia(JsonMapper jsonMapper, T entidade, Class<T> tipo) {
+        return jsonMapper.convertValue(entidade, tipo);
+    }
+}
@@ -3,45 +3,118 @@ package com.cinema.spring.service;
 import com.cinema.spring.model.Filme;
 import com.cinema.spring.repository.FilmeRepository;
 import com.cinema.spring.repository.SessaoRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class FilmeService {
+    private static final String TODOS = "todos";
+
     private final FilmeRepository filmeRepository;
     private final SessaoRepository sessaoRepository;
+    private final EntityManager entityManager;
+    private final PrecificacaoService precificacaoService;
+    private final ProgramacaoService programacaoService;
+    private final CatalogoCache catalogoCache;
+    private final GradeSalasService gradeSalasService;
+    private final BuscaFilmesService buscaFilmesService;
+    private final JsonMapper jsonMapper;
 
     public List<Filme> findAll() {
-        return filmeRepository.findAll();
+        return catalogoCache.get(CatalogoCache.FILMES, TODOS, () -> List.copyOf(filmeRepository.findAll()));
+    }
+
+    public List<Filme> findPage(Long after, int limit) {
+        return filmeRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Filme> consumidor) {
+        try (Stream<Filme> filmes = filmeRepository.streamAll()) {
+            filmes.forEach(filme -> {
+                consumidor.accept(filme);
+                entityManager.detach(filme);
+            });
+        }
     }
 
     public Optional<Filme> findById(Long id) {
-        return filmeRepository.findById(id);
+        return Optional.ofNullable(catalogoCache.get(CatalogoCache.FILMES, id, () -> filmeRepository.findById(id).orElse(null)));
+    }
+
+    public String etag() {
+        return catalogoCache.etag(CatalogoCache.FILMES);
     }
 
     public Filme save(Filme filme) {
-        return filmeRepository.save(filme);
+        Filme saved = filmeRepository.save(filme);
+        catalogoCache.invalidar(CatalogoCache.FILMES);
+        buscaFilmesService.atualizar(saved);
+        return saved;
+    }
+
+    /**
+     * Altera o filme carregado no lugar: o update leva só as colunas que
+     * mudaram e confere a versão.
+     */
+    @Transactional
+    public Optional<Filme> update(Long id, Filme filme) {
+        return filmeRepository.findById(id)
+                .map(existente -> {
+                    Edicoes.conferirVersao(Filme.class, id, filme.getVersao(), existente.getVersao());
+                    boolean mudouDuracao = !Objects.equals(existente.getDuracao(), filme.getDuracao());
+                    existente.setTitulo(filme.getTitulo());
+                    existente.setSinopse(filme.getSinopse());
+                    existente.setClassificacao(filme.getClassificacao());
+                    existente.setDuracao(filme.getDuracao());
+                    existente.setElenco(filme.getElenco());
+                    existente.setGenero(filme.getGenero());
+                    existente.setDataInicioExibicao(filme.getDataInicioExibicao());
+                    existente.setDataFinalExibicao(filme.getDataFinalExibicao());
+                    filmeRepository.flush();
+                    catalogoCache.invalidar(CatalogoCache.FILMES);
+                    buscaFilmesService.atualizar(existente);
+                    precificacaoService.atualizarFilme(id);
+                    programacaoService.atualizarFilme(id);
+                    if (mudouDuracao) {
+                        gradeSalasService.alterarDuracao(id, filme.getDuracao());
+                    }
+                    return existente;
+                });
     }
 
-    public Filme update(Long id, Filme filme) {
-        filme.setId(id);
-        return filmeRepository.save(filme);
+    /**
+     * Altera só os campos presentes em {@code alteracoes}.
+     */
+    @Transactional
+    public Optional<Filme> patch(Long id, JsonNode alteracoes) {
+        return filmeRepository.findById(id)
+                .flatMap(existente -> update(id, Edicoes.mesclar(jsonMapper, Edicoes.copia(jsonMapper, existente, Filme.class), alteracoes)));
     }
 
     @Transactional
     public void deleteById(Long id) {
-        List<com.cinema.spring.model.Sessao> sessoes = sessaoRepository.findByFilmeId(id);
+        long sessoesCount = sessaoRepository.countByFilmeId(id);
         
-        if (!sessoes.isEmpty()) {
-            throw new RuntimeException("Não é possível excluir o filme pois existem " + sessoes.size() + " sessão(ões) associada(s) a ele.");
+        if (sessoesCount > 0) {
+            throw new RuntimeException("Não é possível excluir o filme pois existem " + sessoesCount + " sessão(ões) associada(s) a ele.");
         }
         
         filmeRepository.deleteById(id);
+        catalogoCache.invalidar(CatalogoCache.FILMES);
+        buscaFilmesService.remover(id);
     }
 }
 
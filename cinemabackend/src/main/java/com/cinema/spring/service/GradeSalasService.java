@@ -0,0 +1,231 @@
+package com.cinema.spring.service;
+
+import com.cinema.spring.dto.HorarioLivreDTO;
+import com.cinema.spring.repository.SessaoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice de ocupação das salas: para cada sala, os intervalos das sessões
+ * (horário + duração do filme + limpeza) ordenados pelo início. Como os
+ * intervalos de uma sala não se sobrepõem, basta olhar o vizinho anterior e o
+ * seguinte para detectar conflito.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GradeSalasService {
+    private final SessaoRepository sessaoRepository;
+
+    @Value("${cinema.sessoes.intervalo-limpeza:PT15M}")
+    private Duration intervaloLimpeza;
+
+    private final ConcurrentHashMap<Long, Grade> grades = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Intervalo> porSessao = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reconstruir() {
+        List<SessaoRepository.HorarioSessao> horarios = sessaoRepository.findHorarios();
+        grades.clear();
+        porSessao.clear();
+        for (SessaoRepository.HorarioSessao horario : horarios) {
+            Intervalo intervalo = intervalo(horario.getSessao(), horario.getSala(), horario.getFilme(), horario.getHorario(),
+                    horario.getDuracao());
+            grade(intervalo.sala()).inserir(intervalo);
+            porSessao.put(intervalo.sessao(), intervalo);
+        }
+        log.info("Grade das salas carregada com {} sessão(ões)", horarios.size());
+    }
+
+    /**
+     * Ocupa a sala para a sessão, substituindo o intervalo anterior dela se
+     * houver. Lança IllegalStateException se o horário colidir com outra sessão.
+     * Se a transação corrente for revertida, o intervalo anterior é restaurado.
+     */
+    public void reservar(Long salaId, Long sessaoId, Long filmeId, LocalDateTime horario, Integer duracao) {
+        Optional<String> conflito = reservarSeLivre(salaId, sessaoId, filmeId, horario, duracao);
+        if (conflito.isPresent()) {
+            throw new IllegalStateException(conflito.get());
+        }
+    }
+
+    /**
+     * Como {@link #reservar}, mas devolve a mensagem do conflito em vez de
+     * lançar; nesse caso nada muda na grade.
+     */
+    public Optional<String> reservarSeLivre(Long salaId, Long sessaoId, Long filmeId, LocalDateTime horario, Integer duracao) {
+        Intervalo novo = intervalo(sessaoId, salaId, filmeId, horario, duracao);
+        Intervalo anterior = porSessao.get(sessaoId);
+        Intervalo conflito;
+        if (anterior != null && anterior.sala().equals(salaId)) {
+            conflito = grade(salaId).substituirSeLivre(anterior, novo);
+        } else {
+            conflito = grade(salaId).inserirSeLivre(novo);
+            if (conflito == null && anterior != null) {
+                grade(anterior.sala()).remover(anterior);
+            }
+        }
+        if (conflito != null) {
+            return Optional.of(mensagem(conflito));
+        }
+        porSessao.put(sessaoId, novo);
+        Transacoes.aoReverter(() -> {
+            grade(salaId).remover(novo);
+            if (anterior != null) {
+                grade(anterior.sala()).inserir(anterior);
+                porSessao.put(sessaoId, anterior);
+            } else {
+                porSessao.remove(sessaoId);
+            }
+        });
+        return Optional.empty();
+    }
+
+    /**
+     * Refaz os intervalos das sessões do filme com a nova duração, dentro da
+     * transação que altera o filme. Lança IllegalStateException se alguma
+     * sessão passar a colidir com outra; os intervalos já trocados voltam ao
+     * que eram quando a transação é revertida.
+     */
+    public void alterarDuracao(Long filmeId, Integer duracao) {
+        List<Intervalo> doFilme = porSessao.values().stream()
+                .filter(intervalo -> filmeId.equals(intervalo.filme()))
+                .toList();
+        for (Intervalo intervalo : doFilme) {
+            try {
+                reservar(intervalo.sala(), intervalo.sessao(), filmeId, intervalo.inicio(), duracao);
+            } catch (IllegalStateException e) {
+                throw new IllegalStateException("Com a nova duração, a sessão " + intervalo.sessao()
+                        + " colide com outra. " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Verifica, sem ocupar, se a sala comporta uma nova sessão no horário.
+     * Devolve a mensagem do conflito, se houver.
+     */
+    public Optional<String> conflito(Long salaId, LocalDateTime horario, Integer duracao) {
+        return Optional.ofNullable(grade(salaId).conflito(intervalo(null, salaId, null, horario, duracao)))
+                .map(GradeSalasService::mensagem);
+    }
+
+    public void remover(Long sessaoId) {
+        Transacoes.aposCommit(() -> {
+            Intervalo intervalo = porSessao.remove(sessaoId);
+            if (intervalo != null) {
+                grade(intervalo.sala()).remover(intervalo);
+            }
+        });
+    }
+
+    public List<HorarioLivreDTO> horariosLivres(Long salaId, LocalDate dia, Integer duracao) {
+        Duration minimo = duracao == null ? Duration.ZERO : Duration.ofMinutes(duracao).plus(intervaloLimpeza);
+        return grade(salaId).horariosLivres(dia.atStartOfDay(), dia.plusDays(1).atStartOfDay()).stream()
+                .filter(livre -> !Duration.between(livre.getInicio(), livre.getFim()).minus(minimo).isNegative())
+                .toList();
+    }
+
+    private Grade grade(Long salaId) {
+        return grades.computeIfAbsent(salaId, id -> new Grade());
+    }
+
+    private Intervalo intervalo(Long sessaoId, Long salaId, Long filmeId, LocalDateTime horario, Integer duracao) {
+        return new Intervalo(sessaoId, salaId, filmeId, horario, horario.plusMinutes(duracao == null ? 0 : duracao).plus(intervaloLimpeza));
+    }
+
+    private static String mensagem(Intervalo conflito) {
+        return "Sala ocupada pela sessão " + conflito.sessao()
+                + " entre " + conflito.inicio() + " e " + conflito.fim() + " (incluindo limpeza).";
+    }
+
+    private record Intervalo(Long sessao, Long sala, Long filme, LocalDateTime inicio, LocalDateTime fim) {
+    }
+
+    private static final class Grade {
+        private static final Comparator<Intervalo> ORDEM = Comparator
+                .comparing(Intervalo::inicio)
+                .thenComparing(Intervalo::sessao);
+
+        private final NavigableSet<Intervalo> intervalos = new TreeSet<>(ORDEM);
+
+        synchronized Intervalo inserirSeLivre(Intervalo novo) {
+            Intervalo conflito = conflito(novo);
+            if (conflito == null) {
+                intervalos.add(novo);
+            }
+            return conflito;
+        }
+
+        /**
+         * Troca o intervalo de uma sessão pelo novo de uma vez só, sem janela em
+         * que a sessão fique fora da grade. Se o novo colidir, o anterior fica.
+         */
+        synchronized Intervalo substituirSeLivre(Intervalo anterior, Intervalo novo) {
+            intervalos.remove(anterior);
+            Intervalo conflito = conflito(novo);
+            intervalos.add(conflito == null ? novo : anterior);
+            return conflito;
+        }
+
+        synchronized Intervalo conflito(Intervalo novo) {
+            Intervalo anterior = intervalos.floor(new Intervalo(Long.MAX_VALUE, null, null, novo.inicio(), novo.inicio()));
+            if (anterior != null && anterior.fim().isAfter(novo.inicio())) {
+                return anterior;
+            }
+            Intervalo seguinte = intervalos.higher(new Intervalo(Long.MAX_VALUE, null, null, novo.inicio(), novo.inicio()));
+            if (seguinte != null && seguinte.inicio().isBefore(novo.fim())) {
+                return seguinte;
+            }
+            return null;
+        }
+
+        synchronized void inserir(Intervalo intervalo) {
+            intervalos.add(intervalo);
+        }
+
+        synchronized void remover(Intervalo intervalo) {
+            intervalos.remove(intervalo);
+        }
+
+        synchronized List<HorarioLivreDTO> horariosLivres(LocalDateTime inicio, LocalDateTime fim) {
+            List<HorarioLivreDTO> livres = new ArrayList<>();
+            Intervalo limite = new Intervalo(Long.MIN_VALUE, null, null, inicio, inicio);
+            Intervalo primeiro = intervalos.lower(limite);
+            LocalDateTime cursor = inicio;
+            if (primeiro != null && primeiro.fim().isAfter(cursor)) {
+                cursor = primeiro.fim();
+            }
+            for (Intervalo intervalo : intervalos.tailSet(limite, true)) {
+                if (!intervalo.inicio().isBefore(fim)) {
+                    break;
+                }
+                if (intervalo.inicio().isAfter(cursor)) {
+                    livres.add(new HorarioLivreDTO(cursor, intervalo.inicio()));
+                }
+                if (intervalo.fim().isAfter(cursor)) {
+                    cursor = intervalo.fim();
+                }
+            }
+            if (cursor.isBefore(fim)) {
+                livres.add(new HorarioLivreDTO(cursor, fim));
+            }
+            return livres;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.cinema.spring.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicação por Idempotency-Key. A primeira requisição com uma chave
+ * registra um futuro no mapa (putIfAbsent atômico) e executa a operação;
+ * repetições dentro da janela, inclusive simultâneas, aguardam o mesmo futuro
+ * e recebem o mesmo resultado sem ir ao banco. Falhas não ficam registradas:
+ * a chave é liberada para uma nova tentativa. O armazenamento é limitado em
+ * tamanho e expira pela janela.
+ */
+@Service
+public class IdempotenciaService {
+    public static final int TAMANHO_MAXIMO_CHAVE = 255;
+
+    private final Cache<String, Registro> registros;
+
+    public IdempotenciaService(@Value("${cinema.idempotencia.janela:PT24H}") Duration janela,
+                               @Value("${cinema.idempotencia.capacidade:100000}") long capacidade) {
+        this.registros = Caffeine.newBuilder()
+                .expireAfterWrite(janela)
+                .maximumSize(capacidade)
+                .build();
+    }
+
+    /**
+     * Executa a operação uma única vez por (escopo, chave). Sem chave, apenas
+     * executa. Lança IllegalArgumentException se a chave for inválida ou já
+     * tiver sido usada com outra requisição.
+     */
+    public <T> Resultado<T> executar(String escopo, String chave, Object requisicao, Supplier<T> operacao) {
+        if (chave == null) {
+            return new Resultado<>(operacao.get(), false);
+        }
+        if (chave.isBlank() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            throw new IllegalArgumentException("Idempotency-Key deve ter entre 1 e " + TAMANHO_MAXIMO_CHAVE + " caracteres.");
+        }
+        String id = escopo + ':' + chave;
+        Registro novo = new Registro(requisicao, new CompletableFuture<>());
+        Registro existente = registros.asMap().putIfAbsent(id, novo);
+        if (existente != null) {
+            if (!Objects.equals(existente.requisicao(), requisicao)) {
+                throw new IllegalArgumentException("Idempotency-Key já utilizada com outra requisição.");
+            }
+            return new Resultado<>(aguardar(existente.resultado()), true);
+        }
+        try {
+            T valor = operacao.get();
+            novo.resultado().complete(valor);
+            return new Resultado<>(valor, false);
+        } catch (RuntimeException e) {
+            registros.asMap().remove(id, novo);
+            novo.resultado().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T aguardar(CompletableFuture<Object> resultado) {
+        try {
+            return (T) resultado.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    public record Resultado<T>(T valor, boolean repetido) {
+    }
+
+    private record Registro(Object requisicao, CompletableFuture<Object> resultado) {
+    }
+}
@@ -6,34 +6,53 @@ import com.cinema.spring.model.Sessao;
 import com.cinema.spring.repository.IngressoRepository;
 import com.cinema.spring.repository.SessaoRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class IngressoService {
     private final IngressoRepository ingressoRepository;
     private final SessaoRepository sessaoRepository;
+    private final PrecificacaoService precificacaoService;
+    private final ProgramacaoService programacaoService;
+    private final VendasService vendasService;
+    private final OcupacaoService ocupacaoService;
+    private final JsonMapper jsonMapper;
 
     public List<IngressoDTO> findAll() {
-        return ingressoRepository.findAll().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return ingressoRepository.findAllDTO();
+    }
+
+    public List<IngressoDTO> findPage(Long after, int limit) {
+        return ingressoRepository.findDTOPage(after == null ? 0L : after, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<IngressoDTO> consumidor) {
+        try (Stream<IngressoDTO> ingressos = ingressoRepository.streamAllDTO()) {
+            ingressos.forEach(consumidor);
+        }
     }
 
     public Optional<IngressoDTO> findById(Long id) {
-        return ingressoRepository.findById(id)
-                .map(this::toDTO);
+        return ingressoRepository.findDTOById(id);
     }
 
     @Transactional
     public IngressoDTO save(IngressoDTO dto) {
         Ingresso ingresso = toEntity(dto);
         Ingresso saved = ingressoRepository.save(ingresso);
+        precificacaoService.atualizarSessao(saved.getSessao().getId());
+        programacaoService.atualizarSessao(saved.getSessao().getId());
         return toDTO(saved);
     }
 
@@ -41,37 +60,69 @@ public class IngressoService {
     public Optional<IngressoDTO> update(Long id, IngressoDTO dto) {
         return ingressoRepository.findById(id)
                 .map(existing -> {
-                    Ingresso ingresso = toEntity(dto);
-                    ingresso.setId(id);
-                    Ingresso updated = ingressoRepository.save(ingresso);
-                    return toDTO(updated);
+                    Edicoes.conferirVersao(Ingresso.class, id, dto.getVersao(), existing.getVersao());
+                    Long sessaoAnterior = existing.getSessao().getId();
+                    aplicar(existing, dto);
+                    ingressoRepository.flush();
+                    precificacaoService.atualizarSessao(sessaoAnterior);
+                    precificacaoService.atualizarSessao(existing.getSessao().getId());
+                    programacaoService.atualizarSessao(sessaoAnterior);
+                    programacaoService.atualizarSessao(existing.getSessao().getId());
+                    if (!sessaoAnterior.equals(existing.getSessao().getId())) {
+                        vendasService.recalcularSessao(sessaoAnterior);
+                        vendasService.recalcularSessao(existing.getSessao().getId());
+                        ocupacaoService.recalcular(sessaoAnterior);
+                        ocupacaoService.recalcular(existing.getSessao().getId());
+                    }
+                    return toDTO(existing);
                 });
     }
 
+    @Transactional
+    public Optional<IngressoDTO> patch(Long id, JsonNode alteracoes) {
+        return ingressoRepository.findById(id)
+                .flatMap(existing -> update(id, Edicoes.mesclar(jsonMapper, toDTO(existing), alteracoes)));
+    }
+
+    @Transactional
     public void deleteById(Long id) {
+        ingressoRepository.findById(id)
+                .ifPresent(ingresso -> {
+                    precificacaoService.atualizarSessao(ingresso.getSessao().getId());
+                    programacaoService.atualizarSessao(ingresso.getSessao().getId());
+                });
         ingressoRepository.deleteById(id);
     }
 
     private IngressoDTO toDTO(Ingresso ingresso) {
         IngressoDTO dto = new IngressoDTO();
         dto.setId(ingresso.getId());
-        dto.setValorInteira(ingresso.getValorInteira());
-        dto.setValorMeia(ingresso.getValorMeia());
+        dto.setValorInteira(Dinheiro.reais(ingresso.getValorInteiraCentavos()));
+        dto.setValorMeia(Dinheiro.reais(ingresso.getValorMeiaCentavos()));
         dto.setSessao(ingresso.getSessao().getId());
+        dto.setVersao(ingresso.getVersao());
         return dto;
     }
 
     private Ingresso toEntity(IngressoDTO dto) {
         Ingresso ingresso = new Ingresso();
         ingresso.setId(dto.getId());
-        ingresso.setValorInteira(dto.getValorInteira());
-        ingresso.setValorMeia(dto.getValorMeia());
-        
-        Sessao sessao = sessaoRepository.findById(dto.getSessao())
-                .orElseThrow(() -> new RuntimeException("Sessão não encontrada com id: " + dto.getSessao()));
-        ingresso.setSessao(sessao);
-        
+        aplicar(ingresso, dto);
         return ingresso;
     }
+
+    /**
+     * Copia os campos do DTO para o ingresso; a sessão só é buscada se mudou.
+     */
+    private void aplicar(Ingresso ingresso, IngressoDTO dto) {
+        ingresso.setValorInteiraCentavos(Dinheiro.centavos(dto.getValorInteira()));
+        ingresso.setValorMeiaCentavos(Dinheiro.centavos(dto.getValorMeia()));
+        
+        if (ingresso.getSessao() == null || !ingresso.getSessao().getId().equals(dto.getSessao())) {
+            Sessao sessao = sessaoRepository.findById(dto.getSessao())
+                    .orElseThrow(() -> new RuntimeException("Sessão não encontrada com id: " + dto.getSessao()));
+            ingresso.setSessao(sessao);
+        }
+    }
 }
 
@@ -1,52 +1,150 @@
 package com.cinema.spring.service;
 
 import com.cinema.spring.model.LancheCombo;
-import com.cinema.spring.model.Pedido;
 import com.cinema.spring.repository.LancheComboRepository;
 import com.cinema.spring.repository.PedidoRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
 
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class LancheComboService {
+    private static final String TODOS = "todos";
+
     private final LancheComboRepository lancheComboRepository;
     private final PedidoRepository pedidoRepository;
 
+    private final CatalogoCache catalogoCache;
+    private final JsonMapper jsonMapper;
+
     public List<LancheCombo> findAll() {
-        return lancheComboRepository.findAll();
+        return new ArrayList<>(catalogo().values());
+    }
+
+    public List<LancheCombo> findPage(Long after, int limit) {
+        long inicio = after == null ? 0L : after;
+        return catalogo().values().stream()
+                .filter(lancheCombo -> lancheCombo.getId() > inicio)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    public void streamAll(Consumer<LancheCombo> consumidor) {
+        catalogo().values().forEach(consumidor);
     }
 
     public Optional<LancheCombo> findById(Long id) {
-        return lancheComboRepository.findById(id);
+        return Optional.ofNullable(catalogo().get(id));
+    }
+
+    /**
+     * Resolve os combos na ordem dos ids recebidos. Ids fora do catálogo em memória
+     * são buscados em uma única consulta; os que continuarem ausentes são
+     * reportados juntos.
+     */
+    public List<LancheCombo> findAllById(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, LancheCombo> itens = catalogo();
+        Map<Long, LancheCombo> encontrados = new HashMap<>();
+        List<Long> ausentes = new ArrayList<>();
+        for (Long id : ids) {
+            LancheCombo lancheCombo = id == null ? null : itens.get(id);
+            if (lancheCombo != null) {
+                encontrados.put(id, lancheCombo);
+            } else if (!ausentes.contains(id)) {
+                ausentes.add(id);
+            }
+        }
+
+        if (!ausentes.isEmpty()) {
+            lancheComboRepository.findAllById(ausentes.stream().filter(Objects::nonNull).toList())
+                    .forEach(lancheCombo -> encontrados.put(lancheCombo.getId(), lancheCombo));
+            List<Long> naoEncontrados = ausentes.stream()
+                    .filter(id -> !encontrados.containsKey(id))
+                    .toList();
+            if (!naoEncontrados.isEmpty()) {
+                throw new IllegalArgumentException("LancheCombo(s) não encontrado(s) com id(s): " + naoEncontrados);
+            }
+        }
+
+        return ids.stream()
+                .map(encontrados::get)
+                .collect(Collectors.toList());
     }
 
     public LancheCombo save(LancheCombo lancheCombo) {
-        return lancheComboRepository.save(lancheCombo);
+        LancheCombo saved = lancheComboRepository.save(lancheCombo);
+        invalidarCatalogo();
+        return saved;
+    }
+
+    @Transactional
+    public Optional<LancheCombo> update(Long id, LancheCombo lancheCombo) {
+        return lancheComboRepository.findById(id)
+                .map(existente -> {
+                    Edicoes.conferirVersao(LancheCombo.class, id, lancheCombo.getVersao(), existente.getVersao());
+                    existente.setNome(lancheCombo.getNome());
+                    existente.setDescricao(lancheCombo.getDescricao());
+                    existente.setValorUnitario(lancheCombo.getValorUnitario());
+                    existente.setQtUnidade(lancheCombo.getQtUnidade());
+                    existente.setSubtotal(lancheCombo.getSubtotal());
+                    lancheComboRepository.flush();
+                    invalidarCatalogo();
+                    return existente;
+                });
     }
 
-    public LancheCombo update(Long id, LancheCombo lancheCombo) {
-        lancheCombo.setId(id);
-        return lancheComboRepository.save(lancheCombo);
+    @Transactional
+    public Optional<LancheCombo> patch(Long id, JsonNode alteracoes) {
+        return lancheComboRepository.findById(id)
+                .flatMap(existente -> update(id, Edicoes.mesclar(jsonMapper, Edicoes.copia(jsonMapper, existente, LancheCombo.class), alteracoes)));
     }
 
     @Transactional
     public void deleteById(Long id) {
-        List<Pedido> pedidos = pedidoRepository.findAll();
-        long pedidosCount = pedidos.stream()
-                .filter(pedido -> pedido.getLancheCombos().stream()
-                        .anyMatch(lc -> lc.getId().equals(id)))
-                .count();
+        long pedidosCount = pedidoRepository.countByLancheComboId(id);
         
         if (pedidosCount > 0) {
             throw new RuntimeException("Não é possível excluir o lanche combo pois existem " + pedidosCount + " pedido(s) associado(s) a ele.");
         }
         
         lancheComboRepository.deleteById(id);
+        invalidarCatalogo();
     }
-}
 
+    public String etag() {
+        return catalogoCache.etag(CatalogoCache.LANCHE_COMBOS);
+    }
+
+    private Map<Long, LancheCombo> catalogo() {
+        return catalogoCache.get(CatalogoCache.LANCHE_COMBOS, TODOS, () -> {
+            Map<Long, LancheCombo> itens = new LinkedHashMap<>();
+            for (LancheCombo lancheCombo : lancheComboRepository.findAll(Sort.by("id"))) {
+                itens.put(lancheCombo.getId(), lancheCombo);
+            }
+            return Collections.unmodifiableMap(itens);
+        });
+    }
+
+    private void invalidarCatalogo() {
+        catalogoCache.invalidar(CatalogoCache.LANCHE_COMBOS);
+    }
+}
@@ -0,0 +1,219 @@
+package com.cinema.spring.service;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Estado dos assentos de uma sessão, fora do grafo de entidades.
+ * Cada assento ocupa um long: 2 bits de estado, 20 bits com a impressão da
+ * reserva e 42 bits com o instante (epoch millis) em que a reserva expira.
+ * Todas as transições são feitas com compareAndSet, sem locks.
+ * <p>
+ * A impressão é só um número interno para distinguir reservas no long; quem
+ * reservou recebe um token aleatório, e o mapa de reservas liga esse token à
+ * impressão e aos assentos reservados.
+ */
+public class MapaAssentos {
+    public static final int LIVRE = 0;
+    public static final int RESERVADO = 1;
+    public static final int VENDIDO = 2;
+
+    private static final int BITS_ESTADO = 2;
+    private static final int BITS_IMPRESSAO = 20;
+    private static final long MASCARA_ESTADO = (1L << BITS_ESTADO) - 1;
+    private static final long MASCARA_IMPRESSAO = (1L << BITS_IMPRESSAO) - 1;
+    private static final int DESLOCAMENTO_EXPIRACAO = BITS_ESTADO + BITS_IMPRESSAO;
+
+    private final int[] inicioFileira;
+    private final AtomicLongArray assentos;
+    private final AtomicInteger ultimaImpressao = new AtomicInteger();
+    private final ConcurrentHashMap<String, Reserva> reservas = new ConcurrentHashMap<>();
+
+    public MapaAssentos(int[] assentosPorFileira) {
+        this.inicioFileira = new int[assentosPorFileira.length + 1];
+        for (int i = 0; i < assentosPorFileira.length; i++) {
+            inicioFileira[i + 1] = inicioFileira[i] + assentosPorFileira[i];
+        }
+        this.assentos = new AtomicLongArray(inicioFileira[assentosPorFileira.length]);
+    }
+
+    public int fileiras() {
+        return inicioFileira.length - 1;
+    }
+
+    public int assentosNaFileira(int fileira) {
+        return inicioFileira[fileira + 1] - inicioFileira[fileira];
+    }
+
+    public int total() {
+        return assentos.length();
+    }
+
+    public boolean existe(int fileira, int numero) {
+        return fileira >= 0 && fileira < fileiras() && numero >= 0 && numero < assentosNaFileira(fileira);
+    }
+
+    public int indice(int fileira, int numero) {
+        if (!existe(fileira, numero)) {
+            throw new IllegalArgumentException("Assento inexistente: fileira " + fileira + ", número " + numero);
+        }
+        return inicioFileira[fileira] + numero;
+    }
+
+    public int fileira(int indice) {
+        int posicao = Arrays.binarySearch(inicioFileira, indice);
+        if (posicao < 0) {
+            return -posicao - 2;
+        }
+        while (posicao + 1 < inicioFileira.length - 1 && inicioFileira[posicao + 1] == indice) {
+            posicao++;
+        }
+        return posicao;
+    }
+
+    public int numero(int indice) {
+        return indice - inicioFileira[fileira(indice)];
+    }
+
+    public int estado(int indice, long agora) {
+        long valor = assentos.get(indice);
+        return disponivel(valor, agora) ? LIVRE : estado(valor);
+    }
+
+    /**
+     * Reserva todos os assentos ou nenhum. Retorna o token da reserva, ou null
+     * se algum assento já estiver reservado ou vendido.
+     */
+    public String reservar(int[] indices, long expiraEm, long agora) {
+        int impressao = novaImpressao();
+        long reservado = compactar(RESERVADO, impressao, expiraEm);
+        for (int i = 0; i < indices.length; i++) {
+            if (!tentarReservar(indices[i], reservado, agora)) {
+                for (int j = 0; j < i; j++) {
+                    assentos.compareAndSet(indices[j], reservado, LIVRE);
+                }
+                return null;
+            }
+        }
+        String token = UUID.randomUUID().toString();
+        reservas.put(token, new Reserva(impressao, indices.clone(), expiraEm));
+        return token;
+    }
+
+    /**
+     * Converte em venda os assentos da reserva com o token informado, que devem
+     * ser exatamente os assentos reservados. Se a reserva não existir, tiver
+     * expirado ou algum assento não pertencer mais a ela, nada é vendido.
+     * Retorna a reserva consumida, ou null se nada foi vendido.
+     */
+    public Reserva confirmar(String token, int[] indices, long agora) {
+        Reserva reserva = token == null ? null : reservas.get(token);
+        if (reserva == null || reserva.expiraEm() <= agora || !Arrays.equals(reserva.indices(), indices)
+                || !reservas.remove(token, reserva)) {
+            return null;
+        }
+        long reservado = compactar(RESERVADO, reserva.impressao(), reserva.expiraEm());
+        long vendido = compactar(VENDIDO, reserva.impressao(), 0);
+        for (int i = 0; i < indices.length; i++) {
+            if (!assentos.compareAndSet(indices[i], reservado, vendido)) {
+                for (int j = 0; j < i; j++) {
+                    assentos.compareAndSet(indices[j], vendido, reservado);
+                }
+                return null;
+            }
+        }
+        return reserva;
+    }
+
+    /**
+     * Devolve à reserva assentos vendidos por {@link #confirmar}, por exemplo
+     * quando o pedido que os vendeu não chega a ser gravado.
+     */
+    public void desfazerVenda(String token, Reserva reserva) {
+        long vendido = compactar(VENDIDO, reserva.impressao(), 0);
+        long reservado = compactar(RESERVADO, reserva.impressao(), reserva.expiraEm());
+        for (int indice : reserva.indices()) {
+            assentos.compareAndSet(indice, vendido, reservado);
+        }
+        reservas.put(token, reserva);
+    }
+
+    /**
+     * Marca como vendido um assento já gravado, ao montar o mapa a partir do banco.
+     */
+    public void marcarVendido(int indice) {
+        assentos.set(indice, compactar(VENDIDO, 0, 0));
+    }
+
+    /**
+     * Devolve ao estado livre um assento vendido, quando o pedido que o vendeu
+     * é excluído.
+     */
+    public void liberarVenda(int indice) {
+        long atual = assentos.get(indice);
+        if (estado(atual) == VENDIDO) {
+            assentos.compareAndSet(indice, atual, LIVRE);
+        }
+    }
+
+    /**
+     * Libera as reservas vencidas, informando o índice de cada assento liberado.
+     */
+    public void liberarExpirados(long agora, IntConsumer liberado) {
+        reservas.values().removeIf(reserva -> reserva.expiraEm() <= agora);
+        for (int indice = 0; indice < assentos.length(); indice++) {
+            long atual = assentos.get(indice);
+            if (estado(atual) == RESERVADO && expiraEm(atual) <= agora && assentos.compareAndSet(indice, atual, LIVRE)) {
+                liberado.accept(indice);
+            }
+        }
+    }
+
+    private boolean tentarReservar(int indice, long reservado, long agora) {
+        while (true) {
+            long atual = assentos.get(indice);
+            if (!disponivel(atual, agora)) {
+                return false;
+            }
+            if (assentos.compareAndSet(indice, atual, reservado)) {
+                return true;
+            }
+        }
+    }
+
+    private int novaImpressao() {
+        int impressao;
+        do {
+            impressao = (int) (ultimaImpressao.incrementAndGet() & MASCARA_IMPRESSAO);
+        } while (impressao == 0);
+        return impressao;
+    }
+
+    private static boolean disponivel(long valor, long agora) {
+        int estado = estado(valor);
+        return estado == LIVRE || (estado == RESERVADO && expiraEm(valor) <= agora);
+    }
+
+    private static long compactar(int estado, int impressao, long expiraEm) {
+        return (expiraEm << DESLOCAMENTO_EXPIRACAO) | ((impressao & MASCARA_IMPRESSAO) << BITS_ESTADO) | estado;
+    }
+
+    private static int estado(long valor) {
+        return (int) (valor & MASCARA_ESTADO);
+    }
+
+    private static long expiraEm(long valor) {
+        return valor >>> DESLOCAMENTO_EXPIRACAO;
+    }
+
+    /**
+     * Reserva em aberto: a impressão gravada nos assentos, os índices
+     * reservados (ordenados) e o instante em que ela expira.
+     */
+    public record Reserva(int impressao, int[] indices, long expiraEm) {
+    }
+}
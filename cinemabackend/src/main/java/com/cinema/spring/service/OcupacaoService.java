@@ -0,0 +1,173 @@
+package com.cinema.spring.service;
+
+import com.cinema.spring.dto.OcupacaoDTO;
+import com.cinema.spring.repository.SessaoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lotação das sessões. A fonte de verdade é sessoes.ingressos_vendidos,
+ * alterada só por um update condicional (vendidos + n <= capacidade), então
+ * duas vendas concorrentes nunca ultrapassam a capacidade. Na frente dele fica
+ * um contador atômico por sessão, carregado sob demanda: sessões lotadas são
+ * recusadas sem ir ao banco nem disputar o lock da linha. A coluna é
+ * recalculada a partir dos pedidos na inicialização, exceto com
+ * cinema.inicializacao.reconciliar=false.
+ * <p>
+ * Um contador carregado numa transação que já liberou ou recalculou lugares
+ * da sessão veria a alteração ainda não confirmada; nesse caso ele vale só
+ * para a transação e não é guardado.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OcupacaoService {
+    private final SessaoRepository sessaoRepository;
+
+    private final ConcurrentHashMap<Long, Contador> contadores = new ConcurrentHashMap<>();
+    private final Object alteradasNaTransacao = new Object();
+
+    @Transactional
+    @EventListener(value = ApplicationReadyEvent.class,
+            condition = "@environment.getProperty('cinema.inicializacao.reconciliar', 'true') == 'true'")
+    public void reconciliar() {
+        int sessoes = sessaoRepository.recalcularIngressosVendidos(null);
+        contadores.clear();
+        log.info("Lotação recalculada para {} sessão(ões)", sessoes);
+    }
+
+    /**
+     * Ocupa lugares na sessão dentro da transação corrente. Lança
+     * IllegalStateException se não houver lugares; se a transação for
+     * revertida, o contador em memória é restaurado.
+     */
+    public void ocupar(Long sessaoId, int quantidade) {
+        if (quantidade <= 0) {
+            return;
+        }
+        Contador contador = contador(sessaoId);
+        if (!contador.ocupar(quantidade)) {
+            throw lotada(sessaoId, contador.capacidade, contador.vendidos.get(), quantidade);
+        }
+        int atualizadas;
+        try {
+            atualizadas = sessaoRepository.ocupar(sessaoId, quantidade);
+        } catch (RuntimeException e) {
+            contador.liberar(quantidade);
+            throw e;
+        }
+        if (atualizadas == 0) {
+            contador.liberar(quantidade);
+            contadores.remove(sessaoId, contador);
+            throw lotada(sessaoId, contador.capacidade, null, quantidade);
+        }
+        Transacoes.aoReverter(() -> contador.liberar(quantidade));
+    }
+
+    /**
+     * Devolve lugares (pedido excluído ou alterado) dentro da transação
+     * corrente, de modo que uma alteração pode reaproveitá-los. Se a transação
+     * for revertida, o contador em memória volta ao valor anterior.
+     */
+    public void liberar(Long sessaoId, int quantidade) {
+        if (quantidade <= 0) {
+            return;
+        }
+        sessaoRepository.liberar(sessaoId, quantidade);
+        Contador contador = contadores.get(sessaoId);
+        if (contador != null) {
+            contador.liberar(quantidade);
+            Transacoes.aoReverter(() -> contador.vendidos.addAndGet(quantidade));
+        } else {
+            // Um contador carregado por outra transação antes do commit não contaria esta liberação.
+            Transacoes.<Long>conjunto(alteradasNaTransacao).add(sessaoId);
+            invalidar(sessaoId);
+        }
+    }
+
+    /**
+     * Recalcula os vendidos da sessão a partir dos pedidos, para quando
+     * ingressos mudam de sessão.
+     */
+    public void recalcular(Long sessaoId) {
+        sessaoRepository.recalcularIngressosVendidos(sessaoId);
+        Transacoes.<Long>conjunto(alteradasNaTransacao).add(sessaoId);
+        invalidar(sessaoId);
+    }
+
+    public void invalidar(Long sessaoId) {
+        Transacoes.aposCommit(() -> contadores.remove(sessaoId));
+    }
+
+    public void invalidarSala(Long salaId) {
+        Transacoes.aposCommit(() -> contadores.values().removeIf(contador -> contador.sala.equals(salaId)));
+    }
+
+    /**
+     * Ingressos vendidos da sessão segundo o contador em memória.
+     */
+    public int vendidos(Long sessaoId) {
+        return contador(sessaoId).vendidos.get();
+    }
+
+    public List<OcupacaoDTO> findByData(LocalDate data) {
+        return sessaoRepository.findOcupacao(data.atStartOfDay(), data.plusDays(1).atStartOfDay());
+    }
+
+    private Contador contador(Long sessaoId) {
+        Contador contador = contadores.get(sessaoId);
+        if (contador != null) {
+            return contador;
+        }
+        Contador carregado = sessaoRepository.findLotacao(sessaoId)
+                .map(lotacao -> new Contador(lotacao.getSala(), lotacao.getCapacidade(), lotacao.getIngressosVendidos()))
+                .orElseThrow(() -> new IllegalArgumentException("Sessão não encontrada com id: " + sessaoId));
+        if (Transacoes.<Long>conjunto(alteradasNaTransacao).contains(sessaoId)) {
+            return carregado;
+        }
+        Contador existente = contadores.putIfAbsent(sessaoId, carregado);
+        return existente != null ? existente : carregado;
+    }
+
+    private static IllegalStateException lotada(Long sessaoId, int capacidade, Integer vendidos, int quantidade) {
+        String disponiveis = vendidos == null ? "" : " Lugares disponíveis: " + Math.max(0, capacidade - vendidos) + ".";
+        return new IllegalStateException("Sessão " + sessaoId + " sem lugares para " + quantidade + " ingresso(s)."
+                + disponiveis);
+    }
+
+    private static final class Contador {
+        private final Long sala;
+        private final int capacidade;
+        private final AtomicInteger vendidos;
+
+        Contador(Long sala, int capacidade, int vendidos) {
+            this.sala = sala;
+            this.capacidade = capacidade;
+            this.vendidos = new AtomicInteger(vendidos);
+        }
+
+        boolean ocupar(int quantidade) {
+            int atual;
+            do {
+                atual = vendidos.get();
+                if (atual + quantidade > capacidade) {
+                    return false;
+                }
+            } while (!vendidos.compareAndSet(atual, atual + quantidade));
+            return true;
+        }
+
+        void liberar(int quantidade) {
+            vendidos.addAndGet(-quantidade);
+        }
+    }
+}
@@ -5,38 +5,78 @@ import com.cinema.spring.model.Ingresso;
 import com.cinema.spring.model.LancheCombo;
 import com.cinema.spring.model.Pedido;
 import com.cinema.spring.repository.IngressoRepository;
-import com.cinema.spring.repository.LancheComboRepository;
 import com.cinema.spring.repository.PedidoRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class PedidoService {
+    private static final int BLOCO_STREAM = 500;
+
     private final PedidoRepository pedidoRepository;
     private final IngressoRepository ingressoRepository;
-    private final LancheComboRepository lancheComboRepository;
+    private final LancheComboService lancheComboService;
+    private final ProgramacaoService programacaoService;
+    private final AssentoService assentoService;
+    private final VendasService vendasService;
+    private final OcupacaoService ocupacaoService;
+    private final PrecificacaoService precificacaoService;
+    private final JsonMapper jsonMapper;
 
     public List<PedidoDTO> findAll() {
-        return pedidoRepository.findAll().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return completarLancheCombos(toDTOs(pedidoRepository.findAllResumos()), pedidoRepository.findAllLancheCombos());
+    }
+
+    public List<PedidoDTO> findPage(Long after, int limit) {
+        return completarLancheCombos(toDTOs(pedidoRepository.findResumoPage(after == null ? 0L : after, Limit.of(limit))));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<PedidoDTO> consumidor) {
+        List<PedidoDTO> bloco = new ArrayList<>(BLOCO_STREAM);
+        try (Stream<PedidoRepository.PedidoResumo> pedidos = pedidoRepository.streamAllResumos()) {
+            pedidos.forEach(pedido -> {
+                bloco.add(toDTO(pedido));
+                if (bloco.size() == BLOCO_STREAM) {
+                    completarLancheCombos(bloco).forEach(consumidor);
+                    bloco.clear();
+                }
+            });
+        }
+        completarLancheCombos(bloco).forEach(consumidor);
     }
 
     public Optional<PedidoDTO> findById(Long id) {
-        return pedidoRepository.findById(id)
-                .map(this::toDTO);
+        return pedidoRepository.findResumoById(id)
+                .map(resumo -> completarLancheCombos(List.of(toDTO(resumo))).get(0));
     }
 
     @Transactional
     public PedidoDTO save(PedidoDTO dto) {
         Pedido pedido = toEntity(dto);
+        ocupacaoService.ocupar(pedido.getIngresso().getSessao().getId(), ingressos(pedido));
         Pedido saved = pedidoRepository.save(pedido);
+        if (dto.getReserva() != null) {
+            assentoService.confirmarNaTransacao(saved.getIngresso().getSessao().getId(), saved.getId(), dto.getReserva(),
+                    saved.getIngressosMeiaQtd() + saved.getIngressosInteiraQtd());
+        }
+        programacaoService.registrarVenda(saved.getIngresso().getSessao().getId());
+        vendasService.registrar(saved, 1);
         return toDTO(saved);
     }
 
@@ -44,17 +84,116 @@ public class PedidoService {
     public Optional<PedidoDTO> update(Long id, PedidoDTO dto) {
         return pedidoRepository.findById(id)
                 .map(existing -> {
-                    Pedido pedido = toEntity(dto);
-                    pedido.setId(id);
-                    Pedido updated = pedidoRepository.save(pedido);
-                    return toDTO(updated);
+                    Edicoes.conferirVersao(Pedido.class, id, dto.getVersao(), existing.getVersao());
+                    Long sessaoAnterior = existing.getIngresso().getSessao().getId();
+                    boolean mesmaLotacao = existing.getIngresso().getId().equals(dto.getIngresso())
+                            && existing.getIngressosMeiaQtd().equals(dto.getIngressosMeiaQtd())
+                            && existing.getIngressosInteiraQtd().equals(dto.getIngressosInteiraQtd());
+                    vendasService.registrar(existing, -1);
+                    if (!mesmaLotacao) {
+                        ocupacaoService.liberar(sessaoAnterior, ingressos(existing));
+                    }
+                    aplicar(existing, dto, mesmaLotacao ? ingressos(existing) : 0);
+                    if (!mesmaLotacao) {
+                        ocupacaoService.ocupar(existing.getIngresso().getSessao().getId(), ingressos(existing));
+                    }
+                    if (!sessaoAnterior.equals(existing.getIngresso().getSessao().getId())) {
+                        assentoService.liberarDoPedido(id);
+                    }
+                    pedidoRepository.flush();
+                    vendasService.registrar(existing, 1);
+                    programacaoService.atualizarSessao(sessaoAnterior);
+                    programacaoService.atualizarSessao(existing.getIngresso().getSessao().getId());
+                    return toDTO(existing);
                 });
     }
 
+    @Transactional
+    public Optional<PedidoDTO> patch(Long id, JsonNode alteracoes) {
+        return pedidoRepository.findById(id)
+                .flatMap(existing -> update(id, Edicoes.mesclar(jsonMapper, toDTO(existing), alteracoes)));
+    }
+
+    @Transactional
     public void deleteById(Long id) {
+        pedidoRepository.findById(id)
+                .ifPresent(pedido -> {
+                    programacaoService.atualizarSessao(pedido.getIngresso().getSessao().getId());
+                    vendasService.registrar(pedido, -1);
+                    ocupacaoService.liberar(pedido.getIngresso().getSessao().getId(), ingressos(pedido));
+                    assentoService.liberarDoPedido(id);
+                });
         pedidoRepository.deleteById(id);
     }
 
+    public double calcularValorTotal(Ingresso ingresso, Integer ingressosMeiaQtd, Integer ingressosInteiraQtd, List<LancheCombo> lancheCombos) {
+        return calcularValorTotal(ingresso, ingressosMeiaQtd, ingressosInteiraQtd, lancheCombos, 0);
+    }
+
+    /**
+     * Cota o pedido pela faixa de ocupação atual da sessão, desconsiderando os
+     * {@code proprios} ingressos que já contam na ocupação mas são do próprio
+     * pedido que está sendo recotado.
+     */
+    private double calcularValorTotal(Ingresso ingresso, Integer ingressosMeiaQtd, Integer ingressosInteiraQtd,
+                                      List<LancheCombo> lancheCombos, int proprios) {
+        if (ingressosMeiaQtd == null || ingressosMeiaQtd < 0 || ingressosInteiraQtd == null || ingressosInteiraQtd < 0) {
+            throw new IllegalArgumentException("Quantidades de ingressos meia e inteira devem ser informadas e não negativas.");
+        }
+        long meia = ingresso.getValorMeiaCentavos();
+        long inteira = ingresso.getValorInteiraCentavos();
+        if (ingresso.getSessao() != null) {
+            long sessaoId = ingresso.getSessao().getId();
+            int vendidos = Math.max(0, ocupacaoService.vendidos(sessaoId) - proprios);
+            long cotadaMeia = precificacaoService.meia(sessaoId, vendidos);
+            long cotadaInteira = precificacaoService.inteira(sessaoId, vendidos);
+            if (cotadaMeia != PrecificacaoService.SEM_PRECO && cotadaInteira != PrecificacaoService.SEM_PRECO) {
+                meia = cotadaMeia;
+                inteira = cotadaInteira;
+            }
+        }
+        long centavos = ingressosMeiaQtd * meia + ingressosInteiraQtd * inteira;
+        for (LancheCombo lancheCombo : lancheCombos) {
+            centavos += Dinheiro.centavos(lancheCombo.getSubtotal());
+        }
+        return Dinheiro.reais(centavos);
+    }
+
+    private static int ingressos(Pedido pedido) {
+        return pedido.getIngressosMeiaQtd() + pedido.getIngressosInteiraQtd();
+    }
+
+    private List<PedidoDTO> completarLancheCombos(List<PedidoDTO> pedidos) {
+        if (pedidos.isEmpty()) {
+            return pedidos;
+        }
+        List<Long> ids = pedidos.stream().map(PedidoDTO::getId).toList();
+        return completarLancheCombos(pedidos, pedidoRepository.findLancheCombos(ids));
+    }
+
+    private static List<PedidoDTO> completarLancheCombos(List<PedidoDTO> pedidos, List<PedidoRepository.PedidoLancheCombo> itens) {
+        Map<Long, PedidoDTO> porId = new HashMap<>();
+        pedidos.forEach(pedido -> porId.put(pedido.getId(), pedido));
+        for (PedidoRepository.PedidoLancheCombo item : itens) {
+            PedidoDTO pedido = porId.get(item.getPedido());
+            if (pedido != null) {
+                pedido.getLancheCombos().add(item.getLancheCombo());
+            }
+        }
+        return pedidos;
+    }
+
+    private static List<PedidoDTO> toDTOs(List<PedidoRepository.PedidoResumo> resumos) {
+        List<PedidoDTO> pedidos = new ArrayList<>(resumos.size());
+        resumos.forEach(resumo -> pedidos.add(toDTO(resumo)));
+        return pedidos;
+    }
+
+    private static PedidoDTO toDTO(PedidoRepository.PedidoResumo resumo) {
+        return new PedidoDTO(resumo.getId(), resumo.getDataHora(), resumo.getIngressosMeiaQtd(), resumo.getIngressosInteiraQtd(),
+                resumo.getIngresso(), new ArrayList<>(), resumo.getValorTotal(), resumo.getMetodoPagamento(), resumo.getVersao(), null);
+    }
+
     private PedidoDTO toDTO(Pedido pedido) {
         PedidoDTO dto = new PedidoDTO();
         dto.setId(pedido.getId());
@@ -67,29 +206,50 @@ public class PedidoService {
                 .collect(Collectors.toList()));
         dto.setValorTotal(pedido.getValorTotal());
         dto.setMetodoPagamento(pedido.getMetodoPagamento());
+        dto.setVersao(pedido.getVersao());
         return dto;
     }
 
     private Pedido toEntity(PedidoDTO dto) {
         Pedido pedido = new Pedido();
         pedido.setId(dto.getId());
+        aplicar(pedido, dto, 0);
+        return pedido;
+    }
+
+    /**
+     * Copia os campos do DTO para o pedido; o ingresso só é buscado e os
+     * combos só são trocados se mudaram. O total só é recotado quando muda o
+     * ingresso, as quantidades ou os combos; nos demais casos o valor cobrado
+     * continua o gravado. {@code proprios} são os ingressos do pedido que
+     * ainda contam na ocupação da sessão.
+     */
+    private void aplicar(Pedido pedido, PedidoDTO dto, int proprios) {
+        boolean recotar = pedido.getIngresso() == null
+                || !pedido.getIngresso().getId().equals(dto.getIngresso())
+                || !Objects.equals(pedido.getIngressosMeiaQtd(), dto.getIngressosMeiaQtd())
+                || !Objects.equals(pedido.getIngressosInteiraQtd(), dto.getIngressosInteiraQtd());
         pedido.setDataHora(dto.getDataHora());
         pedido.setIngressosMeiaQtd(dto.getIngressosMeiaQtd());
         pedido.setIngressosInteiraQtd(dto.getIngressosInteiraQtd());
         
-        Ingresso ingresso = ingressoRepository.findById(dto.getIngresso())
-                .orElseThrow(() -> new RuntimeException("Ingresso não encontrado com id: " + dto.getIngresso()));
-        pedido.setIngresso(ingresso);
+        if (pedido.getIngresso() == null || !pedido.getIngresso().getId().equals(dto.getIngresso())) {
+            Ingresso ingresso = ingressoRepository.findById(dto.getIngresso())
+                    .orElseThrow(() -> new IllegalArgumentException("Ingresso não encontrado com id: " + dto.getIngresso()));
+            pedido.setIngresso(ingresso);
+        }
         
-        List<LancheCombo> lancheCombos = dto.getLancheCombos().stream()
-                .map(id -> lancheComboRepository.findById(id)
-                        .orElseThrow(() -> new RuntimeException("LancheCombo não encontrado com id: " + id)))
-                .collect(Collectors.toList());
-        pedido.setLancheCombos(lancheCombos);
+        List<Long> combos = dto.getLancheCombos() == null ? List.of() : dto.getLancheCombos();
+        if (!combos.equals(pedido.getLancheCombos().stream().map(LancheCombo::getId).toList())) {
+            pedido.setLancheCombos(lancheComboService.findAllById(dto.getLancheCombos()));
+            recotar = true;
+        }
         
-        pedido.setValorTotal(dto.getValorTotal());
+        if (recotar) {
+            pedido.setValorTotal(calcularValorTotal(pedido.getIngresso(), dto.getIngressosMeiaQtd(), dto.getIngressosInteiraQtd(),
+                    pedido.getLancheCombos(), proprios));
+        }
         pedido.setMetodoPagamento(dto.getMetodoPagamento());
-        return pedido;
     }
 }
 
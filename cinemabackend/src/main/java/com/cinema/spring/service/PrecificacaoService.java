@@ -0,0 +1,379 @@
+package com.cinema.spring.service;
+
+import com.cinema.spring.dto.BasePrecoDTO;
+import com.cinema.spring.dto.RegrasPrecoDTO;
+import com.cinema.spring.repository.IngressoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Motor de preços. As regras são compiladas, para cada sessão, em uma tabela
+ * imutável em centavos: os ajustes que não mudam (dia da semana, horário, tipo
+ * de sala, estreia) já entram somados, e sobra uma linha por faixa de ocupação
+ * com o número de ingressos vendidos a partir do qual ela vale. Todas as
+ * sessões ficam em um único {@link TabelaPrecos} com endereçamento aberto por
+ * id, trocado inteiro quando regras, sessões, ingressos, filmes ou salas mudam;
+ * a cotação é uma sondagem no vetor de chaves e uma busca binária nas faixas,
+ * sem alocar e sem ir ao banco.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PrecificacaoService {
+    public static final long SEM_PRECO = -1;
+
+    private final IngressoRepository ingressoRepository;
+    private final JsonMapper jsonMapper;
+
+    @Value("${cinema.precos.arquivo:}")
+    private String arquivoRegras;
+
+    private final ConcurrentHashMap<Long, BasePrecoDTO> bases = new ConcurrentHashMap<>();
+    private volatile Regras regras = Regras.compilar(padrao());
+    private volatile TabelaPrecos tabela = TabelaPrecos.VAZIA;
+
+    @Order(0)
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reconstruir() {
+        Path arquivo = arquivo();
+        if (arquivo != null && Files.exists(arquivo)) {
+            regras = Regras.compilar(validar(jsonMapper.readValue(arquivo.toFile(), RegrasPrecoDTO.class)));
+            log.info("Regras de preço carregadas de {}", arquivo);
+        }
+        List<BasePrecoDTO> linhas = ingressoRepository.findBasesPreco(null, null, null);
+        bases.clear();
+        linhas.forEach(base -> bases.put(base.getSessao(), base));
+        compilar();
+        log.info("Tabela de preços compilada para {} sessão(ões)", linhas.size());
+    }
+
+    /**
+     * Carrega as bases informadas e recompila, sem consultar o banco.
+     */
+    public synchronized void carregar(Collection<BasePrecoDTO> novas) {
+        novas.forEach(base -> bases.put(base.getSessao(), base));
+        compilar();
+    }
+
+    public RegrasPrecoDTO regras() {
+        return regras.origem;
+    }
+
+    /**
+     * Troca as regras e recompila as tabelas de todas as sessões a partir das
+     * bases em memória. Lança IllegalArgumentException se as regras forem
+     * inválidas.
+     */
+    public synchronized void definirRegras(RegrasPrecoDTO novas) {
+        Regras compiladas = Regras.compilar(validar(novas));
+        Path arquivo = arquivo();
+        if (arquivo != null) {
+            try {
+                Files.createDirectories(arquivo.toAbsolutePath().getParent());
+                Files.write(arquivo, jsonMapper.writeValueAsBytes(compiladas.origem));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Não foi possível gravar as regras de preço em " + arquivo, e);
+            }
+        }
+        regras = compiladas;
+        compilar();
+        log.info("Regras de preço atualizadas; {} sessão(ões) recompilada(s)", bases.size());
+    }
+
+    public long inteiraPadrao() {
+        return regras.inteira;
+    }
+
+    public long meiaPadrao() {
+        return regras.meia;
+    }
+
+    /**
+     * Preço da inteira em centavos para a sessão com {@code vendidos}
+     * ingressos já vendidos, ou {@link #SEM_PRECO} se a sessão não tem tabela.
+     */
+    public long inteira(long sessaoId, int vendidos) {
+        TabelaPrecos atual = tabela;
+        int sessao = atual.indice(sessaoId);
+        return sessao < 0 ? SEM_PRECO : atual.inteira[atual.posicao(sessao, vendidos)];
+    }
+
+    /**
+     * Preço da meia em centavos, como em {@link #inteira(long, int)}.
+     */
+    public long meia(long sessaoId, int vendidos) {
+        TabelaPrecos atual = tabela;
+        int sessao = atual.indice(sessaoId);
+        return sessao < 0 ? SEM_PRECO : atual.meia[atual.posicao(sessao, vendidos)];
+    }
+
+    public void atualizarSessao(Long sessaoId) {
+        Transacoes.aposCommit(() -> recarregar(sessaoId, null, null));
+    }
+
+    public void atualizarFilme(Long filmeId) {
+        Transacoes.aposCommit(() -> recarregar(null, filmeId, null));
+    }
+
+    public void atualizarSala(Long salaId) {
+        Transacoes.aposCommit(() -> recarregar(null, null, salaId));
+    }
+
+    public void removerSessao(Long sessaoId) {
+        Transacoes.aposCommit(() -> {
+            synchronized (this) {
+                if (bases.remove(sessaoId) != null) {
+                    compilar();
+                }
+            }
+        });
+    }
+
+    private synchronized void recarregar(Long sessaoId, Long filmeId, Long salaId) {
+        if (sessaoId != null) {
+            bases.remove(sessaoId);
+        }
+        ingressoRepository.findBasesPreco(sessaoId, filmeId, salaId)
+                .forEach(base -> bases.put(base.getSessao(), base));
+        compilar();
+    }
+
+    private void compilar() {
+        tabela = TabelaPrecos.compilar(bases.values(), regras);
+    }
+
+    private Path arquivo() {
+        return arquivoRegras == null || arquivoRegras.isBlank() ? null : Path.of(arquivoRegras);
+    }
+
+    private static RegrasPrecoDTO padrao() {
+        return new RegrasPrecoDTO(2000L, 1000L, Map.of(), List.of(), Map.of(), 0, 0, List.of());
+    }
+
+    private static RegrasPrecoDTO validar(RegrasPrecoDTO regras) {
+        if (regras == null || regras.getInteiraCentavos() == null || regras.getMeiaCentavos() == null
+                || regras.getInteiraCentavos() < 0 || regras.getMeiaCentavos() < 0) {
+            throw new IllegalArgumentException("Informe inteiraCentavos e meiaCentavos, não negativos.");
+        }
+        if (regras.getDiasEstreia() != null && regras.getDiasEstreia() < 0) {
+            throw new IllegalArgumentException("diasEstreia não pode ser negativo.");
+        }
+        if (regras.getHorarios() != null) {
+            for (RegrasPrecoDTO.FaixaHorario faixa : regras.getHorarios()) {
+                if (faixa == null || faixa.getInicio() == null || faixa.getFim() == null || faixa.getPercentual() == null) {
+                    throw new IllegalArgumentException("Faixas de horário precisam de inicio, fim e percentual.");
+                }
+            }
+        }
+        if (regras.getOcupacao() != null) {
+            HashSet<Integer> vistas = new HashSet<>();
+            for (RegrasPrecoDTO.FaixaOcupacao faixa : regras.getOcupacao()) {
+                if (faixa == null || faixa.getOcupacao() == null || faixa.getPercentual() == null
+                        || faixa.getOcupacao() <= 0 || faixa.getOcupacao() > 100 || !vistas.add(faixa.getOcupacao())) {
+                    throw new IllegalArgumentException("Faixas de ocupação precisam de ocupacao (1 a 100, sem repetir) e percentual.");
+                }
+            }
+        }
+        return regras;
+    }
+
+    /**
+     * Regras já em arrays, prontas para compilar as sessões.
+     */
+    private static final class Regras {
+        private final RegrasPrecoDTO origem;
+        private final long inteira;
+        private final long meia;
+        private final int[] porDia = new int[7];
+        private final int[] horarioInicio;
+        private final int[] horarioFim;
+        private final int[] horarioPercentual;
+        private final Map<String, Integer> porTipoSala = new HashMap<>();
+        private final int diasEstreia;
+        private final int percentualEstreia;
+        private final int[] ocupacao;
+        private final int[] ocupacaoPercentual;
+
+        private Regras(RegrasPrecoDTO origem) {
+            this.origem = origem;
+            inteira = origem.getInteiraCentavos();
+            meia = origem.getMeiaCentavos();
+            if (origem.getDiasSemana() != null) {
+                origem.getDiasSemana().forEach((dia, percentual) -> porDia[dia.ordinal()] = percentual == null ? 0 : percentual);
+            }
+            List<RegrasPrecoDTO.FaixaHorario> horarios = origem.getHorarios() == null ? List.of() : origem.getHorarios();
+            horarioInicio = new int[horarios.size()];
+            horarioFim = new int[horarios.size()];
+            horarioPercentual = new int[horarios.size()];
+            for (int i = 0; i < horarios.size(); i++) {
+                horarioInicio[i] = horarios.get(i).getInicio().toSecondOfDay();
+                horarioFim[i] = horarios.get(i).getFim().toSecondOfDay();
+                horarioPercentual[i] = horarios.get(i).getPercentual();
+            }
+            if (origem.getTiposSala() != null) {
+                origem.getTiposSala().forEach((tipo, percentual) ->
+                        porTipoSala.put(tipo.toUpperCase(Locale.ROOT), percentual == null ? 0 : percentual));
+            }
+            diasEstreia = origem.getDiasEstreia() == null ? 0 : origem.getDiasEstreia();
+            percentualEstreia = origem.getPercentualEstreia() == null ? 0 : origem.getPercentualEstreia();
+            List<RegrasPrecoDTO.FaixaOcupacao> faixas = new ArrayList<>(origem.getOcupacao() == null ? List.of() : origem.getOcupacao());
+            faixas.sort(Comparator.comparing(RegrasPrecoDTO.FaixaOcupacao::getOcupacao));
+            ocupacao = faixas.stream().mapToInt(RegrasPrecoDTO.FaixaOcupacao::getOcupacao).toArray();
+            ocupacaoPercentual = faixas.stream().mapToInt(RegrasPrecoDTO.FaixaOcupacao::getPercentual).toArray();
+        }
+
+        static Regras compilar(RegrasPrecoDTO origem) {
+            return new Regras(origem);
+        }
+
+        /**
+         * Soma dos ajustes que não dependem da ocupação.
+         */
+        int percentualFixo(BasePrecoDTO base) {
+            LocalDateTime horario = base.getHorario();
+            int percentual = porDia[horario.getDayOfWeek().ordinal()];
+            int segundo = horario.toLocalTime().toSecondOfDay();
+            for (int i = 0; i < horarioInicio.length; i++) {
+                boolean dentro = horarioInicio[i] < horarioFim[i]
+                        ? segundo >= horarioInicio[i] && segundo < horarioFim[i]
+                        : segundo >= horarioInicio[i] || segundo < horarioFim[i];
+                if (dentro) {
+                    percentual += horarioPercentual[i];
+                }
+            }
+            if (base.getTipoSala() != null) {
+                percentual += porTipoSala.getOrDefault(base.getTipoSala().toUpperCase(Locale.ROOT), 0);
+            }
+            if (base.getEstreia() != null && horario.toLocalDate().isBefore(base.getEstreia().plusDays(diasEstreia))) {
+                percentual += percentualEstreia;
+            }
+            return percentual;
+        }
+    }
+
+    /**
+     * Tabelas de todas as sessões em arrays planos. A sessão no índice
+     * {@code s} ocupa {@code faixas} posições em {@code inteira}/{@code meia}
+     * e {@code faixas - 1} em {@code limites} (vendidos a partir dos quais
+     * cada faixa de ocupação vale, em ordem crescente).
+     */
+    static final class TabelaPrecos {
+        static final TabelaPrecos VAZIA = new TabelaPrecos(new long[1], new int[1], 1, new int[0], new long[0], new long[0]);
+
+        private final long[] chaves;
+        private final int[] indices;
+        private final int mascara;
+        private final int faixas;
+        private final int[] limites;
+        private final long[] inteira;
+        private final long[] meia;
+
+        private TabelaPrecos(long[] chaves, int[] indices, int faixas, int[] limites, long[] inteira, long[] meia) {
+            this.chaves = chaves;
+            this.indices = indices;
+            this.mascara = chaves.length - 1;
+            this.faixas = faixas;
+            this.limites = limites;
+            this.inteira = inteira;
+            this.meia = meia;
+        }
+
+        static TabelaPrecos compilar(Collection<BasePrecoDTO> bases, Regras regras) {
+            int sessoes = bases.size();
+            int faixas = regras.ocupacao.length + 1;
+            int capacidade = Integer.highestOneBit(Math.max(2, sessoes * 2 - 1)) << 1;
+            long[] chaves = new long[capacidade];
+            int[] indices = new int[capacidade];
+            int[] limites = new int[sessoes * (faixas - 1)];
+            long[] inteira = new long[sessoes * faixas];
+            long[] meia = new long[sessoes * faixas];
+
+            int sessao = 0;
+            for (BasePrecoDTO base : bases) {
+                int posicao = espalhar(base.getSessao()) & (capacidade - 1);
+                while (chaves[posicao] != 0) {
+                    posicao = (posicao + 1) & (capacidade - 1);
+                }
+                chaves[posicao] = base.getSessao();
+                indices[posicao] = sessao;
+
+                int fixo = regras.percentualFixo(base);
+                int lugares = base.getCapacidade() == null ? 0 : base.getCapacidade();
+                for (int faixa = 0; faixa < faixas; faixa++) {
+                    int percentual = fixo + (faixa == 0 ? 0 : regras.ocupacaoPercentual[faixa - 1]);
+                    inteira[sessao * faixas + faixa] = aplicar(base.getValorInteiraCentavos(), percentual);
+                    meia[sessao * faixas + faixa] = aplicar(base.getValorMeiaCentavos(), percentual);
+                    if (faixa > 0) {
+                        limites[sessao * (faixas - 1) + faixa - 1] = (int) ((lugares * (long) regras.ocupacao[faixa - 1] + 99) / 100);
+                    }
+                }
+                sessao++;
+            }
+            return new TabelaPrecos(chaves, indices, faixas, limites, inteira, meia);
+        }
+
+        int indice(long sessaoId) {
+            int posicao = espalhar(sessaoId) & mascara;
+            while (true) {
+                long chave = chaves[posicao];
+                if (chave == sessaoId) {
+                    return indices[posicao];
+                }
+                if (chave == 0) {
+                    return -1;
+                }
+                posicao = (posicao + 1) & mascara;
+            }
+        }
+
+        /**
+         * Posição do preço da sessão para {@code vendidos}: a faixa é o número
+         * de limites já atingidos, achado por busca binária.
+         */
+        int posicao(int sessao, int vendidos) {
+            int inicio = sessao * (faixas - 1);
+            int baixo = inicio;
+            int alto = inicio + faixas - 1;
+            while (baixo < alto) {
+                int meio = (baixo + alto) >>> 1;
+                if (limites[meio] <= vendidos) {
+                    baixo = meio + 1;
+                } else {
+                    alto = meio;
+                }
+            }
+            return sessao * faixas + (baixo - inicio);
+        }
+
+        private static long aplicar(Long base, int percentual) {
+            long valor = base == null ? 0 : base;
+            return Math.max(0, Math.floorDiv(valor * (100 + percentual) + 50, 100));
+        }
+
+        private static int espalhar(long id) {
+            long h = id * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.cinema.spring.service;
+
+import com.cinema.spring.dto.ProgramacaoDTO;
+import com.cinema.spring.repository.SessaoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Programação ("em cartaz") mantida em memória por data. Cada dia guarda uma
+ * lista imutável já ordenada, trocada inteira a cada alteração, de modo que a
+ * leitura é um único get no mapa. Os valores exibidos são a cotação do
+ * {@link PrecificacaoService} para os ingressos já vendidos, refeita a cada
+ * venda e quando as regras de preço mudam.
+ * <p>
+ * Cada sessão aparece uma única vez: gravar uma linha substitui a anterior da
+ * mesma sessão dentro do mesmo compute, então recargas concorrentes não
+ * duplicam a sessão no dia. Após uma venda, os vendidos vêm do contador do
+ * {@link OcupacaoService} em vez de somados à linha, para que uma recarga que
+ * já leu a venda do banco não a conte duas vezes.
+ * <p>
+ * Só os dias de hoje em diante ficam em memória: na virada do dia, no mesmo
+ * agendamento da agenda de sessões, os dias passados são descartados, e uma
+ * consulta a um deles vai ao banco.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProgramacaoService {
+    private static final Comparator<ProgramacaoDTO> ORDEM = Comparator
+            .comparing(ProgramacaoDTO::getHorario)
+            .thenComparing(ProgramacaoDTO::getSalaNumero)
+            .thenComparing(ProgramacaoDTO::getSessao);
+
+    private final SessaoRepository sessaoRepository;
+    private final PrecificacaoService precificacaoService;
+    private final OcupacaoService ocupacaoService;
+
+    private final ConcurrentHashMap<LocalDate, List<ProgramacaoDTO>> porData = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, LocalDate> dataPorSessao = new ConcurrentHashMap<>();
+    private volatile LocalDate corte = LocalDate.now();
+
+    public List<ProgramacaoDTO> findByData(LocalDate data) {
+        if (data.isBefore(corte)) {
+            return sessaoRepository.findProgramacao(null, null, null, data.atStartOfDay(), data.plusDays(1).atStartOfDay())
+                    .stream()
+                    .map(this::cotar)
+                    .sorted(ORDEM)
+                    .toList();
+        }
+        return porData.getOrDefault(data, List.of());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        LocalDate hoje = LocalDate.now();
+        List<ProgramacaoDTO> linhas = sessaoRepository.findProgramacao(null, null, null, hoje.atStartOfDay(), null);
+        corte = hoje;
+        porData.clear();
+        dataPorSessao.clear();
+        linhas.forEach(this::aplicar);
+        log.info("Programação carregada com {} sessão(ões) a partir de {}", linhas.size(), hoje);
+    }
+
+    @Scheduled(cron = "${cinema.sessoes.agenda-expiracao:0 0 0 * * *}")
+    public void expirar() {
+        LocalDate hoje = LocalDate.now();
+        if (!hoje.isAfter(corte)) {
+            return;
+        }
+        corte = hoje;
+        int antes = dataPorSessao.size();
+        dataPorSessao.values().removeIf(data -> data.isBefore(hoje));
+        porData.keySet().removeIf(data -> data.isBefore(hoje));
+        log.info("Programação expirou {} sessão(ões) anteriores a {}", antes - dataPorSessao.size(), hoje);
+    }
+
+    public void atualizarSessao(Long sessaoId) {
+        Transacoes.aposCommit(() -> recarregar(sessaoId, null, null));
+    }
+
+    public void atualizarFilme(Long filmeId) {
+        Transacoes.aposCommit(() -> recarregar(null, filmeId, null));
+    }
+
+    public void atualizarSala(Long salaId) {
+        Transacoes.aposCommit(() -> recarregar(null, null, salaId));
+    }
+
+    public void removerSessao(Long sessaoId) {
+        Transacoes.aposCommit(() -> remover(sessaoId));
+    }
+
+    /**
+     * Recota todas as sessões em memória, sem ir ao banco; usado quando as
+     * regras de preço mudam.
+     */
+    public void reprecificar() {
+        porData.replaceAll((dia, itens) -> itens.stream().map(this::cotar).toList());
+    }
+
+    public void registrarVenda(Long sessaoId) {
+        Transacoes.aposCommit(() -> {
+            LocalDate data = dataPorSessao.get(sessaoId);
+            if (data == null) {
+                return;
+            }
+            porData.computeIfPresent(data, (dia, itens) -> substituir(itens, sessaoId,
+                    item -> cotar(copia(item, ocupacaoService.vendidos(sessaoId)))));
+        });
+    }
+
+    private void recarregar(Long sessaoId, Long filmeId, Long salaId) {
+        List<ProgramacaoDTO> linhas = sessaoRepository.findProgramacao(sessaoId, filmeId, salaId, corte.atStartOfDay(), null);
+        if (sessaoId != null && linhas.isEmpty()) {
+            remover(sessaoId);
+        }
+        linhas.forEach(this::aplicar);
+    }
+
+    private void aplicar(ProgramacaoDTO base) {
+        ProgramacaoDTO linha = cotar(base);
+        Long sessaoId = linha.getSessao();
+        LocalDate data = linha.getHorario().toLocalDate();
+        if (data.isBefore(corte)) {
+            remover(sessaoId);
+            return;
+        }
+        LocalDate anterior = dataPorSessao.put(sessaoId, data);
+        if (anterior != null && !anterior.equals(data)) {
+            removerDoDia(anterior, sessaoId);
+        }
+        porData.compute(data, (dia, itens) -> {
+            List<ProgramacaoDTO> novos = new ArrayList<>(itens == null ? 1 : itens.size() + 1);
+            if (itens != null) {
+                itens.stream().filter(item -> !item.getSessao().equals(sessaoId)).forEach(novos::add);
+            }
+            novos.add(linha);
+            novos.sort(ORDEM);
+            return List.copyOf(novos);
+        });
+    }
+
+    private void remover(Long sessaoId) {
+        LocalDate data = dataPorSessao.remove(sessaoId);
+        if (data != null) {
+            removerDoDia(data, sessaoId);
+        }
+    }
+
+    private void removerDoDia(LocalDate data, Long sessaoId) {
+        porData.computeIfPresent(data, (dia, itens) -> {
+            List<ProgramacaoDTO> novos = itens.stream()
+                    .filter(item -> !item.getSessao().equals(sessaoId))
+                    .toList();
+            return novos.isEmpty() ? null : novos;
+        });
+    }
+
+    private ProgramacaoDTO cotar(ProgramacaoDTO item) {
+        int vendidos = item.getIngressosVendidos().intValue();
+        long inteira = precificacaoService.inteira(item.getSessao(), vendidos);
+        long meia = precificacaoService.meia(item.getSessao(), vendidos);
+        if (inteira == PrecificacaoService.SEM_PRECO || meia == PrecificacaoService.SEM_PRECO) {
+            return item;
+        }
+        return new ProgramacaoDTO(item.getSessao(), item.getHorario(), item.getFilme(), item.getTitulo(),
+                item.getGenero(), item.getClassificacao(), item.getDuracao(), item.getSala(), item.getSalaNumero(),
+                Dinheiro.reais(inteira), Dinheiro.reais(meia), item.getCapacidade(), item.getIngressosVendidos());
+    }
+
+    private static List<ProgramacaoDTO> substituir(List<ProgramacaoDTO> itens, Long sessaoId, UnaryOperator<ProgramacaoDTO> alteracao) {
+        return itens.stream()
+                .map(item -> item.getSessao().equals(sessaoId) ? alteracao.apply(item) : item)
+                .toList();
+    }
+
+    private static ProgramacaoDTO copia(ProgramacaoDTO item, long ingressosVendidos) {
+        return new ProgramacaoDTO(item.getSessao(), item.getHorario(), item.getFilme(), item.getTitulo(),
+                item.getGenero(), item.getClassificacao(), item.getDuracao(), item.getSala(), item.getSalaNumero(),
+                item.getValorInteira(), item.getValorMeia(), item.getCapacidade(), ingressosVendidos);
+    }
+}
@@ -1,47 +1,158 @@
 package com.cinema.spring.service;
 
+import com.cinema.spring.converter.PoltronasConverter;
 import com.cinema.spring.model.Sala;
+import com.cinema.spring.model.SeatLayout;
 import com.cinema.spring.repository.SalaRepository;
 import com.cinema.spring.repository.SessaoRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class SalaService {
+    private static final String TODOS = "todos";
+
     private final SalaRepository salaRepository;
     private final SessaoRepository sessaoRepository;
+    private final EntityManager entityManager;
+    private final PrecificacaoService precificacaoService;
+    private final ProgramacaoService programacaoService;
+    private final OcupacaoService ocupacaoService;
+    private final AssentoService assentoService;
+    private final CatalogoCache catalogoCache;
+    private final JsonMapper jsonMapper;
 
     public List<Sala> findAll() {
-        return salaRepository.findAll();
+        return catalogoCache.get(CatalogoCache.SALAS, TODOS, () -> List.copyOf(salaRepository.findAll()));
+    }
+
+    public List<Sala> findPage(Long after, int limit) {
+        return salaRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Sala> consumidor) {
+        try (Stream<Sala> salas = salaRepository.streamAll()) {
+            salas.forEach(sala -> {
+                consumidor.accept(sala);
+                entityManager.detach(sala);
+            });
+        }
     }
 
     public Optional<Sala> findById(Long id) {
-        return salaRepository.findById(id);
+        return Optional.ofNullable(catalogoCache.get(CatalogoCache.SALAS, id, () -> salaRepository.findById(id).orElse(null)));
+    }
+
+    public String etag() {
+        return catalogoCache.etag(CatalogoCache.SALAS);
     }
 
     public Sala save(Sala sala) {
-        return salaRepository.save(sala);
+        normalizarTipo(sala);
+        Sala saved = salaRepository.save(sala);
+        catalogoCache.invalidar(CatalogoCache.SALAS);
+        return saved;
     }
 
-    public Sala update(Long id, Sala sala) {
-        sala.setId(id);
-        return salaRepository.save(sala);
+    @Transactional
+    public Optional<Sala> update(Long id, Sala sala) {
+        return salaRepository.findById(id)
+                .map(existente -> {
+                    Edicoes.conferirVersao(Sala.class, id, sala.getVersao(), existente.getVersao());
+                    normalizarTipo(sala);
+                    boolean mudouLayout = !Objects.equals(existente.getPoltronas(), sala.getPoltronas());
+                    if (mudouLayout) {
+                        assentoService.conferirLayoutDaSala(id, sala.getPoltronas());
+                    }
+                    existente.setNumero(sala.getNumero());
+                    existente.setCapacidade(sala.getCapacidade());
+                    existente.setPoltronas(sala.getPoltronas());
+                    existente.setTipo(sala.getTipo());
+                    salaRepository.flush();
+                    catalogoCache.invalidar(CatalogoCache.SALAS);
+                    precificacaoService.atualizarSala(id);
+                    programacaoService.atualizarSala(id);
+                    ocupacaoService.invalidarSala(id);
+                    if (mudouLayout) {
+                        Transacoes.aposCommit(() -> assentoService.descartarSala(id));
+                    }
+                    return existente;
+                });
+    }
+
+    @Transactional
+    public Optional<Sala> patch(Long id, JsonNode alteracoes) {
+        return salaRepository.findById(id)
+                .flatMap(existente -> update(id, Edicoes.mesclar(jsonMapper, Edicoes.copia(jsonMapper, existente, Sala.class), alteracoes)));
     }
 
     @Transactional
     public void deleteById(Long id) {
-        List<com.cinema.spring.model.Sessao> sessoes = sessaoRepository.findBySalaId(id);
+        long sessoesCount = sessaoRepository.countBySalaId(id);
         
-        if (!sessoes.isEmpty()) {
-            throw new RuntimeException("Não é possível excluir a sala pois existem " + sessoes.size() + " sessão(ões) associada(s) a ela.");
+        if (sessoesCount > 0) {
+            throw new RuntimeException("Não é possível excluir a sala pois existem " + sessoesCount + " sessão(ões) associada(s) a ela.");
         }
         
         salaRepository.deleteById(id);
+        catalogoCache.invalidar(CatalogoCache.SALAS);
     }
-}
 
+    private static void normalizarTipo(Sala sala) {
+        sala.setTipo(sala.getTipo() == null || sala.getTipo().isBlank()
+                ? Sala.PADRAO
+                : sala.getTipo().trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Regrava no formato binário as salas ainda em JSON. Todas são convertidas
+     * antes de qualquer gravação: se alguma não puder ser lida sem perda, nada
+     * é regravado e a subida falha com as salas e os motivos.
+     */
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrarPoltronasLegadas() {
+        List<SalaRepository.PoltronasLegadas> legadas = salaRepository.findPoltronasLegadas();
+        if (legadas.isEmpty()) {
+            return;
+        }
+        PoltronasConverter converter = new PoltronasConverter();
+        Map<Long, String> convertidas = new LinkedHashMap<>();
+        List<String> falhas = new ArrayList<>();
+        for (SalaRepository.PoltronasLegadas legada : legadas) {
+            try {
+                SeatLayout poltronas = converter.convertToEntityAttribute(legada.getPoltronas());
+                convertidas.put(legada.getId(), converter.convertToDatabaseColumn(poltronas));
+            } catch (IllegalArgumentException e) {
+                falhas.add("sala " + legada.getId() + ": " + e.getMessage());
+            }
+        }
+        if (!falhas.isEmpty()) {
+            throw new IllegalStateException("Layout de poltronas legado não convertido, nenhuma sala foi alterada. "
+                    + String.join("; ", falhas));
+        }
+        convertidas.forEach(salaRepository::atualizarPoltronas);
+        log.info("Layout de poltronas convertido para o formato binário em {} sala(s)", convertidas.size());
+    }
+}
@@ -1,5 +1,8 @@
 package com.cinema.spring.service;
 
+import com.cinema.spring.dto.ItemLoteSessoesDTO;
+import com.cinema.spring.dto.LoteSessoesDTO;
+import com.cinema.spring.dto.ResultadoLoteSessoesDTO;
 import com.cinema.spring.dto.SessaoDTO;
 import com.cinema.spring.model.Filme;
 import com.cinema.spring.model.Ingresso;
@@ -10,13 +13,27 @@ import com.cinema.spring.repository.IngressoRepository;
 import com.cinema.spring.repository.PedidoRepository;
 import com.cinema.spring.repository.SalaRepository;
 import com.cinema.spring.repository.SessaoRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -26,46 +43,148 @@ public class SessaoService {
     private final SalaRepository salaRepository;
     private final IngressoRepository ingressoRepository;
     private final PedidoRepository pedidoRepository;
+    private final AssentoService assentoService;
+    private final PrecificacaoService precificacaoService;
+    private final ProgramacaoService programacaoService;
+    private final GradeSalasService gradeSalasService;
+    private final VendasService vendasService;
+    private final OcupacaoService ocupacaoService;
+    private final AgendaSessoesService agendaSessoesService;
+    private final EntityManager entityManager;
+    private final JsonMapper jsonMapper;
+
+    @Value("${cinema.sessoes.lote-tamanho:500}")
+    private int loteTamanho;
+
+    @Value("${cinema.sessoes.lote-maximo:20000}")
+    private int loteMaximo;
 
     public List<SessaoDTO> findAll() {
-        return sessaoRepository.findAll().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return sessaoRepository.findAllDTO();
+    }
+
+    public List<SessaoDTO> findPage(Long after, int limit) {
+        return sessaoRepository.findDTOPage(after == null ? 0L : after, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<SessaoDTO> consumidor) {
+        try (Stream<SessaoDTO> sessoes = sessaoRepository.streamAllDTO()) {
+            sessoes.forEach(consumidor);
+        }
     }
 
     public Optional<SessaoDTO> findById(Long id) {
-        return sessaoRepository.findById(id)
-                .map(this::toDTO);
+        return sessaoRepository.findDTOById(id);
     }
 
     @Transactional
     public SessaoDTO save(SessaoDTO dto) {
         Sessao sessao = toEntity(dto);
         Sessao saved = sessaoRepository.save(sessao);
+        ocuparSala(saved);
         
         Optional<Ingresso> existingIngresso = ingressoRepository.findBySessaoId(saved.getId());
         if (existingIngresso.isEmpty()) {
-            Ingresso ingresso = new Ingresso();
-            ingresso.setSessao(saved);
-            ingresso.setValorInteira(20.0);
-            ingresso.setValorMeia(10.0);
-            ingressoRepository.save(ingresso);
+            ingressoRepository.save(ingresso(saved, precificacaoService.inteiraPadrao(), precificacaoService.meiaPadrao()));
         }
         
-        return toDTO(saved);
+        precificacaoService.atualizarSessao(saved.getId());
+        programacaoService.atualizarSessao(saved.getId());
+        SessaoDTO salva = toDTO(saved);
+        agendaSessoesService.atualizar(salva);
+        return salva;
+    }
+
+    /**
+     * Gera a grade de um período: cada combinação de dia, horário, sala e filme
+     * vira uma sessão com o ingresso padrão, tudo em uma transação. Combinações
+     * que colidem com sessões existentes (ou com outras do próprio lote, ou
+     * gravadas em paralelo) são relatadas como conflito e ignoradas.
+     */
+    @Transactional
+    public ResultadoLoteSessoesDTO saveLote(LoteSessoesDTO dto) {
+        validarLote(dto);
+        Map<Long, Filme> filmes = carregar(filmeRepository.findAllById(dto.getFilmes()), Filme::getId, dto.getFilmes(), "Filme(s)");
+        Map<Long, Sala> salas = carregar(salaRepository.findAllById(dto.getSalas()), Sala::getId, dto.getSalas(), "Sala(s)");
+        long valorInteira = dto.getValorInteira() == null ? precificacaoService.inteiraPadrao() : Dinheiro.centavos(dto.getValorInteira());
+        long valorMeia = dto.getValorMeia() == null ? precificacaoService.meiaPadrao() : Dinheiro.centavos(dto.getValorMeia());
+
+        List<ItemLoteSessoesDTO> itens = new ArrayList<>();
+        List<SessaoDTO> novas = new ArrayList<>();
+        int criadas = 0;
+        for (LocalDate dia = dto.getDataInicio(); !dia.isAfter(dto.getDataFim()); dia = dia.plusDays(1)) {
+            for (LocalTime hora : dto.getHorarios()) {
+                LocalDateTime horario = dia.atTime(hora);
+                for (Long salaId : dto.getSalas()) {
+                    for (Long filmeId : dto.getFilmes()) {
+                        Filme filme = filmes.get(filmeId);
+                        // Filtro barato para as colisões do próprio lote; quem decide é a reserva abaixo.
+                        Optional<String> conflito = gradeSalasService.conflito(salaId, horario, filme.getDuracao());
+                        if (conflito.isPresent()) {
+                            itens.add(new ItemLoteSessoesDTO(horario, filmeId, salaId, ItemLoteSessoesDTO.CONFLITO, null, conflito.get()));
+                            continue;
+                        }
+                        Sessao sessao = new Sessao(null, horario, filme, salas.get(salaId));
+                        sessaoRepository.save(sessao);
+                        conflito = gradeSalasService.reservarSeLivre(salaId, sessao.getId(), filmeId, horario, filme.getDuracao());
+                        if (conflito.isPresent()) {
+                            // Outra gravação ocupou o horário depois da verificação.
+                            entityManager.remove(sessao);
+                            itens.add(new ItemLoteSessoesDTO(horario, filmeId, salaId, ItemLoteSessoesDTO.CONFLITO, null, conflito.get()));
+                            continue;
+                        }
+                        ingressoRepository.save(ingresso(sessao, valorInteira, valorMeia));
+                        novas.add(toDTO(sessao));
+                        itens.add(new ItemLoteSessoesDTO(horario, filmeId, salaId, ItemLoteSessoesDTO.CRIADA, sessao.getId(), null));
+                        if (++criadas % loteTamanho == 0) {
+                            entityManager.flush();
+                            entityManager.clear();
+                        }
+                    }
+                }
+            }
+        }
+        salas.keySet().forEach(precificacaoService::atualizarSala);
+        salas.keySet().forEach(programacaoService::atualizarSala);
+        agendaSessoesService.atualizar(novas);
+        return new ResultadoLoteSessoesDTO(criadas, itens.size() - criadas, itens);
     }
 
     @Transactional
     public Optional<SessaoDTO> update(Long id, SessaoDTO dto) {
         return sessaoRepository.findById(id)
                 .map(existing -> {
-                    Sessao sessao = toEntity(dto);
-                    sessao.setId(id);
-                    Sessao updated = sessaoRepository.save(sessao);
-                    return toDTO(updated);
+                    Edicoes.conferirVersao(Sessao.class, id, dto.getVersao(), existing.getVersao());
+                    Long salaAnterior = existing.getSala().getId();
+                    LocalDateTime horarioAnterior = existing.getHorario();
+                    aplicar(existing, dto);
+                    boolean mudouSala = !existing.getSala().getId().equals(salaAnterior);
+                    if (mudouSala) {
+                        assentoService.conferirLayoutDaSessao(id, existing.getSala().getPoltronas());
+                    }
+                    sessaoRepository.flush();
+                    ocuparSala(existing);
+                    if (mudouSala || !existing.getHorario().equals(horarioAnterior)) {
+                        // O mapa aberto tem o layout da sala e o prazo de descarte do horário antigos.
+                        Transacoes.aposCommit(() -> assentoService.descartar(id));
+                    }
+                    precificacaoService.atualizarSessao(id);
+                    programacaoService.atualizarSessao(id);
+                    vendasService.recalcularSessao(id);
+                    ocupacaoService.invalidar(id);
+                    SessaoDTO atualizada = toDTO(existing);
+                    agendaSessoesService.atualizar(atualizada);
+                    return atualizada;
                 });
     }
 
+    @Transactional
+    public Optional<SessaoDTO> patch(Long id, JsonNode alteracoes) {
+        return sessaoRepository.findById(id)
+                .flatMap(existing -> update(id, Edicoes.mesclar(jsonMapper, toDTO(existing), alteracoes)));
+    }
+
     @Transactional
     public void deleteById(Long id) {
         Optional<Ingresso> ingresso = ingressoRepository.findBySessaoId(id);
@@ -82,6 +201,53 @@ public class SessaoService {
         }
         
         sessaoRepository.deleteById(id);
+        assentoService.descartar(id);
+        precificacaoService.removerSessao(id);
+        programacaoService.removerSessao(id);
+        gradeSalasService.remover(id);
+        ocupacaoService.invalidar(id);
+        agendaSessoesService.remover(id);
+    }
+
+    private void validarLote(LoteSessoesDTO dto) {
+        if (dto.getFilmes() == null || dto.getFilmes().isEmpty()
+                || dto.getSalas() == null || dto.getSalas().isEmpty()
+                || dto.getHorarios() == null || dto.getHorarios().isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos um filme, uma sala e um horário.");
+        }
+        if (dto.getDataInicio() == null || dto.getDataFim() == null || dto.getDataFim().isBefore(dto.getDataInicio())) {
+            throw new IllegalArgumentException("Período inválido: informe dataInicio e dataFim, com dataFim >= dataInicio.");
+        }
+        long dias = ChronoUnit.DAYS.between(dto.getDataInicio(), dto.getDataFim()) + 1;
+        long combinacoes = dias * dto.getHorarios().size() * dto.getSalas().size() * dto.getFilmes().size();
+        if (combinacoes > loteMaximo) {
+            throw new IllegalArgumentException("O lote geraria " + combinacoes + " sessões; o máximo é " + loteMaximo + ".");
+        }
+    }
+
+    private static <T> Map<Long, T> carregar(List<T> encontrados, Function<T, Long> id, List<Long> solicitados, String nome) {
+        Map<Long, T> porId = encontrados.stream().collect(Collectors.toMap(id, Function.identity()));
+        List<Long> faltantes = solicitados.stream()
+                .filter(solicitado -> !porId.containsKey(solicitado))
+                .distinct()
+                .toList();
+        if (!faltantes.isEmpty()) {
+            throw new IllegalArgumentException(nome + " não encontrado(s) com id(s): " + faltantes);
+        }
+        return porId;
+    }
+
+    private static Ingresso ingresso(Sessao sessao, long valorInteiraCentavos, long valorMeiaCentavos) {
+        Ingresso ingresso = new Ingresso();
+        ingresso.setSessao(sessao);
+        ingresso.setValorInteiraCentavos(valorInteiraCentavos);
+        ingresso.setValorMeiaCentavos(valorMeiaCentavos);
+        return ingresso;
+    }
+
+    private void ocuparSala(Sessao sessao) {
+        gradeSalasService.reservar(sessao.getSala().getId(), sessao.getId(), sessao.getFilme().getId(), sessao.getHorario(),
+                sessao.getFilme().getDuracao());
     }
 
     private SessaoDTO toDTO(Sessao sessao) {
@@ -90,23 +256,35 @@ public class SessaoService {
         dto.setHorario(sessao.getHorario());
         dto.setFilme(sessao.getFilme().getId());
         dto.setSala(sessao.getSala().getId());
+        dto.setVersao(sessao.getVersao());
         return dto;
     }
 
     private Sessao toEntity(SessaoDTO dto) {
         Sessao sessao = new Sessao();
         sessao.setId(dto.getId());
+        aplicar(sessao, dto);
+        return sessao;
+    }
+
+    /**
+     * Copia os campos do DTO para a sessão; filme e sala só são buscados se
+     * mudaram.
+     */
+    private void aplicar(Sessao sessao, SessaoDTO dto) {
         sessao.setHorario(dto.getHorario());
         
-        Filme filme = filmeRepository.findById(dto.getFilme())
-                .orElseThrow(() -> new RuntimeException("Filme não encontrado com id: " + dto.getFilme()));
-        sessao.setFilme(filme);
-        
-        Sala sala = salaRepository.findById(dto.getSala())
-                .orElseThrow(() -> new RuntimeException("Sala não encontrada com id: " + dto.getSala()));
-        sessao.setSala(sala);
+        if (sessao.getFilme() == null || !sessao.getFilme().getId().equals(dto.getFilme())) {
+            Filme filme = filmeRepository.findById(dto.getFilme())
+                    .orElseThrow(() -> new RuntimeException("Filme não encontrado com id: " + dto.getFilme()));
+            sessao.setFilme(filme);
+        }
         
-        return sessao;
+        if (sessao.getSala() == null || !sessao.getSala().getId().equals(dto.getSala())) {
+            Sala sala = salaRepository.findById(dto.getSala())
+                    .orElseThrow(() -> new RuntimeException("Sala não encontrada com id: " + dto.getSala()));
+            sessao.setSala(sala);
+        }
     }
 }
 
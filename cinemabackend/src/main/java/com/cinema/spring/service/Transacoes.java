@@ -0,0 +1,63 @@
+package com.cinema.spring.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Set;
+
+final class Transacoes {
+    private Transacoes() {
+    }
+
+    static void aposCommit(Runnable acao) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            acao.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                acao.run();
+            }
+        });
+    }
+
+    /**
+     * Conjunto ligado à transação corrente sob {@code chave}, criado no
+     * primeiro uso e desligado quando ela termina. Fora de uma transação,
+     * devolve um conjunto novo, que não é guardado.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Set<T> conjunto(Object chave) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new HashSet<>();
+        }
+        Set<T> conjunto = (Set<T>) TransactionSynchronizationManager.getResource(chave);
+        if (conjunto == null) {
+            conjunto = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(chave, conjunto);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(chave);
+                }
+            });
+        }
+        return conjunto;
+    }
+
+    static void aoReverter(Runnable acao) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    acao.run();
+                }
+            }
+        });
+    }
+}
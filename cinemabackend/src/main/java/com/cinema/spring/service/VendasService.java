@@ -0,0 +1,203 @@
+package com.cinema.spring.service;
+
+import com.cinema.spring.dto.VendasDTO;
+import com.cinema.spring.model.Pedido;
+import com.cinema.spring.model.VendaDiariaId;
+import com.cinema.spring.repository.VendaDiariaRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Relatórios de vendas a partir do consolidado por (dia, sessão). Os pedidos
+ * não tocam o consolidado na própria transação: após o commit, cada um soma
+ * sua contribuição em um mapa de pendências, que um único escritor descarrega
+ * periodicamente (e antes de cada relatório) e no encerramento. Na
+ * inicialização o consolidado é refeito a partir dos pedidos, a menos que
+ * cinema.inicializacao.reconciliar seja false (banco em arquivo, que já
+ * guarda o consolidado entre execuções) e a execução anterior tenha deixado
+ * o marcador de encerramento limpo (cinema.relatorios.marcador). Sem o
+ * marcador, pendências podem ter se perdido em uma queda, e o consolidado é
+ * refeito mesmo assim.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VendasService {
+    public static final String AGRUPAR_DIA = "dia";
+    public static final String AGRUPAR_FILME = "filme";
+    public static final String AGRUPAR_SALA = "sala";
+    public static final String AGRUPAR_SESSAO = "sessao";
+
+    private final VendaDiariaRepository vendaDiariaRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${cinema.inicializacao.reconciliar:true}")
+    private boolean reconciliar;
+
+    @Value("${cinema.relatorios.marcador:}")
+    private String marcador;
+
+    private final ConcurrentHashMap<VendaDiariaId, Venda> pendentes = new ConcurrentHashMap<>();
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void iniciar() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        descarregar();
+        Path arquivo = arquivoMarcador();
+        if (arquivo == null || !pendentes.isEmpty()) {
+            return;
+        }
+        try {
+            Files.createDirectories(arquivo.toAbsolutePath().getParent());
+            Files.write(arquivo, new byte[0]);
+        } catch (IOException e) {
+            log.warn("Não foi possível gravar o marcador de encerramento em {}", arquivo, e);
+        }
+    }
+
+    /**
+     * Consome o marcador deixado pelo último encerramento limpo; se não havia
+     * marcador (primeira subida ou queda), o consolidado é refeito.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciarConsolidado() throws IOException {
+        Path arquivo = arquivoMarcador();
+        boolean encerramentoLimpo = arquivo != null && Files.deleteIfExists(arquivo);
+        if (reconciliar || !encerramentoLimpo) {
+            if (!reconciliar) {
+                log.warn("Marcador de encerramento limpo ausente; refazendo o consolidado de vendas");
+            }
+            reconstruir();
+        }
+    }
+
+    public synchronized void reconstruir() {
+        pendentes.clear();
+        Integer linhas = transactionTemplate.execute(status -> {
+            vendaDiariaRepository.deleteAllInBatch();
+            return vendaDiariaRepository.consolidarTudo();
+        });
+        log.info("Consolidado de vendas refeito com {} linha(s)", linhas);
+    }
+
+    /**
+     * Soma (sinal 1) ou estorna (sinal -1) a contribuição do pedido. Deve ser
+     * chamado dentro da transação que grava o pedido; a contribuição só entra
+     * nas pendências se ela for confirmada.
+     */
+    public void registrar(Pedido pedido, int sinal) {
+        if (pedido.getDataHora() == null || pedido.getIngresso() == null) {
+            return;
+        }
+        VendaDiariaId chave = new VendaDiariaId(pedido.getDataHora().toLocalDate(), pedido.getIngresso().getSessao().getId());
+        Venda venda = new Venda(
+                sinal * (long) pedido.getIngressosMeiaQtd(),
+                sinal * (long) pedido.getIngressosInteiraQtd(),
+                sinal * Math.round(pedido.getValorTotal() * 100),
+                sinal * (long) pedido.getLancheCombos().size());
+        Transacoes.aposCommit(() -> pendentes.merge(chave, venda, Venda::somar));
+    }
+
+    public void registrar(List<Pedido> pedidos) {
+        pedidos.forEach(pedido -> registrar(pedido, 1));
+    }
+
+    /**
+     * Refaz o consolidado de uma sessão a partir dos pedidos, após o commit.
+     * Usado quando filme, sala ou ingressos da sessão mudam.
+     */
+    public void recalcularSessao(Long sessaoId) {
+        Transacoes.aposCommit(() -> {
+            synchronized (this) {
+                descarregar();
+                transactionTemplate.executeWithoutResult(status -> {
+                    vendaDiariaRepository.deleteBySessao(sessaoId);
+                    vendaDiariaRepository.consolidarSessao(sessaoId);
+                });
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${cinema.relatorios.descarga:PT1S}")
+    public synchronized void descarregar() {
+        if (pendentes.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<VendaDiariaId, Venda>> lote = new ArrayList<>(pendentes.size());
+        for (VendaDiariaId chave : pendentes.keySet()) {
+            Venda venda = pendentes.remove(chave);
+            if (venda != null) {
+                lote.add(Map.entry(chave, venda));
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> lote.forEach(item -> aplicar(item.getKey(), item.getValue())));
+        } catch (RuntimeException e) {
+            log.warn("Falha ao descarregar {} consolidado(s) de vendas, nova tentativa no próximo ciclo", lote.size(), e);
+            lote.forEach(item -> pendentes.merge(item.getKey(), item.getValue(), Venda::somar));
+        }
+    }
+
+    public List<VendasDTO> relatorio(LocalDate de, LocalDate ate, String agrupar) {
+        if (de == null || ate == null || de.isAfter(ate)) {
+            throw new IllegalArgumentException("Informe um período válido (de <= ate).");
+        }
+        String agrupamento = agrupar == null ? AGRUPAR_DIA : agrupar;
+        descarregar();
+        List<VendaDiariaRepository.TotalVendas> totais = switch (agrupamento) {
+            case AGRUPAR_DIA -> vendaDiariaRepository.totalPorDia(de, ate);
+            case AGRUPAR_FILME -> vendaDiariaRepository.totalPorFilme(de, ate);
+            case AGRUPAR_SALA -> vendaDiariaRepository.totalPorSala(de, ate);
+            case AGRUPAR_SESSAO -> vendaDiariaRepository.totalPorSessao(de, ate);
+            default -> throw new IllegalArgumentException(
+                    "Agrupamento inválido: " + agrupamento + ". Use dia, filme, sala ou sessao.");
+        };
+        return totais.stream()
+                .map(total -> new VendasDTO(String.valueOf(total.getChave()), total.getIngressosMeia(),
+                        total.getIngressosInteira(), total.getValorCentavos() / 100.0, total.getCombos()))
+                .toList();
+    }
+
+    private Path arquivoMarcador() {
+        return marcador == null || marcador.isBlank() ? null : Path.of(marcador);
+    }
+
+    private void aplicar(VendaDiariaId chave, Venda venda) {
+        if (vendaDiariaRepository.acumular(chave.getDia(), chave.getSessao(),
+                venda.meia(), venda.inteira(), venda.centavos(), venda.combos()) == 0) {
+            vendaDiariaRepository.criar(chave.getDia(), chave.getSessao(),
+                    venda.meia(), venda.inteira(), venda.centavos(), venda.combos());
+        }
+    }
+
+    private record Venda(long meia, long inteira, long centavos, long combos) {
+        Venda somar(Venda outra) {
+            return new Venda(meia + outra.meia, inteira + outra.inteira, centavos + outra.centavos, combos + outra.combos);
+        }
+    }
+}
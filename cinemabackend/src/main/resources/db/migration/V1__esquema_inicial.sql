@@ -0,0 +1,103 @@
+-- Esquema inicial, equivalente ao que o Hibernate gerava com ddl-auto=update.
+-- Os índices das chaves estrangeiras são criados antes das constraints para que
+-- o H2 os reutilize em vez de criar índices implícitos sem nome.
+
+CREATE SEQUENCE filmes_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE ingressos_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE lanche_combos_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE pedidos_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE salas_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE sessoes_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE filmes (
+    id BIGINT NOT NULL,
+    titulo VARCHAR(255) NOT NULL,
+    sinopse VARCHAR(1000) NOT NULL,
+    classificacao VARCHAR(255) NOT NULL,
+    duracao INTEGER NOT NULL,
+    elenco VARCHAR(255) NOT NULL,
+    genero VARCHAR(255) NOT NULL,
+    data_inicio_exibicao DATE NOT NULL,
+    data_final_exibicao DATE NOT NULL,
+    CONSTRAINT pk_filmes PRIMARY KEY (id)
+);
+
+CREATE TABLE salas (
+    id BIGINT NOT NULL,
+    numero INTEGER NOT NULL,
+    capacidade INTEGER NOT NULL,
+    poltronas TEXT,
+    CONSTRAINT pk_salas PRIMARY KEY (id),
+    CONSTRAINT uk_salas_numero UNIQUE (numero)
+);
+
+CREATE TABLE lanche_combos (
+    id BIGINT NOT NULL,
+    nome VARCHAR(255) NOT NULL,
+    descricao VARCHAR(500) NOT NULL,
+    valor_unitario FLOAT(53) NOT NULL,
+    qt_unidade INTEGER NOT NULL,
+    subtotal FLOAT(53) NOT NULL,
+    CONSTRAINT pk_lanche_combos PRIMARY KEY (id)
+);
+
+CREATE TABLE sessoes (
+    id BIGINT NOT NULL,
+    horario TIMESTAMP(6) NOT NULL,
+    filme_id BIGINT NOT NULL,
+    sala_id BIGINT NOT NULL,
+    ingressos_vendidos INTEGER NOT NULL,
+    CONSTRAINT pk_sessoes PRIMARY KEY (id)
+);
+
+CREATE TABLE ingressos (
+    id BIGINT NOT NULL,
+    valor_inteira FLOAT(53) NOT NULL,
+    valor_meia FLOAT(53) NOT NULL,
+    sessao_id BIGINT NOT NULL,
+    CONSTRAINT pk_ingressos PRIMARY KEY (id)
+);
+
+CREATE TABLE pedidos (
+    id BIGINT NOT NULL,
+    data_hora TIMESTAMP(6) NOT NULL,
+    ingressos_meia_qtd INTEGER NOT NULL,
+    ingressos_inteira_qtd INTEGER NOT NULL,
+    ingresso_id BIGINT NOT NULL,
+    valor_total FLOAT(53) NOT NULL,
+    metodo_pagamento VARCHAR(255) NOT NULL,
+    CONSTRAINT pk_pedidos PRIMARY KEY (id)
+);
+
+CREATE TABLE pedido_lanche_combo (
+    pedido_id BIGINT NOT NULL,
+    lanche_combo_id BIGINT NOT NULL
+);
+
+CREATE TABLE vendas_diarias (
+    dia DATE NOT NULL,
+    sessao_id BIGINT NOT NULL,
+    filme_id BIGINT NOT NULL,
+    sala_id BIGINT NOT NULL,
+    ingressos_meia BIGINT NOT NULL,
+    ingressos_inteira BIGINT NOT NULL,
+    valor_centavos BIGINT NOT NULL,
+    combos BIGINT NOT NULL,
+    CONSTRAINT pk_vendas_diarias PRIMARY KEY (dia, sessao_id)
+);
+
+CREATE INDEX idx_sessoes_filme_id ON sessoes (filme_id);
+CREATE INDEX idx_sessoes_sala_id ON sessoes (sala_id);
+CREATE INDEX idx_sessoes_horario ON sessoes (horario);
+CREATE INDEX idx_ingressos_sessao_id ON ingressos (sessao_id);
+CREATE INDEX idx_pedidos_ingresso_id ON pedidos (ingresso_id);
+CREATE INDEX idx_pedidos_data_hora ON pedidos (data_hora);
+CREATE INDEX idx_pedido_lanche_combo_pedido_id ON pedido_lanche_combo (pedido_id);
+CREATE INDEX idx_pedido_lanche_combo_lanche_combo_id ON pedido_lanche_combo (lanche_combo_id);
+
+ALTER TABLE sessoes ADD CONSTRAINT fk_sessoes_filme FOREIGN KEY (filme_id) REFERENCES filmes (id);
+ALTER TABLE sessoes ADD CONSTRAINT fk_sessoes_sala FOREIGN KEY (sala_id) REFERENCES salas (id);
+ALTER TABLE ingressos ADD CONSTRAINT fk_ingressos_sessao FOREIGN KEY (sessao_id) REFERENCES sessoes (id);
+ALTER TABLE pedidos ADD CONSTRAINT fk_pedidos_ingresso FOREIGN KEY (ingresso_id) REFERENCES ingressos (id);
+ALTER TABLE pedido_lanche_combo ADD CONSTRAINT fk_pedido_lanche_combo_pedido FOREIGN KEY (pedido_id) REFERENCES pedidos (id);
+ALTER TABLE pedido_lanche_combo ADD CONSTRAINT fk_pedido_lanche_combo_lanche_combo FOREIGN KEY (lanche_combo_id) REFERENCES lanche_combos (id);
@@ -0,0 +1,5 @@
+-- Token do checkout assíncrono gravado junto com o pedido: na reabertura do
+-- diário de checkout, o que já tem token no banco não é gravado de novo.
+
+ALTER TABLE pedidos ADD COLUMN checkout_token VARCHAR(36);
+ALTER TABLE pedidos ADD CONSTRAINT uk_pedidos_checkout_token UNIQUE (checkout_token);
@@ -0,0 +1,13 @@
+-- Preços de ingresso passam a ser guardados em centavos (inteiro), e a sala
+-- ganha um tipo, usado pelas regras de preço.
+
+ALTER TABLE ingressos ADD COLUMN valor_inteira_centavos BIGINT;
+ALTER TABLE ingressos ADD COLUMN valor_meia_centavos BIGINT;
+UPDATE ingressos SET valor_inteira_centavos = CAST(ROUND(valor_inteira * 100) AS BIGINT),
+                     valor_meia_centavos = CAST(ROUND(valor_meia * 100) AS BIGINT);
+ALTER TABLE ingressos ALTER COLUMN valor_inteira_centavos SET NOT NULL;
+ALTER TABLE ingressos ALTER COLUMN valor_meia_centavos SET NOT NULL;
+ALTER TABLE ingressos DROP COLUMN valor_inteira;
+ALTER TABLE ingressos DROP COLUMN valor_meia;
+
+ALTER TABLE salas ADD COLUMN tipo VARCHAR(20) DEFAULT 'PADRAO' NOT NULL;
@@ -0,0 +1,9 @@
+-- Versão para o lock otimista das entidades editáveis: cada update confere e
+-- incrementa a coluna, e quem editou a partir de uma versão antiga recebe 409.
+
+ALTER TABLE filmes ADD COLUMN versao BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE salas ADD COLUMN versao BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE lanche_combos ADD COLUMN versao BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE sessoes ADD COLUMN versao BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE ingressos ADD COLUMN versao BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE pedidos ADD COLUMN versao BIGINT DEFAULT 0 NOT NULL;
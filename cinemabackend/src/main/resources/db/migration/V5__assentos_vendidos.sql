@@ -0,0 +1,16 @@
+-- Assentos vendidos, gravados na transação do pedido que os vendeu. O mapa de
+-- assentos de uma sessão é montado a partir daqui no primeiro acesso, e a
+-- chave primária impede que o mesmo assento seja vendido duas vezes.
+
+CREATE TABLE assentos_vendidos (
+    sessao_id BIGINT NOT NULL,
+    fileira INTEGER NOT NULL,
+    numero INTEGER NOT NULL,
+    pedido_id BIGINT NOT NULL,
+    CONSTRAINT pk_assentos_vendidos PRIMARY KEY (sessao_id, fileira, numero)
+);
+
+CREATE INDEX idx_assentos_vendidos_pedido_id ON assentos_vendidos (pedido_id);
+
+ALTER TABLE assentos_vendidos ADD CONSTRAINT fk_assentos_vendidos_sessao FOREIGN KEY (sessao_id) REFERENCES sessoes (id);
+ALTER TABLE assentos_vendidos ADD CONSTRAINT fk_assentos_vendidos_pedido FOREIGN KEY (pedido_id) REFERENCES pedidos (id);
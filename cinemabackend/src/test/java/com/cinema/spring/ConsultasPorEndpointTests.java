@@ -0,0 +1,140 @@
+package com.cinema.spring;
+
+import com.cinema.spring.model.Filme;
+import com.cinema.spring.model.Ingresso;
+import com.cinema.spring.model.LancheCombo;
+import com.cinema.spring.model.Pedido;
+import com.cinema.spring.model.Sala;
+import com.cinema.spring.model.SeatLayout;
+import com.cinema.spring.model.Sessao;
+import com.cinema.spring.repository.FilmeRepository;
+import com.cinema.spring.repository.IngressoRepository;
+import com.cinema.spring.repository.LancheComboRepository;
+import com.cinema.spring.repository.PedidoRepository;
+import com.cinema.spring.repository.SalaRepository;
+import com.cinema.spring.repository.SessaoRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Garante que as listagens executam um número fixo de comandos SQL,
+ * independentemente da quantidade de linhas (sem N+1).
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ConsultasPorEndpointTests {
+	private static final int SESSOES = 20;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private FilmeRepository filmeRepository;
+
+	@Autowired
+	private SalaRepository salaRepository;
+
+	@Autowired
+	private SessaoRepository sessaoRepository;
+
+	@Autowired
+	private IngressoRepository ingressoRepository;
+
+	@Autowired
+	private LancheComboRepository lancheComboRepository;
+
+	@Autowired
+	private PedidoRepository pedidoRepository;
+
+	private Statistics estatisticas;
+
+	@BeforeAll
+	void popular() {
+		estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		Filme filme = filmeRepository.save(new Filme(null, "Filme", "Sinopse", "L", 100, "Elenco", "Drama",
+				LocalDate.of(2026, 1, 1), LocalDate.of(2026, 12, 31), null));
+		Sala sala = salaRepository.save(new Sala(null, 900, 4, SeatLayout.of(new int[][]{{0, 0}, {0, 0}}), Sala.PADRAO, null));
+		List<LancheCombo> combos = lancheComboRepository.saveAll(List.of(
+				new LancheCombo(null, "Pipoca", "Pipoca média", 15.0, 1, 15.0, null),
+				new LancheCombo(null, "Refrigerante", "Lata", 7.0, 1, 7.0, null)));
+		for (int i = 0; i < SESSOES; i++) {
+			Sessao sessao = sessaoRepository.save(new Sessao(null, LocalDateTime.of(2026, 6, 1, 10, 0).plusDays(i), filme, sala));
+			Ingresso ingresso = ingressoRepository.save(new Ingresso(null, 2000L, 1000L, sessao, null));
+			pedidoRepository.save(new Pedido(null, LocalDateTime.now(), 1, 1, ingresso, new ArrayList<>(combos), 52.0, "PIX", null, null));
+		}
+	}
+
+	@ParameterizedTest
+	@CsvSource({
+			"/sessoes, 1",
+			"/sessoes?after=0&limit=5, 1",
+			"/ingresso, 1",
+			"/ingresso?after=0&limit=5, 1",
+			"/pedidos, 2",
+			"/pedidos?after=0&limit=5, 2",
+	})
+	void listagensExecutamConsultasFixas(String url, long esperadas) throws Exception {
+		assertThat(consultas(url)).isEqualTo(esperadas);
+	}
+
+	@ParameterizedTest
+	@CsvSource({
+			"/sessoes/, sessoes, 1",
+			"/ingresso/, ingressos, 1",
+			"/pedidos/, pedidos, 2",
+	})
+	void buscaPorIdExecutaConsultasFixas(String url, String tabela, long esperadas) throws Exception {
+		Long id = switch (tabela) {
+			case "sessoes" -> sessaoRepository.findAll().get(0).getId();
+			case "ingressos" -> ingressoRepository.findAll().get(0).getId();
+			default -> pedidoRepository.findAll().get(0).getId();
+		};
+		assertThat(consultas(url + id)).isEqualTo(esperadas);
+	}
+
+	@ParameterizedTest
+	@CsvSource({
+			"/sessoes, 1",
+			"/ingresso, 1",
+			"/pedidos, 2",
+	})
+	void exportacaoNdjsonExecutaConsultasFixas(String url, long esperadas) throws Exception {
+		estatisticas.clear();
+		MvcResult resultado = mockMvc.perform(get(url).param("formato", "ndjson")).andReturn();
+		String corpo = mockMvc.perform(asyncDispatch(resultado))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		assertThat(corpo.lines()).hasSizeGreaterThanOrEqualTo(SESSOES);
+		assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(esperadas);
+	}
+
+	private long consultas(String url) throws Exception {
+		estatisticas.clear();
+		mockMvc.perform(get(url)).andExpect(status().isOk());
+		return estatisticas.getPrepareStatementCount();
+	}
+}
@@ -0,0 +1,108 @@
+package com.cinema.spring.converter;
+
+import com.cinema.spring.model.SeatLayout;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Formato binário ida e volta, leitura do JSON legado e recusa de dados que
+ * não caberiam no layout sem perda.
+ */
+class PoltronasConverterTests {
+	private final PoltronasConverter converter = new PoltronasConverter();
+
+	@Test
+	void binarioIdaEVolta() {
+		int[][] fileiras = {{0, 0, 0, 1, 255}, {}, {7}, {2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2}};
+		SeatLayout layout = SeatLayout.of(fileiras);
+
+		SeatLayout lido = converter.convertToEntityAttribute(converter.convertToDatabaseColumn(layout));
+
+		assertThat(lido).isEqualTo(layout);
+		assertThat(lido.toArray()).isEqualTo(fileiras);
+	}
+
+	@Test
+	void binarioIdaEVoltaComSalaGrande() {
+		int[][] fileiras = new int[300][];
+		for (int i = 0; i < fileiras.length; i++) {
+			fileiras[i] = new int[200];
+			Arrays.fill(fileiras[i], i % 3);
+		}
+		SeatLayout layout = SeatLayout.of(fileiras);
+
+		assertThat(converter.convertToEntityAttribute(converter.convertToDatabaseColumn(layout))).isEqualTo(layout);
+	}
+
+	@Test
+	void layoutVazioEColunaNula() {
+		assertThat(converter.convertToEntityAttribute(converter.convertToDatabaseColumn(null))).isEqualTo(SeatLayout.VAZIO);
+		assertThat(converter.convertToEntityAttribute(null)).isEqualTo(SeatLayout.VAZIO);
+		assertThat(converter.convertToEntityAttribute("")).isEqualTo(SeatLayout.VAZIO);
+	}
+
+	@Test
+	void jsonLegado() {
+		assertThat(converter.convertToEntityAttribute("[[0,0,1],[0],[255,12]]").toArray())
+				.isEqualTo(new int[][] {{0, 0, 1}, {0}, {255, 12}});
+		assertThat(converter.convertToEntityAttribute("[ [ 0 , 1 ] ,\n [ ] , null ] ").toArray())
+				.isEqualTo(new int[][] {{0, 1}, {}, {}});
+		assertThat(converter.convertToEntityAttribute("[]")).isEqualTo(SeatLayout.VAZIO);
+	}
+
+	@Test
+	void jsonLegadoRegravadoEmBinarioNaoMuda() {
+		SeatLayout legado = converter.convertToEntityAttribute("[[0,0,1],[2]]");
+
+		String binario = converter.convertToDatabaseColumn(legado);
+
+		assertThat(PoltronasConverter.isLegado(binario)).isFalse();
+		assertThat(converter.convertToEntityAttribute(binario)).isEqualTo(legado);
+	}
+
+	@Test
+	void jsonLegadoComValorForaDoIntervaloERecusado() {
+		assertThatThrownBy(() -> converter.convertToEntityAttribute("[[0,-1]]"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("-1");
+		assertThatThrownBy(() -> converter.convertToEntityAttribute("[[256]]"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("256");
+		assertThatThrownBy(() -> converter.convertToEntityAttribute("[[99999999999999999999]]"))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void jsonLegadoMalFormadoERecusado() {
+		for (String json : new String[] {"[[0,1]", "[[0,1]]x", "[[0,,1]]", "[[1.5]]", "[[\"1\"]]", "[0,1]", "[[0 1]]"}) {
+			assertThatThrownBy(() -> converter.convertToEntityAttribute(json))
+					.as(json)
+					.isInstanceOf(IllegalArgumentException.class);
+		}
+	}
+
+	@Test
+	void binarioCorrompidoERecusadoSemEstourarOArray() {
+		byte[] valido = PoltronasConverter.encode(SeatLayout.of(new int[][] {{0, 0, 1}, {3}}));
+		byte[][] corrompidos = {
+				Arrays.copyOf(valido, valido.length - 1),
+				Arrays.copyOf(valido, valido.length + 1),
+				{PoltronasConverter.VERSAO, 1, 3, 4, 0},
+				{PoltronasConverter.VERSAO, 1, 3, 0, 0},
+				{PoltronasConverter.VERSAO, 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0},
+				{PoltronasConverter.VERSAO, 100, 1},
+				{2, 0},
+		};
+		for (byte[] dados : corrompidos) {
+			String coluna = Base64.getEncoder().encodeToString(dados);
+			assertThatThrownBy(() -> converter.convertToEntityAttribute(coluna))
+					.as(Arrays.toString(dados))
+					.isInstanceOf(IllegalArgumentException.class);
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package com.cinema.spring.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Um cliente que para de ler prende a escrita na thread de entrega; com uma
+ * única thread no pool, os assinantes das outras sessões só continuam
+ * recebendo se o preso for desconectado e o pool compensado.
+ */
+@SpringBootTest(properties = {
+		"cinema.assentos.stream-threads=1",
+		"cinema.assentos.stream-prazo-envio=PT0.2S"
+})
+class AssentoEventosTests {
+	@Autowired
+	private AssentoEventos assentoEventos;
+
+	@Test
+	void envioPresoNaoParaOsOutrosAssinantes() throws Exception {
+		EmissorPreso preso = new EmissorPreso();
+		EmissorGravando saudavel = new EmissorGravando();
+		try {
+			assentoEventos.assinar(9_001L, preso, () -> new int[0][]);
+			assertThat(preso.enviando.await(5, TimeUnit.SECONDS)).isTrue();
+
+			assentoEventos.assinar(9_002L, saudavel, () -> new int[0][]);
+			Thread.sleep(300);
+			assentoEventos.vigiarEnvios();
+
+			assertThat(saudavel.eventos.poll(5, TimeUnit.SECONDS)).isNotNull();
+			assertThat(preso.encerrado.await(5, TimeUnit.SECONDS)).isTrue();
+			assertThat(assentoEventos.assinantes(9_001L)).isZero();
+
+			assentoEventos.publicar(9_002L, AssentoEventos.LIBERADO, new int[][]{{0, 1}});
+			assertThat(saudavel.eventos.poll(5, TimeUnit.SECONDS)).isNotNull();
+		} finally {
+			preso.soltar.countDown();
+			assentoEventos.encerrar(9_001L);
+			assentoEventos.encerrar(9_002L);
+		}
+	}
+
+	private static final class EmissorPreso extends SseEmitter {
+		private final CountDownLatch enviando = new CountDownLatch(1);
+		private final CountDownLatch soltar = new CountDownLatch(1);
+		private final CountDownLatch encerrado = new CountDownLatch(1);
+
+		@Override
+		public void send(SseEventBuilder evento) throws IOException {
+			enviando.countDown();
+			try {
+				soltar.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			throw new IOException("Conexão encerrada");
+		}
+
+		@Override
+		public void complete() {
+			encerrado.countDown();
+			super.complete();
+		}
+	}
+
+	private static final class EmissorGravando extends SseEmitter {
+		private final BlockingQueue<SseEventBuilder> eventos = new LinkedBlockingQueue<>();
+
+		@Override
+		public void send(SseEventBuilder evento) {
+			eventos.add(evento);
+		}
+	}
+}
@@ -0,0 +1,183 @@
+package com.cinema.spring.service;
+
+import com.cinema.spring.dto.AssentoDTO;
+import com.cinema.spring.dto.PedidoDTO;
+import com.cinema.spring.dto.ReservaAssentosDTO;
+import com.cinema.spring.dto.SessaoDTO;
+import com.cinema.spring.model.Filme;
+import com.cinema.spring.model.Ingresso;
+import com.cinema.spring.model.Sala;
+import com.cinema.spring.model.SeatLayout;
+import com.cinema.spring.model.Sessao;
+import com.cinema.spring.repository.FilmeRepository;
+import com.cinema.spring.repository.IngressoRepository;
+import com.cinema.spring.repository.PedidoRepository;
+import com.cinema.spring.repository.SalaRepository;
+import com.cinema.spring.repository.SessaoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Assentos vendidos sobrevivem ao descarte do mapa em memória (como numa nova
+ * subida), porque o mapa é remontado a partir de assentos_vendidos; e o mapa
+ * de uma sessão que já começou sai da varredura. Mudanças de sala ou de
+ * layout descartam o mapa e não podem apagar assentos vendidos.
+ */
+@SpringBootTest
+class AssentoServiceTests {
+	@Autowired
+	private AssentoService assentoService;
+
+	@Autowired
+	private PedidoService pedidoService;
+
+	@Autowired
+	private PedidoRepository pedidoRepository;
+
+	@Autowired
+	private FilmeRepository filmeRepository;
+
+	@Autowired
+	private SalaRepository salaRepository;
+
+	@Autowired
+	private SessaoRepository sessaoRepository;
+
+	@Autowired
+	private IngressoRepository ingressoRepository;
+
+	@Autowired
+	private SalaService salaService;
+
+	@Autowired
+	private SessaoService sessaoService;
+
+	private static final AtomicInteger numeroSala = new AtomicInteger(700);
+
+	@Test
+	void vendaEhRemontadaDoBancoEExclusaoDoPedidoLibera() {
+		Ingresso ingresso = ingresso(LocalDateTime.now().plusDays(1));
+		Long sessao = ingresso.getSessao().getId();
+		List<AssentoDTO> assentos = List.of(new AssentoDTO(0, 1), new AssentoDTO(1, 4));
+		ReservaAssentosDTO reserva = assentoService.reservar(sessao, assentos).orElseThrow();
+
+		PedidoDTO pedido = pedidoService.save(pedido(ingresso, reserva));
+		assentoService.descartar(sessao);
+
+		int[][] estados = assentoService.findBySessao(sessao).orElseThrow();
+		assertThat(estados[0][1]).isEqualTo(MapaAssentos.VENDIDO);
+		assertThat(estados[1][4]).isEqualTo(MapaAssentos.VENDIDO);
+		assertThat(estados[0][0]).isEqualTo(MapaAssentos.LIVRE);
+
+		pedidoService.deleteById(pedido.getId());
+
+		assertThat(assentoService.findBySessao(sessao).orElseThrow()[0][1]).isEqualTo(MapaAssentos.LIVRE);
+		assentoService.descartar(sessao);
+		assertThat(assentoService.findBySessao(sessao).orElseThrow()[1][4]).isEqualTo(MapaAssentos.LIVRE);
+	}
+
+	@Test
+	void tokenQueNaoEhDaReservaNaoVende() {
+		Ingresso ingresso = ingresso(LocalDateTime.now().plusDays(1));
+		Long sessao = ingresso.getSessao().getId();
+		List<AssentoDTO> assentos = List.of(new AssentoDTO(0, 0), new AssentoDTO(0, 1));
+		ReservaAssentosDTO reserva = assentoService.reservar(sessao, assentos).orElseThrow();
+		long antes = pedidoRepository.count();
+
+		ReservaAssentosDTO alheia = new ReservaAssentosDTO(UUID.randomUUID().toString(), assentos, reserva.getExpiraEm());
+		assertThatThrownBy(() -> pedidoService.save(pedido(ingresso, alheia)))
+				.isInstanceOf(IllegalStateException.class);
+
+		assertThat(pedidoRepository.count()).isEqualTo(antes);
+		assertThat(assentoService.findBySessao(sessao).orElseThrow()[0][0]).isEqualTo(MapaAssentos.RESERVADO);
+	}
+
+	@Test
+	void mapaDeSessaoJaIniciadaEhDescartadoPelaVarredura() {
+		Ingresso ingresso = ingresso(LocalDateTime.now().minusHours(3));
+		Long sessao = ingresso.getSessao().getId();
+		assentoService.reservar(sessao, List.of(new AssentoDTO(0, 2))).orElseThrow();
+
+		assentoService.liberarExpirados();
+
+		assertThat(assentoService.findBySessao(sessao).orElseThrow()[0][2]).isEqualTo(MapaAssentos.LIVRE);
+	}
+
+	@Test
+	void layoutQueApagariaAssentoVendidoERecusadoEONovoLayoutChegaAoMapa() {
+		Ingresso ingresso = ingresso(LocalDateTime.now().plusDays(1));
+		Long sessao = ingresso.getSessao().getId();
+		Sala sala = ingresso.getSessao().getSala();
+		ReservaAssentosDTO reserva = assentoService.reservar(sessao, List.of(new AssentoDTO(1, 4))).orElseThrow();
+		pedidoService.save(pedido(ingresso, reserva));
+
+		Sala menor = new Sala(null, sala.getNumero(), 10, SeatLayout.of(new int[][]{{0, 0, 0, 0, 0}, {0, 0, 0}}), Sala.PADRAO, null);
+		assertThatThrownBy(() -> salaService.update(sala.getId(), menor))
+				.isInstanceOf(IllegalStateException.class);
+
+		Sala maior = new Sala(null, sala.getNumero(), 10, SeatLayout.of(new int[][]{{0, 0, 0, 0, 0}, {0, 0, 0, 0, 0}, {0, 0}}), Sala.PADRAO, null);
+		salaService.update(sala.getId(), maior);
+
+		int[][] estados = assentoService.findBySessao(sessao).orElseThrow();
+		assertThat(estados).hasNumberOfRows(3);
+		assertThat(estados[1][4]).isEqualTo(MapaAssentos.VENDIDO);
+	}
+
+	@Test
+	void sessaoComVendasNaoVaiParaSalaOndeOsAssentosNaoCabem() {
+		Ingresso ingresso = ingresso(LocalDateTime.now().plusDays(1));
+		Sessao sessao = ingresso.getSessao();
+		ReservaAssentosDTO reserva = assentoService.reservar(sessao.getId(), List.of(new AssentoDTO(1, 4))).orElseThrow();
+		pedidoService.save(pedido(ingresso, reserva));
+		Sala pequena = salaRepository.save(new Sala(null, numeroSala.incrementAndGet(), 10, SeatLayout.of(new int[][]{{0, 0, 0}}), Sala.PADRAO, null));
+
+		assertThatThrownBy(() -> sessaoService.update(sessao.getId(),
+				new SessaoDTO(sessao.getId(), sessao.getHorario(), sessao.getFilme().getId(), pequena.getId(), null)))
+				.isInstanceOf(IllegalStateException.class);
+		assertThat(assentoService.findBySessao(sessao.getId()).orElseThrow()[1][4]).isEqualTo(MapaAssentos.VENDIDO);
+	}
+
+	@Test
+	void sessaoQueMudaDeSalaTemOMapaRemontadoComONovoLayout() {
+		Ingresso ingresso = ingresso(LocalDateTime.now().plusDays(1));
+		Sessao sessao = ingresso.getSessao();
+		assentoService.reservar(sessao.getId(), List.of(new AssentoDTO(0, 0))).orElseThrow();
+		Sala outra = salaRepository.save(new Sala(null, numeroSala.incrementAndGet(), 10, SeatLayout.of(new int[][]{{0, 0, 0}}), Sala.PADRAO, null));
+
+		sessaoService.update(sessao.getId(), new SessaoDTO(sessao.getId(), sessao.getHorario(), sessao.getFilme().getId(), outra.getId(), null));
+
+		int[][] estados = assentoService.findBySessao(sessao.getId()).orElseThrow();
+		assertThat(estados).hasNumberOfRows(1);
+		assertThat(estados[0]).containsExactly(MapaAssentos.LIVRE, MapaAssentos.LIVRE, MapaAssentos.LIVRE);
+	}
+
+	private static PedidoDTO pedido(Ingresso ingresso, ReservaAssentosDTO reserva) {
+		PedidoDTO pedido = new PedidoDTO();
+		pedido.setDataHora(LocalDateTime.now());
+		pedido.setIngressosMeiaQtd(0);
+		pedido.setIngressosInteiraQtd(reserva.getAssentos().size());
+		pedido.setIngresso(ingresso.getId());
+		pedido.setLancheCombos(List.of());
+		pedido.setMetodoPagamento("PIX");
+		pedido.setReserva(reserva);
+		return pedido;
+	}
+
+	private Ingresso ingresso(LocalDateTime horario) {
+		Filme filme = filmeRepository.save(new Filme(null, "Filme", "Sinopse", "L", 100, "Elenco", "Drama",
+				LocalDate.of(2026, 1, 1), LocalDate.of(2026, 12, 31), null));
+		Sala sala = salaRepository.save(new Sala(null, numeroSala.incrementAndGet(), 10, SeatLayout.of(new int[][]{{0, 0, 0, 0, 0}, {0, 0, 0, 0, 0}}), Sala.PADRAO, null));
+		Sessao sessao = sessaoRepository.save(new Sessao(null, horario, filme, sala));
+		return ingressoRepository.save(new Ingresso(null, 2000L, 1000L, sessao, null));
+	}
+}
@@ -0,0 +1,150 @@
+package com.cinema.spring.service;
+
+import com.cinema.spring.model.Ingresso;
+import com.cinema.spring.model.LancheCombo;
+import com.cinema.spring.model.Pedido;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Queda do processo simulada abandonando o diário sem fechá-lo: o que foi
+ * sincronizado e não concluído tem de voltar na reabertura, inteiro e na ordem.
+ */
+class DiarioCheckoutTests {
+	private static final int SEGMENTO = 64 * 1024;
+
+	@TempDir
+	Path diretorio;
+
+	@Test
+	void pedidosSincronizadosVoltamAposQueda() throws IOException {
+		DiarioCheckout diario = new DiarioCheckout(diretorio, SEGMENTO, Duration.ZERO);
+		Pedido primeiro = pedido(10L, "Cartão de crédito", 1L, 1L, 2L);
+		Pedido segundo = pedido(11L, "PIX");
+		diario.anexar(primeiro);
+		diario.sincronizar(diario.anexar(segundo));
+
+		List<DiarioCheckout.Registro> pendentes = new DiarioCheckout(diretorio, SEGMENTO, Duration.ZERO).pendentes();
+
+		assertThat(pendentes).extracting(DiarioCheckout.Registro::sequencia).containsExactly(1L, 2L);
+		DiarioCheckout.Registro registro = pendentes.get(0);
+		assertThat(registro.token()).isEqualTo(primeiro.getCheckoutToken());
+		assertThat(registro.dataHora()).isEqualTo(primeiro.getDataHora());
+		assertThat(registro.ingresso()).isEqualTo(10L);
+		assertThat(registro.ingressosMeiaQtd()).isEqualTo(1);
+		assertThat(registro.ingressosInteiraQtd()).isEqualTo(2);
+		assertThat(registro.valorTotal()).isEqualTo(52.5);
+		assertThat(registro.metodoPagamento()).isEqualTo("Cartão de crédito");
+		assertThat(registro.lancheCombos()).containsExactly(1L, 1L, 2L);
+		assertThat(pendentes.get(1).lancheCombos()).isEmpty();
+	}
+
+	@Test
+	void sequenciaContinuaDepoisDaReabertura() throws IOException {
+		DiarioCheckout diario = new DiarioCheckout(diretorio, SEGMENTO, Duration.ZERO);
+		diario.sincronizar(diario.anexar(pedido(1L, "PIX")));
+
+		DiarioCheckout reaberto = new DiarioCheckout(diretorio, SEGMENTO, Duration.ZERO);
+
+		assertThat(reaberto.anexar(pedido(1L, "PIX"))).isEqualTo(2L);
+	}
+
+	@Test
+	void concluidosNaoVoltam() throws IOException {
+		DiarioCheckout diario = new DiarioCheckout(diretorio, SEGMENTO, Duration.ZERO);
+		for (int i = 0; i < 3; i++) {
+			diario.anexar(pedido(1L, "PIX"));
+		}
+		diario.sincronizar(3);
+		diario.concluir(2);
+		diario.avancar();
+
+		assertThat(new DiarioCheckout(diretorio, SEGMENTO, Duration.ZERO).pendentes())
+				.extracting(DiarioCheckout.Registro::sequencia)
+				.containsExactly(3L);
+	}
+
+	@Test
+	void concluidosDentroDaRetencaoAindaVoltam() throws IOException {
+		DiarioCheckout diario = new DiarioCheckout(diretorio, SEGMENTO, Duration.ofHours(1));
+		diario.sincronizar(diario.anexar(pedido(1L, "PIX")));
+		diario.concluir(1);
+		diario.avancar();
+
+		assertThat(new DiarioCheckout(diretorio, SEGMENTO, Duration.ZERO).pendentes()).hasSize(1);
+	}
+
+	@Test
+	void registroIncompletoNoFimEDescartado() throws IOException {
+		DiarioCheckout diario = new DiarioCheckout(diretorio, SEGMENTO, Duration.ZERO);
+		for (int i = 0; i < 3; i++) {
+			diario.anexar(pedido(1L, "PIX"));
+		}
+		diario.sincronizar(3);
+		corromperRegistro(segmentos().get(0), 2);
+
+		assertThat(new DiarioCheckout(diretorio, SEGMENTO, Duration.ZERO).pendentes())
+				.extracting(DiarioCheckout.Registro::sequencia)
+				.containsExactly(1L, 2L);
+	}
+
+	@Test
+	void segmentosConcluidosSaoApagados() throws IOException {
+		DiarioCheckout diario = new DiarioCheckout(diretorio, 512, Duration.ZERO);
+		for (int i = 0; i < 20; i++) {
+			diario.anexar(pedido(1L, "PIX", 1L));
+		}
+		diario.sincronizar(20);
+		assertThat(segmentos()).hasSizeGreaterThan(2);
+
+		diario.concluir(15);
+		diario.avancar();
+		List<DiarioCheckout.Registro> pendentes = new DiarioCheckout(diretorio, 512, Duration.ZERO).pendentes();
+
+		assertThat(pendentes).extracting(DiarioCheckout.Registro::sequencia).containsExactly(16L, 17L, 18L, 19L, 20L);
+	}
+
+	private List<Path> segmentos() throws IOException {
+		try (Stream<Path> arquivos = Files.list(diretorio)) {
+			return arquivos.sorted().toList();
+		}
+	}
+
+	private static void corromperRegistro(Path segmento, int indice) throws IOException {
+		try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer tamanho = ByteBuffer.allocate(4);
+			long posicao = 32;
+			for (int i = 0; i < indice; i++) {
+				canal.read(tamanho.clear(), posicao);
+				posicao += 16 + tamanho.getInt(0);
+			}
+			canal.write(ByteBuffer.wrap(new byte[]{(byte) 0xff, (byte) 0xff}), posicao + 20);
+		}
+	}
+
+	private static Pedido pedido(Long ingressoId, String metodoPagamento, Long... lancheCombos) {
+		Ingresso ingresso = new Ingresso();
+		ingresso.setId(ingressoId);
+		List<LancheCombo> combos = new ArrayList<>();
+		for (Long id : lancheCombos) {
+			combos.add(new LancheCombo(id, "Combo", "Combo", 10.0, 1, 10.0, null));
+		}
+		return new Pedido(null, LocalDateTime.of(2026, 10, 20, 19, 30, 15, 123_456_789), 1, 2, ingresso, combos,
+				52.5, metodoPagamento, UUID.randomUUID().toString(), null);
+	}
+}
@@ -0,0 +1,129 @@
+package com.cinema.spring.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Transições do mapa de assentos: reservas concorrentes, expiração, venda e
+ * desfazimento da venda quando o pedido não é gravado.
+ */
+class MapaAssentosTests {
+	private static final long AGORA = 1_000_000L;
+	private static final long TTL = 60_000L;
+
+	@Test
+	void reservasConcorrentesNoMesmoAssentoTemUmUnicoVencedor() throws Exception {
+		MapaAssentos mapa = new MapaAssentos(new int[] {10, 10});
+		int threads = 16;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch largada = new CountDownLatch(1);
+		List<Future<String>> tentativas = new ArrayList<>();
+		try {
+			for (int i = 0; i < threads; i++) {
+				int[] assentos = i % 2 == 0 ? new int[] {11, 12} : new int[] {12, 13};
+				tentativas.add(executor.submit(() -> {
+					largada.await();
+					return mapa.reservar(assentos, AGORA + TTL, AGORA);
+				}));
+			}
+			largada.countDown();
+			int vencedores = 0;
+			for (Future<String> tentativa : tentativas) {
+				if (tentativa.get(10, TimeUnit.SECONDS) != null) {
+					vencedores++;
+				}
+			}
+			assertThat(vencedores).isEqualTo(1);
+		} finally {
+			executor.shutdownNow();
+		}
+		assertThat(mapa.estado(12, AGORA)).isEqualTo(MapaAssentos.RESERVADO);
+		assertThat(mapa.estado(11, AGORA) + mapa.estado(13, AGORA)).isEqualTo(MapaAssentos.RESERVADO);
+	}
+
+	@Test
+	void reservaEhTudoOuNada() {
+		MapaAssentos mapa = new MapaAssentos(new int[] {5});
+		assertThat(mapa.reservar(new int[] {0, 1}, AGORA + TTL, AGORA)).isNotNull();
+
+		assertThat(mapa.reservar(new int[] {1, 2}, AGORA + TTL, AGORA)).isNull();
+
+		assertThat(mapa.estado(2, AGORA)).isEqualTo(MapaAssentos.LIVRE);
+	}
+
+	@Test
+	void tokenDeUmaReservaNaoVendeOutra() {
+		MapaAssentos mapa = new MapaAssentos(new int[] {2});
+		String primeiro = mapa.reservar(new int[] {0}, AGORA + TTL, AGORA);
+		String segundo = mapa.reservar(new int[] {1}, AGORA + TTL, AGORA);
+
+		assertThat(primeiro).isNotEqualTo(segundo).hasSizeGreaterThanOrEqualTo(32);
+		assertThat(mapa.confirmar(segundo, new int[] {0}, AGORA)).isNull();
+		assertThat(mapa.confirmar("1", new int[] {0}, AGORA)).isNull();
+	}
+
+	@Test
+	void reservaExpiradaLiberaOAssentoEInvalidaOToken() {
+		MapaAssentos mapa = new MapaAssentos(new int[] {3});
+		String token = mapa.reservar(new int[] {1}, AGORA + TTL, AGORA);
+		long depois = AGORA + TTL;
+
+		assertThat(mapa.estado(1, depois)).isEqualTo(MapaAssentos.LIVRE);
+		assertThat(mapa.confirmar(token, new int[] {1}, depois)).isNull();
+
+		List<Integer> liberados = new ArrayList<>();
+		mapa.liberarExpirados(depois, liberados::add);
+		assertThat(liberados).containsExactly(1);
+		assertThat(mapa.reservar(new int[] {1}, depois + TTL, depois)).isNotNull();
+	}
+
+	@Test
+	void vendaConsomeOTokenEExigeOsMesmosAssentos() {
+		MapaAssentos mapa = new MapaAssentos(new int[] {4});
+		String token = mapa.reservar(new int[] {0, 1}, AGORA + TTL, AGORA);
+
+		assertThat(mapa.confirmar(token, new int[] {0}, AGORA)).isNull();
+		assertThat(mapa.confirmar(token, new int[] {0, 1}, AGORA)).isNotNull();
+
+		assertThat(mapa.estado(0, AGORA)).isEqualTo(MapaAssentos.VENDIDO);
+		assertThat(mapa.estado(1, AGORA + 2 * TTL)).isEqualTo(MapaAssentos.VENDIDO);
+		assertThat(mapa.confirmar(token, new int[] {0, 1}, AGORA)).isNull();
+	}
+
+	@Test
+	void vendaDesfeitaVoltaAReservaComOMesmoToken() {
+		MapaAssentos mapa = new MapaAssentos(new int[] {4});
+		int[] assentos = {2, 3};
+		String token = mapa.reservar(assentos, AGORA + TTL, AGORA);
+		MapaAssentos.Reserva venda = mapa.confirmar(token, assentos, AGORA);
+
+		mapa.desfazerVenda(token, venda);
+
+		assertThat(mapa.estado(2, AGORA)).isEqualTo(MapaAssentos.RESERVADO);
+		assertThat(mapa.estado(3, AGORA)).isEqualTo(MapaAssentos.RESERVADO);
+		assertThat(mapa.reservar(new int[] {3}, AGORA + TTL, AGORA)).isNull();
+		assertThat(mapa.confirmar(token, assentos, AGORA)).isNotNull();
+	}
+
+	@Test
+	void assentoVendidoNaCargaNaoPodeSerReservadoAteSerLiberado() {
+		MapaAssentos mapa = new MapaAssentos(new int[] {2, 2});
+		mapa.marcarVendido(mapa.indice(1, 0));
+
+		assertThat(mapa.reservar(new int[] {2}, AGORA + TTL, AGORA)).isNull();
+		mapa.liberarExpirados(AGORA + 10 * TTL, indice -> { });
+		assertThat(mapa.estado(2, AGORA + 10 * TTL)).isEqualTo(MapaAssentos.VENDIDO);
+
+		mapa.liberarVenda(2);
+		assertThat(mapa.reservar(new int[] {2}, AGORA + TTL, AGORA)).isNotNull();
+	}
+}
@@ -0,0 +1,102 @@
+package com.cinema.spring.service;
+
+import com.cinema.spring.dto.PedidoDTO;
+import com.cinema.spring.model.Filme;
+import com.cinema.spring.model.Ingresso;
+import com.cinema.spring.model.Sala;
+import com.cinema.spring.model.SeatLayout;
+import com.cinema.spring.model.Sessao;
+import com.cinema.spring.repository.FilmeRepository;
+import com.cinema.spring.repository.IngressoRepository;
+import com.cinema.spring.repository.SalaRepository;
+import com.cinema.spring.repository.SessaoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * O contador de lotação carregado depois de uma liberação ainda não
+ * confirmada não pode ser publicado: se a transação for revertida, os
+ * vendidos têm de continuar os do banco.
+ */
+@SpringBootTest
+class OcupacaoServiceTests {
+	@Autowired
+	private OcupacaoService ocupacaoService;
+
+	@Autowired
+	private PedidoService pedidoService;
+
+	@Autowired
+	private FilmeRepository filmeRepository;
+
+	@Autowired
+	private SalaRepository salaRepository;
+
+	@Autowired
+	private SessaoRepository sessaoRepository;
+
+	@Autowired
+	private IngressoRepository ingressoRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private static final AtomicInteger numeroSala = new AtomicInteger(800);
+
+	@Test
+	void alteracaoRevertidaNaoDeixaContadorComALiberacao() {
+		Ingresso ingresso = ingresso();
+		Long sessao = ingresso.getSessao().getId();
+		PedidoDTO pedido = pedidoService.save(pedido(ingresso, 3));
+		ocupacaoService.invalidar(sessao);
+
+		assertThatThrownBy(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			pedidoService.update(pedido.getId(), pedido(ingresso, 1));
+			throw new IllegalStateException("reverter");
+		})).hasMessage("reverter");
+
+		assertThat(ocupacaoService.vendidos(sessao)).isEqualTo(3);
+	}
+
+	@Test
+	void alteracaoConfirmadaRecarregaOContador() {
+		Ingresso ingresso = ingresso();
+		Long sessao = ingresso.getSessao().getId();
+		PedidoDTO pedido = pedidoService.save(pedido(ingresso, 3));
+		ocupacaoService.invalidar(sessao);
+
+		pedidoService.update(pedido.getId(), pedido(ingresso, 1));
+
+		assertThat(ocupacaoService.vendidos(sessao)).isEqualTo(1);
+	}
+
+	private static PedidoDTO pedido(Ingresso ingresso, int inteiras) {
+		PedidoDTO pedido = new PedidoDTO();
+		pedido.setDataHora(LocalDateTime.now());
+		pedido.setIngressosMeiaQtd(0);
+		pedido.setIngressosInteiraQtd(inteiras);
+		pedido.setIngresso(ingresso.getId());
+		pedido.setLancheCombos(List.of());
+		pedido.setMetodoPagamento("PIX");
+		return pedido;
+	}
+
+	private Ingresso ingresso() {
+		Filme filme = filmeRepository.save(new Filme(null, "Filme", "Sinopse", "L", 100, "Elenco", "Drama",
+				LocalDate.of(2026, 1, 1), LocalDate.of(2026, 12, 31), null));
+		Sala sala = salaRepository.save(new Sala(null, numeroSala.incrementAndGet(), 10, SeatLayout.of(new int[][]{{0, 0, 0, 0, 0}}), Sala.PADRAO, null));
+		Sessao sessao = sessaoRepository.save(new Sessao(null, LocalDateTime.now().plusDays(1), filme, sala));
+		return ingressoRepository.save(new Ingresso(null, 2000L, 1000L, sessao, null));
+	}
+}
@@ -0,0 +1,59 @@
+package com.cinema.spring.service;
+
+import com.cinema.spring.dto.ProgramacaoDTO;
+import com.cinema.spring.dto.SessaoDTO;
+import com.cinema.spring.model.Filme;
+import com.cinema.spring.model.Sala;
+import com.cinema.spring.model.SeatLayout;
+import com.cinema.spring.repository.FilmeRepository;
+import com.cinema.spring.repository.SalaRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Só os dias de hoje em diante ficam em memória; um dia passado é lido do
+ * banco, e uma sessão que passa para o passado sai dos dias em memória.
+ */
+@SpringBootTest
+class ProgramacaoServiceTests {
+	@Autowired
+	private ProgramacaoService programacaoService;
+
+	@Autowired
+	private SessaoService sessaoService;
+
+	@Autowired
+	private FilmeRepository filmeRepository;
+
+	@Autowired
+	private SalaRepository salaRepository;
+
+	private static final AtomicInteger numeroSala = new AtomicInteger(900);
+
+	@Test
+	void diaPassadoVemDoBancoESessaoMovidaParaOPassadoSaiDaMemoria() {
+		Filme filme = filmeRepository.save(new Filme(null, "Filme", "Sinopse", "L", 100, "Elenco", "Drama",
+				LocalDate.of(2020, 1, 1), LocalDate.of(2099, 12, 31), null));
+		Sala sala = salaRepository.save(new Sala(null, numeroSala.incrementAndGet(), 10, SeatLayout.of(new int[][]{{0, 0}}), Sala.PADRAO, null));
+		LocalDateTime amanha = LocalDate.now().plusDays(1).atTime(14, 0);
+		SessaoDTO sessao = sessaoService.save(new SessaoDTO(null, amanha, filme.getId(), sala.getId(), null));
+
+		assertThat(programacaoService.findByData(amanha.toLocalDate()))
+				.extracting(ProgramacaoDTO::getSessao).contains(sessao.getId());
+
+		LocalDateTime ontem = LocalDate.now().minusDays(1).atTime(14, 0);
+		sessaoService.update(sessao.getId(), new SessaoDTO(sessao.getId(), ontem, filme.getId(), sala.getId(), null));
+
+		assertThat(programacaoService.findByData(amanha.toLocalDate()))
+				.extracting(ProgramacaoDTO::getSessao).doesNotContain(sessao.getId());
+		assertThat(programacaoService.findByData(ontem.toLocalDate()))
+				.extracting(ProgramacaoDTO::getSessao).contains(sessao.getId());
+	}
+}
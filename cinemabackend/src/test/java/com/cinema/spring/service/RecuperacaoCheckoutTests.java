@@ -0,0 +1,120 @@
+package com.cinema.spring.service;
+
+import com.cinema.spring.dto.CheckoutConfirmacaoDTO;
+import com.cinema.spring.model.Filme;
+import com.cinema.spring.model.Ingresso;
+import com.cinema.spring.model.LancheCombo;
+import com.cinema.spring.model.Pedido;
+import com.cinema.spring.model.Sala;
+import com.cinema.spring.model.SeatLayout;
+import com.cinema.spring.model.Sessao;
+import com.cinema.spring.repository.FilmeRepository;
+import com.cinema.spring.repository.IngressoRepository;
+import com.cinema.spring.repository.LancheComboRepository;
+import com.cinema.spring.repository.PedidoRepository;
+import com.cinema.spring.repository.SalaRepository;
+import com.cinema.spring.repository.SessaoRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reprocessamento do diário de checkout depois de uma queda: pedidos aceitos
+ * que não chegaram ao banco são gravados uma única vez, e os que chegaram (o
+ * commit aconteceu, mas o ponto do diário não avançou) não são duplicados.
+ */
+@SpringBootTest
+class RecuperacaoCheckoutTests {
+	@TempDir
+	Path diretorio;
+
+	@Autowired
+	private CheckoutService checkoutService;
+
+	@Autowired
+	private FilmeRepository filmeRepository;
+
+	@Autowired
+	private SalaRepository salaRepository;
+
+	@Autowired
+	private SessaoRepository sessaoRepository;
+
+	@Autowired
+	private IngressoRepository ingressoRepository;
+
+	@Autowired
+	private LancheComboRepository lancheComboRepository;
+
+	@Autowired
+	private PedidoRepository pedidoRepository;
+
+	@Test
+	void pedidosDoDiarioSaoGravadosUmaUnicaVez() throws IOException {
+		Ingresso ingresso = ingresso();
+		LancheCombo combo = lancheComboRepository.save(new LancheCombo(null, "Pipoca", "Pipoca média", 15.0, 1, 15.0, null));
+		Pedido gravado = pedido(ingresso, List.of(combo));
+		Pedido perdido = pedido(ingresso, List.of(combo, combo));
+		Pedido semIngresso = pedido(new Ingresso(Long.MAX_VALUE, 2000L, 1000L, null, null), List.of());
+
+		DiarioCheckout diario = new DiarioCheckout(diretorio, 64 * 1024, Duration.ZERO);
+		diario.anexar(gravado);
+		diario.anexar(perdido);
+		diario.sincronizar(diario.anexar(semIngresso));
+		Long gravadoId = pedidoRepository.save(copia(gravado)).getId();
+		long antes = pedidoRepository.count();
+
+		List<DiarioCheckout.Registro> pendentes = new DiarioCheckout(diretorio, 64 * 1024, Duration.ZERO).pendentes();
+		int gravados = checkoutService.recuperar(pendentes);
+
+		assertThat(gravados).isEqualTo(1);
+		assertThat(pedidoRepository.count()).isEqualTo(antes + 1);
+		assertThat(status(gravado)).extracting(CheckoutConfirmacaoDTO::getStatus, CheckoutConfirmacaoDTO::getPedido)
+				.containsExactly(CheckoutConfirmacaoDTO.CONFIRMADO, gravadoId);
+		CheckoutConfirmacaoDTO recuperado = status(perdido);
+		assertThat(recuperado.getStatus()).isEqualTo(CheckoutConfirmacaoDTO.CONFIRMADO);
+		Pedido salvo = pedidoRepository.findById(recuperado.getPedido()).orElseThrow();
+		assertThat(salvo.getCheckoutToken()).isEqualTo(perdido.getCheckoutToken());
+		assertThat(salvo.getValorTotal()).isEqualTo(perdido.getValorTotal());
+		assertThat(pedidoRepository.findLancheCombos(List.of(salvo.getId()))).hasSize(2);
+		assertThat(status(semIngresso).getStatus()).isEqualTo(CheckoutConfirmacaoDTO.FALHOU);
+
+		assertThat(checkoutService.recuperar(pendentes)).isZero();
+		assertThat(pedidoRepository.count()).isEqualTo(antes + 1);
+	}
+
+	private CheckoutConfirmacaoDTO status(Pedido pedido) {
+		return checkoutService.findByToken(pedido.getCheckoutToken()).orElseThrow();
+	}
+
+	private Ingresso ingresso() {
+		Filme filme = filmeRepository.save(new Filme(null, "Filme", "Sinopse", "L", 100, "Elenco", "Drama",
+				LocalDate.of(2026, 1, 1), LocalDate.of(2026, 12, 31), null));
+		Sala sala = salaRepository.save(new Sala(null, 800, 10, SeatLayout.of(new int[][]{{0, 0, 0, 0, 0}, {0, 0, 0, 0, 0}}), Sala.PADRAO, null));
+		Sessao sessao = sessaoRepository.save(new Sessao(null, LocalDateTime.of(2026, 11, 1, 20, 0), filme, sala));
+		return ingressoRepository.save(new Ingresso(null, 2000L, 1000L, sessao, null));
+	}
+
+	private static Pedido pedido(Ingresso ingresso, List<LancheCombo> combos) {
+		return new Pedido(null, LocalDateTime.of(2026, 10, 20, 19, 30), 1, 1, ingresso, new ArrayList<>(combos),
+				30.0 + 15.0 * combos.size(), "PIX", UUID.randomUUID().toString(), null);
+	}
+
+	private static Pedido copia(Pedido pedido) {
+		return new Pedido(null, pedido.getDataHora(), pedido.getIngressosMeiaQtd(), pedido.getIngressosInteiraQtd(),
+				pedido.getIngresso(), new ArrayList<>(pedido.getLancheCombos()), pedido.getValorTotal(),
+				pedido.getMetodoPagamento(), pedido.getCheckoutToken(), null);
+	}
+}
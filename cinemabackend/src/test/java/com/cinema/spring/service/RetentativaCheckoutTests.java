@@ -0,0 +1,142 @@
+package com.cinema.spring.service;
+
+import com.cinema.spring.dto.CheckoutConfirmacaoDTO;
+import com.cinema.spring.dto.CheckoutDTO;
+import com.cinema.spring.model.Filme;
+import com.cinema.spring.model.Ingresso;
+import com.cinema.spring.model.Pedido;
+import com.cinema.spring.model.Sala;
+import com.cinema.spring.model.SeatLayout;
+import com.cinema.spring.model.Sessao;
+import com.cinema.spring.repository.FilmeRepository;
+import com.cinema.spring.repository.IngressoRepository;
+import com.cinema.spring.repository.PedidoRepository;
+import com.cinema.spring.repository.SalaRepository;
+import com.cinema.spring.repository.SessaoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+
+/**
+ * Falha transitória do banco durante a gravação do checkout: o pedido não é
+ * dado como falho, fica pendente e é gravado (uma única vez) quando o banco
+ * volta, tanto no escritor quanto no reprocessamento do diário.
+ */
+@SpringBootTest(properties = "cinema.checkout.retentativa.espera-inicial=PT0.01S")
+class RetentativaCheckoutTests {
+	@Autowired
+	private CheckoutService checkoutService;
+
+	@MockitoSpyBean
+	private PedidoRepository pedidoRepository;
+
+	@Autowired
+	private FilmeRepository filmeRepository;
+
+	@Autowired
+	private SalaRepository salaRepository;
+
+	@Autowired
+	private SessaoRepository sessaoRepository;
+
+	@Autowired
+	private IngressoRepository ingressoRepository;
+
+	private static final AtomicInteger numeroSala = new AtomicInteger(810);
+
+	private final AtomicBoolean indisponivel = new AtomicBoolean();
+	private final AtomicInteger falhas = new AtomicInteger();
+
+	@BeforeEach
+	void simularQuedaDoBanco() {
+		Answer<?> real = mockingDetails(pedidoRepository).getMockCreationSettings().getDefaultAnswer();
+		Answer<?> gravacao = invocacao -> {
+			if (indisponivel.get()) {
+				falhas.incrementAndGet();
+				throw new DataAccessResourceFailureException("Banco indisponível");
+			}
+			return real.answer(invocacao);
+		};
+		doAnswer(gravacao).when(pedidoRepository).saveAll(any());
+		doAnswer(gravacao).when(pedidoRepository).save(any());
+	}
+
+	@Test
+	void checkoutComBancoIndisponivelEGravadoNaRetentativa() throws InterruptedException {
+		Ingresso ingresso = ingresso();
+		long antes = pedidoRepository.count();
+		indisponivel.set(true);
+
+		CheckoutConfirmacaoDTO aceito = checkoutService.checkout(new CheckoutDTO(ingresso.getId(), 1, 1, List.of(), "PIX"));
+
+		long limite = System.nanoTime() + 10_000_000_000L;
+		while (falhas.get() < 3 && System.nanoTime() < limite) {
+			Thread.sleep(10);
+		}
+		assertThat(falhas.get()).isGreaterThanOrEqualTo(3);
+		assertThat(checkoutService.findByToken(aceito.getToken()).orElseThrow().getStatus())
+				.isEqualTo(CheckoutConfirmacaoDTO.PENDENTE);
+		indisponivel.set(false);
+		CheckoutConfirmacaoDTO confirmado = aguardarConclusao(aceito.getToken());
+		assertThat(confirmado.getStatus()).isEqualTo(CheckoutConfirmacaoDTO.CONFIRMADO);
+		assertThat(pedidoRepository.count()).isEqualTo(antes + 1);
+		assertThat(pedidoRepository.findById(confirmado.getPedido()).orElseThrow().getCheckoutToken())
+				.isEqualTo(aceito.getToken());
+	}
+
+	@Test
+	void pedidoDoDiarioNaoGravadoNaSubidaFicaParaRetentativa() throws InterruptedException {
+		Ingresso ingresso = ingresso();
+		Pedido pedido = new Pedido(null, LocalDateTime.of(2026, 10, 20, 19, 30), 0, 2, ingresso, new ArrayList<>(),
+				40.0, "PIX", UUID.randomUUID().toString(), null);
+		long antes = pedidoRepository.count();
+		indisponivel.set(true);
+
+		int gravados = checkoutService.recuperar(List.of(new DiarioCheckout.Registro(1, pedido.getCheckoutToken(),
+				pedido.getDataHora(), ingresso.getId(), 0, 2, 40.0, "PIX", List.of())));
+
+		assertThat(gravados).isZero();
+		assertThat(checkoutService.findByToken(pedido.getCheckoutToken()).orElseThrow().getStatus())
+				.isEqualTo(CheckoutConfirmacaoDTO.PENDENTE);
+
+		indisponivel.set(false);
+		CheckoutConfirmacaoDTO confirmado = aguardarConclusao(pedido.getCheckoutToken());
+		assertThat(confirmado.getStatus()).isEqualTo(CheckoutConfirmacaoDTO.CONFIRMADO);
+		assertThat(pedidoRepository.count()).isEqualTo(antes + 1);
+	}
+
+	private CheckoutConfirmacaoDTO aguardarConclusao(String token) throws InterruptedException {
+		long limite = System.nanoTime() + 10_000_000_000L;
+		CheckoutConfirmacaoDTO confirmacao = checkoutService.findByToken(token).orElseThrow();
+		while (CheckoutConfirmacaoDTO.PENDENTE.equals(confirmacao.getStatus()) && System.nanoTime() < limite) {
+			Thread.sleep(20);
+			confirmacao = checkoutService.findByToken(token).orElseThrow();
+		}
+		return confirmacao;
+	}
+
+	private Ingresso ingresso() {
+		Filme filme = filmeRepository.save(new Filme(null, "Filme", "Sinopse", "L", 100, "Elenco", "Drama",
+				LocalDate.of(2026, 1, 1), LocalDate.of(2026, 12, 31), null));
+		Sala sala = salaRepository.save(new Sala(null, numeroSala.incrementAndGet(), 10, SeatLayout.of(new int[][]{{0, 0, 0, 0, 0}, {0, 0, 0, 0, 0}}), Sala.PADRAO, null));
+		Sessao sessao = sessaoRepository.save(new Sessao(null, LocalDateTime.of(2026, 11, 1, 20, 0), filme, sala));
+		return ingressoRepository.save(new Ingresso(null, 2000L, 1000L, sessao, null));
+	}
+}